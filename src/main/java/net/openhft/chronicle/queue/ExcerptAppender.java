@@ -136,6 +136,31 @@ public interface ExcerptAppender extends ExcerptCommon<ExcerptAppender>, Marshal
      */
     Wire wire();
 
+    /**
+     * Sets the priority of this appender's writes against those of the other appenders of the queue, e.g. so a
+     * latency sensitive appender isn't held up by one writing in bulk.
+     * <p>
+     * Appenders which don't support priorities write with {@link WritePriority#NORMAL} priority, so setting that does
+     * nothing.
+     *
+     * @param priority of this appender's writes, {@link WritePriority#NORMAL} by default
+     * @return this
+     * @throws UnsupportedOperationException if this appender can't write with this priority
+     */
+    default ExcerptAppender priority(@NotNull WritePriority priority) {
+        if (priority != WritePriority.NORMAL)
+            throw new UnsupportedOperationException(getClass().getName() + " can only write with NORMAL priority, not " + priority);
+        return this;
+    }
+
+    /**
+     * @return the priority of this appender's writes
+     */
+    @NotNull
+    default WritePriority priority() {
+        return WritePriority.NORMAL;
+    }
+
     /**
      * Appends a number of excerpts in a single batch operation.
      *
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.queue.internal.InternalMergedTailer;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.MarshallableIn;
+import net.openhft.chronicle.wire.WireIn;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reads excerpts from several {@link ExcerptTailer}s in a single global order.
+ * <p>
+ * The next excerpt of each input is peeked and keyed using a {@link KeyFunction}, the input with the lowest key
+ * is read next. Ties are broken by the position of the input, so merging is deterministic.
+ * <p>
+ * Only excerpts which have already been written are considered, an input which has nothing to read yet does not hold
+ * back the others.
+ *
+ * <p>
+ * Closing a MergedTailer closes the tailers it created, but not those it was given.
+ *
+ * <p><b>NOTE:</b> A MergedTailer is NOT thread-safe, and nor are the tailers it reads from.</p>
+ */
+public interface MergedTailer extends MarshallableIn, java.io.Closeable {
+
+    /**
+     * Creates a MergedTailer over the given tailers which orders excerpts by the first {@link net.openhft.chronicle.wire.MessageHistory} timing.
+     *
+     * @param tailers to merge
+     * @return a new MergedTailer
+     */
+    @NotNull
+    static MergedTailer create(@NotNull ExcerptTailer... tailers) {
+        return create(KeyFunction.messageHistoryTiming(), tailers);
+    }
+
+    /**
+     * Creates a MergedTailer over the given tailers which orders excerpts by the given {@code keyFunction}.
+     *
+     * @param keyFunction to key each excerpt with
+     * @param tailers     to merge
+     * @return a new MergedTailer
+     */
+    @NotNull
+    static MergedTailer create(@NotNull KeyFunction keyFunction, @NotNull ExcerptTailer... tailers) {
+        return new InternalMergedTailer(keyFunction, tailers);
+    }
+
+    /**
+     * Creates a MergedTailer over a new tailer for each of the given queues, which are closed when it is closed.
+     *
+     * @param keyFunction to key each excerpt with
+     * @param queues      to merge
+     * @return a new MergedTailer
+     */
+    @NotNull
+    static MergedTailer create(@NotNull KeyFunction keyFunction, @NotNull ChronicleQueue... queues) {
+        final ExcerptTailer[] tailers = new ExcerptTailer[queues.length];
+        for (int i = 0; i < queues.length; i++)
+            tailers[i] = queues[i].createTailer();
+        return new InternalMergedTailer(keyFunction, true, tailers);
+    }
+
+    /**
+     * Returns the {@link DocumentContext} of the excerpt with the lowest key across all inputs.
+     * <p>
+     * Closing the context advances only the input the excerpt was read from.
+     *
+     * @return the document context
+     */
+    @NotNull
+    @Override
+    DocumentContext readingDocument();
+
+    /**
+     * @return the number of inputs
+     */
+    int inputs();
+
+    /**
+     * @param input the position of the input
+     * @return the tailer for an input
+     */
+    @NotNull
+    ExcerptTailer tailer(int input);
+
+    /**
+     * @return the input the last document was read from, or -1 if none has been read
+     */
+    int lastInput();
+
+    /**
+     * @return the key of the last document read
+     */
+    long lastKey();
+
+    /**
+     * Copies the index each input will read next into {@code indices} so the merge can be restarted later with
+     * {@link #moveToIndices(long...)}.
+     *
+     * @param indices to copy into, must have a length of at least {@link #inputs()}
+     * @return {@code indices}
+     */
+    @NotNull
+    long[] indices(@NotNull long[] indices);
+
+    /**
+     * Moves each input to an index previously obtained from {@link #indices(long[])}.
+     *
+     * @param indices one per input
+     * @return {@code true} if every input could be moved
+     */
+    boolean moveToIndices(@NotNull long... indices);
+
+    /**
+     * Moves every input to the start.
+     *
+     * @return this
+     */
+    @NotNull
+    MergedTailer toStart();
+
+    /**
+     * Closes the tailers this created in {@link #create(KeyFunction, ChronicleQueue...)}, the tailers passed to
+     * {@link #create(KeyFunction, ExcerptTailer...)} are left to the caller to close.
+     */
+    @Override
+    void close();
+
+    /**
+     * Extracts the ordering key of an excerpt. Implementations may read from the wire freely, the read is rolled back.
+     */
+    @FunctionalInterface
+    interface KeyFunction {
+
+        /**
+         * Returns a KeyFunction which reads the first timing of the message history written by a method writer with
+         * {@code recordHistory(true)}, i.e. the time the event first entered the system.
+         * <p>
+         * Excerpts without a history are given {@link Long#MIN_VALUE} and so are read as soon as they are seen.
+         *
+         * @return a new KeyFunction, each one reuses its own history so can be shared by a single MergedTailer only
+         */
+        @NotNull
+        static KeyFunction messageHistoryTiming() {
+            return InternalMergedTailer.messageHistoryTiming();
+        }
+
+        /**
+         * @return a KeyFunction which orders excerpts by the index of the queue they were read from.
+         */
+        @NotNull
+        static KeyFunction index() {
+            return (wire, index) -> index;
+        }
+
+        /**
+         * @param wire  positioned at the start of the excerpt
+         * @param index of the excerpt in its queue
+         * @return the key to order the excerpt by
+         */
+        long key(@NotNull WireIn wire, long index);
+    }
+}
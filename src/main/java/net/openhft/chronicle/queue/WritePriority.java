@@ -0,0 +1,25 @@
+package net.openhft.chronicle.queue;
+
+/**
+ * How an appender's writes are ordered against those of the other appenders of a queue, see
+ * {@link ExcerptAppender#priority(WritePriority)}.
+ */
+public enum WritePriority {
+    /**
+     * Gets the write lock ahead of appenders of normal or low priority waiting for it. This needs a fair write lock,
+     * see {@code SingleChronicleQueueBuilder.fairWriteLock(boolean)}, otherwise it's the same as normal.
+     */
+    HIGH,
+
+    /**
+     * The default.
+     */
+    NORMAL,
+
+    /**
+     * Writes each excerpt to a buffer and only holds the write lock to copy it to the queue, so a large excerpt
+     * delays other appenders as little as it can, e.g. for bulk writes. As the excerpt isn't in the queue while it's
+     * written, its index isn't known until it's closed.
+     */
+    LOW
+}
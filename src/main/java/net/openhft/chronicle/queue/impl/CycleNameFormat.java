@@ -0,0 +1,297 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formats and parses cycle file names in UTC for the fixed width patterns used by roll cycles, writing and reading
+ * digits directly rather than through java.time.
+ * <p>
+ * Supports the fields {@code yyyy}, {@code MM}, {@code dd}, {@code DDD}, {@code HH}, {@code mm} and {@code ss}, quoted
+ * literals and other non letter literals, for years 1 to 9999. {@link #compile(String)} returns null for any other
+ * pattern, which is then handled with a {@code DateTimeFormatter}.
+ */
+final class CycleNameFormat {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static final char YEAR = 'y';
+    private static final char MONTH = 'M';
+    private static final char DAY = 'd';
+    private static final char DAY_OF_YEAR = 'D';
+    private static final char HOUR = 'H';
+    private static final char MINUTE = 'm';
+    private static final char SECOND = 's';
+    private static final char LITERAL = '\'';
+
+    // for each part, the field or LITERAL, with its width or the literal text
+    private final char[] fields;
+    private final int[] widths;
+    private final String[] literals;
+    private final int length;
+
+    private CycleNameFormat(char[] fields, int[] widths, String[] literals) {
+        this.fields = fields;
+        this.widths = widths;
+        this.literals = literals;
+        int length = 0;
+        for (int width : widths)
+            length += width;
+        this.length = length;
+    }
+
+    /**
+     * @param pattern as used by {@code DateTimeFormatter.ofPattern}
+     * @return a format for this pattern, or null if it isn't supported
+     */
+    @Nullable
+    static CycleNameFormat compile(@NotNull String pattern) {
+        final List<Character> fields = new ArrayList<>();
+        final List<Integer> widths = new ArrayList<>();
+        final List<String> literals = new ArrayList<>();
+        boolean date = false, dayOfYear = false;
+        for (int i = 0; i < pattern.length(); ) {
+            final char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                final StringBuilder literal = new StringBuilder();
+                int j = i + 1;
+                for (; ; j++) {
+                    if (j >= pattern.length())
+                        return null;
+                    if (pattern.charAt(j) == '\'') {
+                        if (j + 1 < pattern.length() && pattern.charAt(j + 1) == '\'') {
+                            literal.append('\'');
+                            j++;
+                            continue;
+                        }
+                        break;
+                    }
+                    literal.append(pattern.charAt(j));
+                }
+                if (j == i + 1)
+                    literal.append('\'');
+                addLiteral(fields, widths, literals, literal.toString());
+                i = j + 1;
+                continue;
+            }
+            if (!Character.isLetter(ch)) {
+                addLiteral(fields, widths, literals, String.valueOf(ch));
+                i++;
+                continue;
+            }
+            int j = i;
+            while (j < pattern.length() && pattern.charAt(j) == ch)
+                j++;
+            final int width = j - i;
+            if (width != widthOf(ch))
+                return null;
+            date |= ch == MONTH || ch == DAY;
+            dayOfYear |= ch == DAY_OF_YEAR;
+            fields.add(ch);
+            widths.add(width);
+            literals.add(null);
+            i = j;
+        }
+        // the date must be fully specified one way, and only one way
+        if (date == dayOfYear || date && !(fields.contains(MONTH) && fields.contains(DAY)) || !fields.contains(YEAR))
+            return null;
+
+        final char[] f = new char[fields.size()];
+        final int[] w = new int[widths.size()];
+        for (int i = 0; i < f.length; i++) {
+            f[i] = fields.get(i);
+            w[i] = widths.get(i);
+        }
+        return new CycleNameFormat(f, w, literals.toArray(new String[0]));
+    }
+
+    private static void addLiteral(List<Character> fields, List<Integer> widths, List<String> literals, String literal) {
+        fields.add(LITERAL);
+        widths.add(literal.length());
+        literals.add(literal);
+    }
+
+    private static int widthOf(char field) {
+        switch (field) {
+            case YEAR:
+                return 4;
+            case DAY_OF_YEAR:
+                return 3;
+            case MONTH:
+            case DAY:
+            case HOUR:
+            case MINUTE:
+            case SECOND:
+                return 2;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * @param epochMillis the time to format
+     * @return the name, or null if the year is out of range
+     */
+    @Nullable
+    String format(long epochMillis) {
+        final long epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        final int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+        final long yearMonthDay = civilFromDays(epochDay);
+        final int year = (int) (yearMonthDay >> 9);
+        if (year < 1 || year > 9999)
+            return null;
+        final int month = (int) (yearMonthDay >> 5) & 0xF;
+        final int day = (int) yearMonthDay & 0x1F;
+
+        final char[] chars = new char[length];
+        int pos = 0;
+        for (int i = 0; i < fields.length; i++) {
+            final int value;
+            switch (fields[i]) {
+                case LITERAL:
+                    literals[i].getChars(0, widths[i], chars, pos);
+                    pos += widths[i];
+                    continue;
+                case YEAR:
+                    value = year;
+                    break;
+                case MONTH:
+                    value = month;
+                    break;
+                case DAY:
+                    value = day;
+                    break;
+                case DAY_OF_YEAR:
+                    value = (int) (epochDay - daysFromCivil(year, 1, 1)) + 1;
+                    break;
+                case HOUR:
+                    value = millisOfDay / 3_600_000;
+                    break;
+                case MINUTE:
+                    value = millisOfDay / 60_000 % 60;
+                    break;
+                default:
+                    value = millisOfDay / 1000 % 60;
+                    break;
+            }
+            pos += widths[i];
+            for (int v = value, p = pos - 1; p >= pos - widths[i]; p--, v /= 10)
+                chars[p] = (char) ('0' + v % 10);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @param name to parse
+     * @return the time of this name in millis since 1970
+     * @throws IllegalArgumentException if the name doesn't match the pattern
+     */
+    long parse(@NotNull CharSequence name) throws IllegalArgumentException {
+        if (name.length() != length)
+            throw new IllegalArgumentException();
+        int year = 0, month = 0, day = 0, dayOfYear = 0, hour = 0, minute = 0, second = 0;
+        int pos = 0;
+        for (int i = 0; i < fields.length; i++) {
+            final int width = widths[i];
+            if (fields[i] == LITERAL) {
+                final String literal = literals[i];
+                for (int j = 0; j < width; j++)
+                    if (name.charAt(pos + j) != literal.charAt(j))
+                        throw new IllegalArgumentException();
+                pos += width;
+                continue;
+            }
+            int value = 0;
+            for (int end = pos + width; pos < end; pos++) {
+                final int digit = name.charAt(pos) - '0';
+                if (digit < 0 || digit > 9)
+                    throw new IllegalArgumentException();
+                value = value * 10 + digit;
+            }
+            switch (fields[i]) {
+                case YEAR:
+                    year = value;
+                    break;
+                case MONTH:
+                    month = value;
+                    break;
+                case DAY:
+                    day = value;
+                    break;
+                case DAY_OF_YEAR:
+                    dayOfYear = value;
+                    break;
+                case HOUR:
+                    hour = value;
+                    break;
+                case MINUTE:
+                    minute = value;
+                    break;
+                default:
+                    second = value;
+                    break;
+            }
+        }
+        final boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+        final long epochDay;
+        if (dayOfYear > 0) {
+            if (dayOfYear > (leap ? 366 : 365))
+                throw new IllegalArgumentException();
+            epochDay = daysFromCivil(year, 1, 1) + dayOfYear - 1;
+        } else {
+            if (month < 1 || month > 12 || day < 1 || day > daysInMonth(month, leap))
+                throw new IllegalArgumentException();
+            epochDay = daysFromCivil(year, month, day);
+        }
+        if (year < 1 || hour > 23 || minute > 59 || second > 59)
+            throw new IllegalArgumentException();
+        return epochDay * MILLIS_PER_DAY + hour * 3_600_000L + minute * 60_000L + second * 1000L;
+    }
+
+    private static int daysInMonth(int month, boolean leap) {
+        return month == 2 ? (leap ? 29 : 28) : 30 + ((month + (month >> 3)) & 1);
+    }
+
+    // the days since 1970-01-01 of a date in the proleptic Gregorian calendar
+    private static long daysFromCivil(long year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        final long era = Math.floorDiv(year, 400);
+        final long yearOfEra = year - era * 400;
+        final long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // the date of days since 1970-01-01, as year << 9 | month << 5 | day
+    private static long civilFromDays(long epochDay) {
+        final long z = epochDay + 719468;
+        final long era = Math.floorDiv(z, 146097);
+        final long dayOfEra = z - era * 146097;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long mp = (5 * dayOfYear + 2) / 153;
+        final long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        final long month = mp < 10 ? mp + 3 : mp - 9;
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year << 9 | month << 5 | day;
+    }
+}
@@ -20,6 +20,7 @@ package net.openhft.chronicle.queue.impl;
 import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.queue.RollCycle;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.time.Instant;
@@ -28,6 +29,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
@@ -37,21 +39,27 @@ public class RollingResourcesCache {
     private static final int CACHE_SIZE = Integer.getInteger("chronicle.queue.rollingResourceCache.size", 128);
     private static final int ONE_DAY_IN_MILLIS = 86400000;
     private static final int MAX_TIMESTAMP_CACHE_SIZE = 32;
+    private static final int PARSE_COUNT_CACHE_SIZE = 64;
 
     @NotNull
     private final Function<String, File> fileFactory;
     @NotNull
     private final DateTimeFormatter formatter;
+    // formats and parses without java.time, or null if the format isn't supported
+    @Nullable
+    private final CycleNameFormat nameFormat;
     @NotNull
     private final Resource[] values;
     private final int length;
     @NotNull
     private final Function<File, String> fileToName;
     private final String format;
+    // only used when the format isn't supported by nameFormat
     private final ConcurrentMap<File, Long> filenameToTimestampCache =
             new ConcurrentHashMap<>(MAX_TIMESTAMP_CACHE_SIZE);
     private final long epoch;
-    private ParseCount lastParseCount = NO_PARSE_COUNT;
+    @NotNull
+    private final ParseCount[] parseCounts = new ParseCount[PARSE_COUNT_CACHE_SIZE];
 
     public RollingResourcesCache(@NotNull final RollCycle cycle, long epoch,
                                  @NotNull Function<String, File> nameToFile,
@@ -72,8 +80,9 @@ public class RollingResourcesCache {
 
         this.format = format;
         this.formatter = DateTimeFormatter.ofPattern(this.format).withZone(ZoneId.of("UTC"));
+        this.nameFormat = CycleNameFormat.compile(format);
         this.fileFactory = nameToFile;
-
+        Arrays.fill(parseCounts, NO_PARSE_COUNT);
     }
 
     /**
@@ -88,23 +97,41 @@ public class RollingResourcesCache {
         int hash = Maths.hash32(millisSinceBeginningOfEpoch) & (CACHE_SIZE - 1);
         Resource dv = values[hash];
         if (dv == null || dv.millis != millisSinceBeginningOfEpoch) {
-            final Instant instant = Instant.ofEpochMilli(millisSinceBeginningOfEpoch + epoch);
-            @NotNull String text = formatter.format(instant);
+            @NotNull String text = format(millisSinceBeginningOfEpoch + epoch);
             values[hash] = dv = new Resource(millisSinceBeginningOfEpoch, text, fileFactory.apply(text));
         }
         return dv;
     }
 
+    @NotNull
+    private String format(long epochMillis) {
+        if (nameFormat != null) {
+            final String text = nameFormat.format(epochMillis);
+            if (text != null)
+                return text;
+        }
+        return formatter.format(Instant.ofEpochMilli(epochMillis));
+    }
+
     public int parseCount(@NotNull String name) {
-        ParseCount last = this.lastParseCount;
+        final int slot = name.hashCode() & (PARSE_COUNT_CACHE_SIZE - 1);
+        ParseCount last = parseCounts[slot];
         if (name.equals(last.name))
             return last.count;
         int count = parseCount0(name);
-        lastParseCount = new ParseCount(name, count);
+        parseCounts[slot] = new ParseCount(name, count);
         return count;
     }
 
     private int parseCount0(@NotNull String name) {
+        if (nameFormat != null) {
+            try {
+                final long seconds = nameFormat.parse(name) / 1000;
+                return Maths.toInt32((seconds - ((epoch) / 1000)) / (length / 1000));
+            } catch (IllegalArgumentException e) {
+                // fall through, so the error is the formatter's
+            }
+        }
         try {
             TemporalAccessor parse = formatter.parse(name);
 
@@ -120,6 +147,13 @@ public class RollingResourcesCache {
     }
 
     public Long toLong(File file) {
+        if (nameFormat != null) {
+            try {
+                return toLong(nameFormat.parse(fileToName.apply(file)));
+            } catch (IllegalArgumentException e) {
+                // fall through, so the error is the formatter's
+            }
+        }
         final Long cachedValue = filenameToTimestampCache.get(file);
         if (cachedValue != null) {
             return cachedValue;
@@ -145,6 +179,16 @@ public class RollingResourcesCache {
         return value;
     }
 
+    private long toLong(long epochMillis) {
+        if (length == ONE_DAY_IN_MILLIS)
+            return Math.floorDiv(epochMillis, ONE_DAY_IN_MILLIS);
+        if (length < ONE_DAY_IN_MILLIS)
+            return epochMillis / length;
+        long daysSinceEpoch = Math.floorDiv(epochMillis, ONE_DAY_IN_MILLIS);
+        long adjShift = daysSinceEpoch < 0 ? -1 : 0;
+        return adjShift + ((daysSinceEpoch * 86400) / (length / 1000));
+    }
+
     static final class ParseCount {
         final String name;
         final int count;
@@ -26,20 +26,40 @@ import org.jetbrains.annotations.Nullable;
 
 import java.text.ParseException;
 import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Acquires the store for a cycle. The header of a cycle's file is read once, into a store shared by everything with
+ * the cycle open, and each acquisition returns a view of it. The shared store is closed when the last view is.
+ */
 public class WireStorePool extends SimpleCloseable {
     @NotNull
     private final WireStoreSupplier supplier;
     private final StoreFileListener storeFileListener;
+    // the stores which views are acquired from, by cycle
+    private final ConcurrentMap<Integer, SingleChronicleQueueStore> stores;
+    // whether closing this pool closes the stores, rather than it sharing those of another pool
+    private final boolean ownsStores;
 
-    private WireStorePool(@NotNull WireStoreSupplier supplier, StoreFileListener storeFileListener) {
+    private WireStorePool(@NotNull WireStoreSupplier supplier, StoreFileListener storeFileListener, ConcurrentMap<Integer, SingleChronicleQueueStore> stores, boolean ownsStores) {
         this.supplier = supplier;
         this.storeFileListener = storeFileListener;
+        this.stores = stores;
+        this.ownsStores = ownsStores;
     }
 
     @NotNull
     public static WireStorePool withSupplier(@NotNull WireStoreSupplier supplier, StoreFileListener storeFileListener) {
-        return new WireStorePool(supplier, storeFileListener);
+        return new WireStorePool(supplier, storeFileListener, new ConcurrentHashMap<>(), true);
+    }
+
+    /**
+     * @return a pool sharing the stores of this one, which can be closed on its own, e.g. by an appender
+     */
+    @NotNull
+    public WireStorePool newPool() {
+        return new WireStorePool(supplier, storeFileListener, stores, false);
     }
 
     @Nullable
@@ -50,7 +70,7 @@ public class WireStorePool extends SimpleCloseable {
             SingleChronicleQueueStore oldStore) {
         throwExceptionIfClosed();
 
-        SingleChronicleQueueStore store = this.supplier.acquire(cycle, createIfAbsent);
+        SingleChronicleQueueStore store = acquireView(cycle, createIfAbsent);
         if (store != null) {
             if (store != oldStore) {
                 storeFileListener.onAcquired(cycle, store.file());
@@ -60,6 +80,36 @@ public class WireStorePool extends SimpleCloseable {
         return store;
     }
 
+    @Nullable
+    private SingleChronicleQueueStore acquireView(int cycle, boolean createIfAbsent) {
+        while (true) {
+            SingleChronicleQueueStore shared = stores.get(cycle);
+            if (shared != null) {
+                // unless the file has been deleted since, e.g. as it had no excerpts
+                final SingleChronicleQueueStore view = shared.file().exists() ? shared.newView() : null;
+                if (view != null)
+                    return view;
+                stores.remove(cycle, shared);
+                continue;
+            }
+
+            final SingleChronicleQueueStore created = supplier.acquire(cycle, createIfAbsent);
+            if (created == null)
+                return null;
+            created.cycle(cycle);
+            shared = stores.putIfAbsent(cycle, created);
+            if (shared == null) {
+                stores.values().removeIf(SingleChronicleQueueStore::isClosed);
+                final SingleChronicleQueueStore view = created.newView();
+                if (view != null)
+                    return view;
+            } else {
+                // another thread acquired the cycle at the same time
+                Closeable.closeQuietly(created);
+            }
+        }
+    }
+
     public int nextCycle(final int currentCycle, @NotNull TailerDirection direction) throws ParseException {
         throwExceptionIfClosed();
 
@@ -68,10 +118,24 @@ public class WireStorePool extends SimpleCloseable {
 
     public void closeStore(@NotNull SingleChronicleQueueStore store) {
         Closeable.closeQuietly(store);
+        final SingleChronicleQueueStore shared = stores.get(store.cycle());
+        if (shared != null && shared.isClosed())
+            stores.remove(store.cycle(), shared);
+        // the last view of the cycle has been closed
+        if (store.isReleased())
+            supplier.onReleased(store.cycle(), store.file());
 
         storeFileListener.onReleased(store.cycle(), store.file());
     }
 
+    @Override
+    protected void performClose() {
+        if (ownsStores) {
+            stores.values().forEach(Closeable::closeQuietly);
+            stores.clear();
+        }
+    }
+
     /**
      * list cycles between ( inclusive )
      *
@@ -19,8 +19,10 @@ package net.openhft.chronicle.queue.impl;
 
 import net.openhft.chronicle.queue.TailerDirection;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueStore;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.text.ParseException;
 import java.util.NavigableSet;
 
@@ -46,4 +48,13 @@ public interface WireStoreSupplier {
      * @return the cycles between a range, inclusive
      */
     NavigableSet<Long> cycles(int lowerCycle, int upperCycle) throws ParseException;
+
+    /**
+     * Called once the last store acquired for a cycle has been closed, so anything kept for it can be freed.
+     *
+     * @param cycle the cycle
+     * @param file  the file the store was mapped from
+     */
+    default void onReleased(int cycle, @NotNull File file) {
+    }
 }
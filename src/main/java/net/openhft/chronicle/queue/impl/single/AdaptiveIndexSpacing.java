@@ -0,0 +1,46 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Maths;
+
+/**
+ * Chooses the index spacing and count of a new cycle from the average message size of the previous cycle.
+ */
+final class AdaptiveIndexSpacing {
+    static final int MAX_INDEX_SPACING = 1 << 20;
+    // how far the index count may grow beyond the configured count to allow a denser index
+    static final int MAX_INDEX_COUNT_GROWTH = 4;
+
+    private AdaptiveIndexSpacing() {
+    }
+
+    /**
+     * @param averageSize  the average bytes per message
+     * @param maxScanBytes the bytes to scan from an index entry on average
+     * @param maxMessages  the number of messages a cycle must be able to index
+     * @param indexCount   the configured index count
+     * @return the index spacing, a power of two
+     */
+    static int indexSpacing(long averageSize, long maxScanBytes, long maxMessages, int indexCount) {
+        final long wanted = Math.max(1, maxScanBytes / Math.max(1, averageSize));
+        int spacing = (int) Math.min(MAX_INDEX_SPACING, Long.highestOneBit(wanted));
+
+        // the index must still be able to hold maxMessages without growing too large
+        final long maxIndexCount = (long) indexCount * MAX_INDEX_COUNT_GROWTH;
+        while (spacing < MAX_INDEX_SPACING && maxIndexCount * maxIndexCount * spacing < maxMessages)
+            spacing <<= 1;
+        return spacing;
+    }
+
+    /**
+     * @param maxMessages  the number of messages a cycle must be able to index
+     * @param indexSpacing the index spacing to be used
+     * @param indexCount   the configured index count
+     * @return the smallest index count, no less than {@code indexCount}, able to index {@code maxMessages}
+     */
+    static int indexCount(long maxMessages, int indexSpacing, int indexCount) {
+        long count = Maths.nextPower2(indexCount, 8);
+        while (count * count * indexSpacing < maxMessages)
+            count <<= 1;
+        return (int) count;
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.core.io.SimpleCloseable;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A completed cycle compressed as a sequence of independently compressed frames, with a frame index so any part of
+ * the cycle can be read without inflating what comes before it.
+ * <p>
+ * Each frame after the first starts at an indexed excerpt, i.e. one whose sequence is a multiple of the index spacing,
+ * so a position found in the cycle's index is the start of a frame or a short scan into one. The layout is
+ * <pre>
+ * int magic, int version, long fileLength, long dataLength, int frameCount,
+ * long[frameCount + 1] frame start in the cycle, long[frameCount + 1] frame offset in the archive,
+ * frames
+ * </pre>
+ */
+public final class CycleArchive extends SimpleCloseable {
+    public static final String SUFFIX = ".cq4z";
+    public static final int DEFAULT_FRAME_SIZE = 1 << 20;
+
+    private static final int MAGIC = 0x5A345143; // CQ4Z
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+
+    @NotNull
+    private final File file;
+    @NotNull
+    private final RandomAccessFile raf;
+    private final long fileLength;
+    private final long[] frameStarts;
+    private final long[] frameOffsets;
+    private final Inflater inflater = new Inflater();
+
+    private CycleArchive(@NotNull File file) throws IOException {
+        this.file = file;
+        this.raf = new RandomAccessFile(file, "r");
+        try {
+            final ByteBuffer header = read(0, HEADER_SIZE);
+            if (header.getInt() != MAGIC)
+                throw new StreamCorruptedException("Not a cycle archive " + file);
+            final int version = header.getInt();
+            if (version != VERSION)
+                throw new StreamCorruptedException("Unsupported cycle archive version " + version + " " + file);
+            fileLength = header.getLong();
+            header.getLong();
+            final int frameCount = header.getInt();
+            final ByteBuffer index = read(HEADER_SIZE, 16L * (frameCount + 1));
+            frameStarts = new long[frameCount + 1];
+            frameOffsets = new long[frameCount + 1];
+            for (int i = 0; i <= frameCount; i++)
+                frameStarts[i] = index.getLong();
+            for (int i = 0; i <= frameCount; i++)
+                frameOffsets[i] = index.getLong();
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    @NotNull
+    public static CycleArchive open(@NotNull File file) throws IOException {
+        return new CycleArchive(file);
+    }
+
+    /**
+     * @param cycleFile a cycle file
+     * @return the archive which would replace it
+     */
+    @NotNull
+    public static File archiveFileFor(@NotNull File cycleFile) {
+        final String name = cycleFile.getName();
+        return new File(cycleFile.getParentFile(), name.substring(0, name.length() - SingleChronicleQueue.SUFFIX.length()) + SUFFIX);
+    }
+
+    /**
+     * Compresses a completed cycle, one ending in an end of file marker, into an archive. The archive is written to a
+     * temporary file and renamed, so it's never seen partly written.
+     *
+     * @param store     of the cycle
+     * @param target    to write the archive to
+     * @param frameSize the smallest uncompressed size of a frame
+     * @return the size of the archive
+     * @throws IllegalStateException if the cycle isn't complete
+     */
+    static long archive(@NotNull SingleChronicleQueueStore store, @NotNull File target, int frameSize) throws IOException {
+        final long[] boundaries = frameBoundaries(store, frameSize);
+        final int frameCount = boundaries.length - 1;
+        final File tmp = new File(target.getParentFile(), target.getName() + ".tmp");
+        final Deflater deflater = new Deflater();
+        try (RandomAccessFile in = new RandomAccessFile(store.file(), "r");
+             RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+            final FileChannel inChannel = in.getChannel();
+            final FileChannel outChannel = out.getChannel();
+            final long[] offsets = new long[frameCount + 1];
+            long offset = HEADER_SIZE + 16L * (frameCount + 1);
+            byte[] raw = new byte[0];
+            byte[] compressed = new byte[0];
+            for (int i = 0; i < frameCount; i++) {
+                final int length = Math.toIntExact(boundaries[i + 1] - boundaries[i]);
+                if (raw.length < length) {
+                    raw = new byte[length];
+                    compressed = new byte[length + (length >> 8) + 64];
+                }
+                readFully(inChannel, ByteBuffer.wrap(raw, 0, length), boundaries[i]);
+                deflater.reset();
+                deflater.setInput(raw, 0, length);
+                deflater.finish();
+                offsets[i] = offset;
+                while (!deflater.finished()) {
+                    final int n = deflater.deflate(compressed);
+                    writeFully(outChannel, ByteBuffer.wrap(compressed, 0, n), offset);
+                    offset += n;
+                }
+            }
+            offsets[frameCount] = offset;
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 16 * (frameCount + 1));
+            header.putInt(MAGIC).putInt(VERSION).putLong(in.length()).putLong(boundaries[frameCount]).putInt(frameCount);
+            for (long start : boundaries)
+                header.putLong(start);
+            for (long o : offsets)
+                header.putLong(o);
+            header.flip();
+            writeFully(outChannel, header, 0);
+            outChannel.force(true);
+        } finally {
+            deflater.end();
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        return target.length();
+    }
+
+    /**
+     * Walks the headers of a completed cycle, starting a new frame at an indexed excerpt once the current frame is at
+     * least frameSize bytes.
+     */
+    private static long[] frameBoundaries(@NotNull SingleChronicleQueueStore store, int frameSize) throws StreamCorruptedException {
+        final int indexSpacing = store.rollIndexSpacing();
+        final boolean usePadding = store.dataVersion() > 0;
+        long[] boundaries = new long[16];
+        int count = 1;
+        try (MappedBytes bytes = store.bytes()) {
+            long position = 0;
+            long sequence = 0;
+            for (; ; ) {
+                if (usePadding)
+                    position += -position & 0x3;
+                final int header = bytes.readVolatileInt(position);
+                if (Wires.isEndOfFile(header)) {
+                    position += 4;
+                    break;
+                }
+                if (header == 0)
+                    throw new IllegalStateException("Only a completed cycle can be archived, " + store.file() + " has no end of file marker");
+                if (Wires.isNotComplete(header))
+                    throw new StreamCorruptedException("Incomplete header at " + position + " in " + store.file());
+                if (Wires.isData(header)) {
+                    if (sequence % indexSpacing == 0 && position - boundaries[count - 1] >= frameSize) {
+                        if (count == boundaries.length)
+                            boundaries = Arrays.copyOf(boundaries, count * 2);
+                        boundaries[count++] = position;
+                    }
+                    sequence++;
+                }
+                position += Wires.lengthOf(header) + 4;
+            }
+            if (count == boundaries.length)
+                boundaries = Arrays.copyOf(boundaries, count + 1);
+            boundaries[count++] = position;
+        }
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    private static void readFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, position);
+            if (n < 0)
+                throw new StreamCorruptedException("Unexpected end of file at " + position);
+            position += n;
+        }
+    }
+
+    private static void writeFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    @NotNull
+    private ByteBuffer read(long position, long length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(length));
+        readFully(raf.getChannel(), buffer, position);
+        buffer.flip();
+        return buffer;
+    }
+
+    @NotNull
+    public File file() {
+        return file;
+    }
+
+    /**
+     * @return the length of the cycle file which was archived
+     */
+    public long fileLength() {
+        return fileLength;
+    }
+
+    /**
+     * @return the length of the data in the cycle, up to and including its end of file marker
+     */
+    public long dataLength() {
+        return frameStarts[frameCount()];
+    }
+
+    public int frameCount() {
+        return frameStarts.length - 1;
+    }
+
+    /**
+     * @param frame of the archive
+     * @return the position in the cycle of the first byte of this frame
+     */
+    public long frameStart(int frame) {
+        return frameStarts[frame];
+    }
+
+    /**
+     * @param position in the cycle
+     * @return the frame holding this position, or -1 if it's beyond the data
+     */
+    public int frameFor(long position) {
+        if (position < 0 || position >= dataLength())
+            return -1;
+        final int i = Arrays.binarySearch(frameStarts, position);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * Inflates one frame.
+     *
+     * @param frame of the archive
+     * @return the bytes of the cycle from {@link #frameStart(int)} to the start of the next frame
+     */
+    @NotNull
+    public byte[] readFrame(int frame) throws IOException {
+        throwExceptionIfClosed();
+
+        final ByteBuffer compressed = read(frameOffsets[frame], frameOffsets[frame + 1] - frameOffsets[frame]);
+        final byte[] raw = new byte[Math.toIntExact(frameStarts[frame + 1] - frameStarts[frame])];
+        synchronized (inflater) {
+            inflater.reset();
+            inflater.setInput(compressed.array(), 0, compressed.limit());
+            try {
+                int length = 0;
+                while (length < raw.length && !inflater.finished()) {
+                    final int n = inflater.inflate(raw, length, raw.length - length);
+                    if (n == 0 && inflater.needsInput())
+                        break;
+                    length += n;
+                }
+                if (length != raw.length)
+                    throw new StreamCorruptedException("Frame " + frame + " of " + file + " inflated to " + length + " bytes, expected " + raw.length);
+            } catch (DataFormatException e) {
+                throw new StreamCorruptedException("Frame " + frame + " of " + file + " is corrupt: " + e.getMessage());
+            }
+        }
+        return raw;
+    }
+
+    /**
+     * Restores the cycle file, writing to a temporary file which is renamed when complete, so processes restoring the
+     * same cycle at once don't see each other's partial copies. The file has its original length, though space after
+     * the data is left unallocated where the file system supports it.
+     *
+     * @param target to restore to
+     */
+    public void restoreTo(@NotNull File target) {
+        throwExceptionIfClosed();
+
+        File tmp = null;
+        try {
+            tmp = File.createTempFile(target.getName() + "-", ".tmp", target.getParentFile());
+            try (RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+                out.setLength(fileLength);
+                final FileChannel channel = out.getChannel();
+                for (int i = 0; i < frameCount(); i++)
+                    writeFully(channel, ByteBuffer.wrap(readFrame(i)), frameStarts[i]);
+            }
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (tmp != null)
+                tmp.delete();
+            throw new IORuntimeException(e);
+        }
+    }
+
+    @Override
+    protected void performClose() {
+        inflater.end();
+        try {
+            raf.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * The cycles of a queue which have a file, as a sorted array which is replaced rather than modified, so lookups need no
+ * locking and never scan the directory. Changes are made under the lock of this object.
+ */
+final class CycleIndex {
+    private static final int[] NO_CYCLES = {};
+
+    private volatile int[] cycles = NO_CYCLES;
+
+    int size() {
+        return cycles.length;
+    }
+
+    /**
+     * @return the first cycle, or {@link Integer#MAX_VALUE} if there are none
+     */
+    int first() {
+        final int[] cycles = this.cycles;
+        return cycles.length == 0 ? Integer.MAX_VALUE : cycles[0];
+    }
+
+    /**
+     * @return the last cycle, or {@link Integer#MIN_VALUE} if there are none
+     */
+    int last() {
+        final int[] cycles = this.cycles;
+        return cycles.length == 0 ? Integer.MIN_VALUE : cycles[cycles.length - 1];
+    }
+
+    boolean contains(int cycle) {
+        return Arrays.binarySearch(cycles, cycle) >= 0;
+    }
+
+    /**
+     * @return the lowest cycle after this one, or -1 if there is none
+     */
+    int higher(int cycle) {
+        final int[] cycles = this.cycles;
+        final int i = Arrays.binarySearch(cycles, cycle);
+        final int next = i >= 0 ? i + 1 : -i - 1;
+        return next < cycles.length ? cycles[next] : -1;
+    }
+
+    /**
+     * @return the highest cycle before this one, or -1 if there is none
+     */
+    int lower(int cycle) {
+        final int[] cycles = this.cycles;
+        final int i = Arrays.binarySearch(cycles, cycle);
+        final int previous = (i >= 0 ? i : -i - 1) - 1;
+        return previous >= 0 ? cycles[previous] : -1;
+    }
+
+    /**
+     * @return the cycles between these, inclusive
+     */
+    @NotNull
+    NavigableSet<Long> between(int lowerCycle, int upperCycle) {
+        final int[] cycles = this.cycles;
+        final NavigableSet<Long> set = new TreeSet<>();
+        int i = Arrays.binarySearch(cycles, lowerCycle);
+        for (i = i >= 0 ? i : -i - 1; i < cycles.length && cycles[i] <= upperCycle; i++)
+            set.add((long) cycles[i]);
+        return set;
+    }
+
+    synchronized void add(int cycle) {
+        final int[] cycles = this.cycles;
+        final int i = Arrays.binarySearch(cycles, cycle);
+        if (i >= 0)
+            return;
+        final int at = -i - 1;
+        final int[] added = new int[cycles.length + 1];
+        System.arraycopy(cycles, 0, added, 0, at);
+        added[at] = cycle;
+        System.arraycopy(cycles, at, added, at + 1, cycles.length - at);
+        this.cycles = added;
+    }
+
+    synchronized void remove(int cycle) {
+        final int[] cycles = this.cycles;
+        final int i = Arrays.binarySearch(cycles, cycle);
+        if (i < 0)
+            return;
+        final int[] removed = new int[cycles.length - 1];
+        System.arraycopy(cycles, 0, removed, 0, i);
+        System.arraycopy(cycles, i + 1, removed, i, cycles.length - i - 1);
+        this.cycles = removed;
+    }
+
+    /**
+     * Removes every cycle before this one.
+     */
+    synchronized void removeBefore(int cycle) {
+        final int[] cycles = this.cycles;
+        final int i = Arrays.binarySearch(cycles, cycle);
+        final int from = i >= 0 ? i : -i - 1;
+        if (from > 0)
+            this.cycles = Arrays.copyOfRange(cycles, from, cycles.length);
+    }
+
+    /**
+     * Replaces all the cycles, for example after listing the directory.
+     *
+     * @param cycles in any order, and may contain duplicates
+     */
+    synchronized void reset(@NotNull int[] cycles) {
+        final int[] sorted = cycles.clone();
+        Arrays.sort(sorted);
+        int length = 0;
+        for (int i = 0; i < sorted.length; i++)
+            if (length == 0 || sorted[length - 1] != sorted[i])
+                sorted[length++] = sorted[i];
+        this.cycles = length == sorted.length ? sorted : Arrays.copyOf(sorted, length);
+    }
+}
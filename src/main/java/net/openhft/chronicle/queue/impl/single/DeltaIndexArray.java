@@ -0,0 +1,219 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.values.LongArrayValues;
+import net.openhft.chronicle.core.values.LongValue;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A secondary index stored as 32-bit deltas, two to each long of an underlying array of half the capacity.
+ * <p>
+ * Each delta is the distance, in units of 4 bytes, from the address of the secondary index itself, which is the base.
+ * Excerpts are 4 byte aligned, and a delta of 0 is never a valid position so it means not set, as in a plain index.
+ * A position more than 8 GB from the base can't be stored and is left unset, to be found by a linear scan from the
+ * previous entry.
+ * <p>
+ * An element can only be bound to an {@link Element}, as it isn't a long in the underlying bytes that any other
+ * {@link LongValue} could refer to.
+ */
+final class DeltaIndexArray implements LongArrayValues {
+    private static final long LOW = 0xFFFF_FFFFL;
+
+    private final LongArrayValues packed;
+    private long base;
+
+    DeltaIndexArray(@NotNull LongArrayValues packed) {
+        this.packed = packed;
+    }
+
+    DeltaIndexArray base(long base) {
+        this.base = base;
+        return this;
+    }
+
+    static boolean canStore(long base, long position) {
+        final long delta = (position - base) >> 2;
+        return (position & 3) == 0 && delta != 0 && delta == (int) delta;
+    }
+
+    private static int half(long packed, long index) {
+        return (int) ((index & 1) == 0 ? packed : packed >>> 32);
+    }
+
+    private static long withHalf(long packed, long index, int delta) {
+        return (index & 1) == 0
+                ? (packed & ~LOW) | (delta & LOW)
+                : (packed & LOW) | ((long) delta << 32);
+    }
+
+    private long toPosition(int delta) {
+        return delta == 0 ? 0 : base + ((long) delta << 2);
+    }
+
+    private int toDelta(long position) {
+        return position == 0 ? 0 : (int) ((position - base) >> 2);
+    }
+
+    @Override
+    public long getCapacity() {
+        return packed.getCapacity() * 2;
+    }
+
+    @Override
+    public long getUsed() {
+        return packed.getUsed() * 2;
+    }
+
+    @Override
+    public void setMaxUsed(long usedAtLeast) {
+        packed.setMaxUsed((usedAtLeast + 1) >> 1);
+    }
+
+    @Override
+    public long getValueAt(long index) {
+        return toPosition(half(packed.getValueAt(index >> 1), index));
+    }
+
+    @Override
+    public long getVolatileValueAt(long index) {
+        return toPosition(half(packed.getVolatileValueAt(index >> 1), index));
+    }
+
+    @Override
+    public void setValueAt(long index, long value) {
+        setOrderedValueAt(index, value);
+    }
+
+    @Override
+    public void setOrderedValueAt(long index, long value) {
+        if (value != 0 && !canStore(base, value))
+            return;
+        final int delta = toDelta(value);
+        for (; ; ) {
+            final long current = packed.getVolatileValueAt(index >> 1);
+            if (packed.compareAndSet(index >> 1, current, withHalf(current, index, delta)))
+                return;
+        }
+    }
+
+    @Override
+    public boolean compareAndSet(long index, long expected, long value) {
+        if (value != 0 && !canStore(base, value))
+            return false;
+        final int expectedDelta = toDelta(expected);
+        final int delta = toDelta(value);
+        for (; ; ) {
+            final long current = packed.getVolatileValueAt(index >> 1);
+            if (half(current, index) != expectedDelta || toPosition(expectedDelta) != expected)
+                return false;
+            if (packed.compareAndSet(index >> 1, current, withHalf(current, index, delta)))
+                return true;
+        }
+    }
+
+    /**
+     * Binds an {@link Element} to the element at this index and the current base, so it reads and writes it as a
+     * position, whatever the base of this array is later moved to.
+     *
+     * @throws IllegalArgumentException if the value is not an {@link Element}
+     */
+    @Override
+    public void bindValueAt(long index, LongValue value) {
+        if (!(value instanceof Element))
+            throw new IllegalArgumentException("A delta index element is 32 bits relative to its base, so it can only be bound to a "
+                    + Element.class.getName() + ", not a " + (value == null ? null : value.getClass().getName()));
+        ((Element) value).bind(packed, base, index);
+    }
+
+    @Override
+    public long sizeInBytes(long capacity) {
+        return packed.sizeInBytes((capacity + 1) >> 1);
+    }
+
+    @Override
+    public boolean isNull() {
+        return packed.isNull();
+    }
+
+    @Override
+    public void reset() {
+        packed.reset();
+    }
+
+    @Override
+    public void close() {
+        packed.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return packed.isClosed();
+    }
+
+    /**
+     * A position in a {@link DeltaIndexArray}, which can be bound with {@link #bindValueAt(long, LongValue)}.
+     * A position which can't be stored as a delta is left unset, as by {@link #setOrderedValue(long)}.
+     */
+    static final class Element implements LongValue {
+        private DeltaIndexArray array;
+        private long index;
+
+        void bind(@NotNull LongArrayValues packed, long base, long index) {
+            this.array = new DeltaIndexArray(packed).base(base);
+            this.index = index;
+        }
+
+        private DeltaIndexArray array() {
+            if (array == null)
+                throw new IllegalStateException("Not bound to a delta index element");
+            return array;
+        }
+
+        @Override
+        public long getValue() {
+            return array().getValueAt(index);
+        }
+
+        @Override
+        public void setValue(long value) {
+            array().setValueAt(index, value);
+        }
+
+        @Override
+        public long getVolatileValue() {
+            return array().getVolatileValueAt(index);
+        }
+
+        @Override
+        public void setVolatileValue(long value) {
+            array().setOrderedValueAt(index, value);
+        }
+
+        @Override
+        public void setOrderedValue(long value) {
+            array().setOrderedValueAt(index, value);
+        }
+
+        @Override
+        public long addValue(long delta) {
+            return addAtomicValue(delta);
+        }
+
+        @Override
+        public long addAtomicValue(long delta) {
+            final DeltaIndexArray array = array();
+            for (; ; ) {
+                final long current = array.getVolatileValueAt(index);
+                final long value = current + delta;
+                if (value != 0 && !canStore(array.base, value))
+                    throw new IllegalArgumentException("Position " + value + " can't be stored relative to " + array.base);
+                if (array.compareAndSet(index, current, value))
+                    return value;
+            }
+        }
+
+        @Override
+        public boolean compareAndSwapValue(long expected, long value) {
+            return array().compareAndSet(index, expected, value);
+        }
+    }
+}
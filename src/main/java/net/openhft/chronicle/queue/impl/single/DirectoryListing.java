@@ -12,6 +12,10 @@ public interface DirectoryListing extends Closeable {
 
     void onFileCreated(File file, int cycle);
 
+    default void onFileDeleted(File file, int cycle) {
+        refresh(true);
+    }
+
     int getMinCreatedCycle();
 
     int getMaxCreatedCycle();
@@ -26,7 +26,7 @@ final class FileSystemDirectoryListing extends SimpleCloseable implements Direct
     public void refresh(boolean force) {
         int minCycle = Integer.MAX_VALUE;
         int maxCycle = Integer.MIN_VALUE;
-        final File[] files = queueDir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
+        final File[] files = queueDir.listFiles((d, n) -> SingleChronicleQueue.isCycleFile(n));
         if (files != null) {
             for (File file : files) {
                 int cycle = fileToCycleFunction.applyAsInt(file);
@@ -0,0 +1,68 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.BytesStore;
+import net.openhft.chronicle.bytes.MappedBytesStore;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.Wires;
+import org.jetbrains.annotations.NotNull;
+
+import static net.openhft.chronicle.core.UnsafeMemory.UNSAFE;
+
+/**
+ * Skips complete headers by reading them directly from the address of the mapped chunk, rather than through the
+ * {@link Wire} one message at a time.
+ * <p>
+ * A complete header never changes, so headers are read with plain loads and a single load fence is used before
+ * returning. The scan stops at the first header which isn't complete, including the end of file marker, or which it
+ * can't read directly, leaving it for the {@link Wire} to handle.
+ */
+final class HeaderScanner {
+    private HeaderScanner() {
+    }
+
+    /**
+     * Skips headers from the read position, which must be at a header.
+     *
+     * @param wire       to scan, its read position is left at the first header not skipped
+     * @param maxData    the most data headers to skip
+     * @param toPosition skip only headers before this position
+     * @return the number of data headers skipped
+     */
+    static long skipHeaders(@NotNull Wire wire, long maxData, long toPosition) {
+        final Bytes<?> bytes = wire.bytes();
+        if (!bytes.isDirectMemory())
+            return 0;
+        final boolean usePadding = wire.usePadding();
+        final long limit = Math.min(toPosition, bytes.readLimit() - 4);
+        long position = bytes.readPosition();
+        long count = 0;
+        outer:
+        while (position < limit && count < maxData) {
+            // acquire the chunk holding this position
+            final long address = bytes.addressForRead(position) - position;
+            final BytesStore store = bytes.bytesStore();
+            if (!(store instanceof MappedBytesStore))
+                break;
+            final long end = Math.min(limit, ((MappedBytesStore) store).safeLimit());
+            if (position >= end)
+                break;
+            do {
+                final int header = UNSAFE.getInt(address + position);
+                if (Wires.isNotComplete(header))
+                    break outer;
+                if (Wires.isData(header)) {
+                    if (count == maxData)
+                        break outer;
+                    count++;
+                }
+                position += Wires.lengthOf(header) + 4L;
+                if (usePadding)
+                    position = (position + 3) & ~3L;
+            } while (position < end);
+        }
+        UNSAFE.loadFence();
+        bytes.readPosition(position);
+        return count;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Finds the page size of the file system a queue is on, so the mappings of a queue on hugetlbfs, or on tmpfs mounted
+ * with huge pages, can be aligned to its huge pages, and pretouched a page at a time.
+ * <p>
+ * Files on other file systems, or on tmpfs mounted with {@code huge=advise}, are mapped with the normal page size
+ * whatever their alignment, as the JVM can't ask for transparent huge pages for a mapping. Their mappings are still
+ * aligned to {@link #DEFAULT_SIZE}, but they are pretouched with the normal page size.
+ */
+final class HugePages {
+    static final long DEFAULT_SIZE = 2 << 20;
+
+    private static final String MOUNTS = "/proc/mounts";
+    private static final String MEMINFO = "/proc/meminfo";
+
+    private HugePages() {
+    }
+
+    /**
+     * @param path of the queue, which needn't exist yet
+     * @return the huge page size of the file system of this path, or the normal page size if it doesn't use huge pages
+     */
+    static long pageSizeFor(@Nullable File path) {
+        if (path == null || !OS.isLinux())
+            return OS.pageSize();
+        try {
+            final String[] mount = mountOf(path.getAbsoluteFile(), Files.readAllLines(Paths.get(MOUNTS)));
+            if (mount != null) {
+                final long size = pageSizeOf(mount[2], mount[3], defaultHugePageSize());
+                if (size > 0)
+                    return size;
+            }
+            Jvm.warn().on(HugePages.class, path + " is not on hugetlbfs or tmpfs with huge pages, " +
+                    "so only the alignment of its mappings is changed");
+        } catch (IOException e) {
+            Jvm.debug().on(HugePages.class, "Unable to read " + MOUNTS, e);
+        }
+        return OS.pageSize();
+    }
+
+    /**
+     * @param pageSize the files are mapped with
+     * @return the size mappings are aligned to, at least {@link #DEFAULT_SIZE}
+     */
+    static long alignmentFor(long pageSize) {
+        return Math.max(pageSize, DEFAULT_SIZE);
+    }
+
+    /**
+     * @return the fields of the line of /proc/mounts with the longest mount point containing this path
+     */
+    @Nullable
+    static String[] mountOf(@NotNull File path, @NotNull List<String> mounts) {
+        final String name = path.getPath();
+        String[] best = null;
+        for (String line : mounts) {
+            final String[] fields = line.split(" ");
+            if (fields.length < 4)
+                continue;
+            final String mountPoint = fields[1];
+            final boolean contains = name.equals(mountPoint)
+                    || name.startsWith(mountPoint.endsWith("/") ? mountPoint : mountPoint + "/");
+            if (contains && (best == null || mountPoint.length() >= best[1].length()))
+                best = fields;
+        }
+        return best;
+    }
+
+    /**
+     * @param type            of the file system
+     * @param options         it was mounted with
+     * @param defaultPageSize the default huge page size of the system
+     * @return its huge page size, or 0 if it doesn't use huge pages
+     */
+    static long pageSizeOf(@NotNull String type, @NotNull String options, long defaultPageSize) {
+        switch (type) {
+            case "hugetlbfs":
+                for (String option : options.split(","))
+                    if (option.startsWith("pagesize="))
+                        return parseSize(option.substring("pagesize=".length()));
+                return defaultPageSize;
+            case "tmpfs":
+                for (String option : options.split(","))
+                    // huge=advise only uses huge pages for mappings which ask for them
+                    if (option.equals("huge=always") || option.equals("huge=within_size"))
+                        return DEFAULT_SIZE;
+                return 0;
+            default:
+                return 0;
+        }
+    }
+
+    private static long defaultHugePageSize() {
+        try {
+            for (String line : Files.readAllLines(Paths.get(MEMINFO)))
+                if (line.startsWith("Hugepagesize:"))
+                    return parseSize(line.substring("Hugepagesize:".length()));
+        } catch (IOException | NumberFormatException e) {
+            Jvm.debug().on(HugePages.class, "Unable to read " + MEMINFO, e);
+        }
+        return DEFAULT_SIZE;
+    }
+
+    static long parseSize(@NotNull String size) {
+        final String s = size.replace(" ", "").toUpperCase();
+        final String digits = s.replaceAll("[^0-9]", "");
+        final long value = Long.parseLong(digits);
+        if (s.startsWith("K", digits.length()))
+            return value << 10;
+        if (s.startsWith("M", digits.length()))
+            return value << 20;
+        if (s.startsWith("G", digits.length()))
+            return value << 30;
+        return value;
+    }
+
+    /**
+     * @return the size rounded up to a multiple of the page size
+     */
+    static long align(long size, long pageSize) {
+        return (size + pageSize - 1) / pageSize * pageSize;
+    }
+}
@@ -0,0 +1,119 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of checking, and optionally repairing, the index of one cycle against the excerpts in its file.
+ *
+ * @see SingleChronicleQueueStore#checkIndex(net.openhft.chronicle.wire.WireType, boolean)
+ */
+public final class IndexCheck {
+    // only the first mismatches are kept, the rest are counted
+    static final int MAX_REPORTED = 32;
+
+    private final int cycle;
+    private final List<String> mismatches = new ArrayList<>();
+    long messages;
+    long checked;
+    long missing;
+    long wrong;
+    long repaired;
+    long unindexable;
+    boolean endOfFile;
+
+    IndexCheck(int cycle) {
+        this.cycle = cycle;
+    }
+
+    void mismatch(String description) {
+        if (mismatches.size() < MAX_REPORTED)
+            mismatches.add(description);
+    }
+
+    public int cycle() {
+        return cycle;
+    }
+
+    /**
+     * @return the number of excerpts in the file
+     */
+    public long messages() {
+        return messages;
+    }
+
+    /**
+     * @return the number of index entries compared with the position of their excerpt
+     */
+    public long checked() {
+        return checked;
+    }
+
+    /**
+     * @return the number of index entries which were not set
+     */
+    public long missing() {
+        return missing;
+    }
+
+    /**
+     * @return the number of index entries which point at the wrong position
+     */
+    public long wrong() {
+        return wrong;
+    }
+
+    /**
+     * @return the number of missing or wrong index entries which were written
+     */
+    public long repaired() {
+        return repaired;
+    }
+
+    /**
+     * @return the number of excerpts which should have an index entry but have no room for it in the index
+     */
+    public long unindexable() {
+        return unindexable;
+    }
+
+    /**
+     * @return whether the file has been completed with an end of file marker
+     */
+    public boolean endOfFile() {
+        return endOfFile;
+    }
+
+    /**
+     * @return whether every index entry matched, or has been repaired
+     */
+    public boolean ok() {
+        return missing + wrong == repaired && unindexable == 0;
+    }
+
+    /**
+     * @return descriptions of the first {@value #MAX_REPORTED} mismatches
+     */
+    @NotNull
+    public List<String> mismatches() {
+        return Collections.unmodifiableList(mismatches);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "IndexCheck{" +
+                "cycle=" + cycle +
+                ", messages=" + messages +
+                ", checked=" + checked +
+                ", missing=" + missing +
+                ", wrong=" + wrong +
+                ", repaired=" + repaired +
+                ", unindexable=" + unindexable +
+                ", endOfFile=" + endOfFile +
+                '}';
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytesStore;
+import net.openhft.chronicle.bytes.MappedFile;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.ReferenceOwner;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.threads.Threads;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Touches a range of pages with up to {@code maxWorkers} threads, each touching a contiguous slice through its own
+ * mapping of the file, as {@link net.openhft.chronicle.bytes.MappedBytes} can't be shared between threads.
+ * <p>
+ * The number of workers adapts to how long a page takes to fault in, so a range is touched within
+ * {@code PretoucherState.parallelTargetMicros}, 1 ms by default, using as few workers as that needs.
+ */
+final class ParallelPretoucher extends AbstractCloseable {
+    private static final long TARGET_NS = Long.getLong("PretoucherState.parallelTargetMicros", 1_000) * 1_000;
+    // fewer pages than this aren't worth handing to another thread
+    static final int MIN_PAGES_PER_WORKER = 16;
+
+    private final int maxWorkers;
+    private final ExecutorService service;
+    private volatile int workers = 1;
+    private long averageNsPerPage = 0;
+
+    ParallelPretoucher(@NotNull String name, int maxWorkers) {
+        this.maxWorkers = maxWorkers;
+        this.service = Executors.newFixedThreadPool(maxWorkers - 1, new NamedThreadFactory(name + "-pretouch", true));
+    }
+
+    /**
+     * @return the number of workers the next range will be split between, at most
+     */
+    int workers() {
+        return workers;
+    }
+
+    /**
+     * Touches every page from {@code from} up to {@code to}.
+     *
+     * @return the number of pages which hadn't been written to
+     */
+    int touch(@NotNull MappedFile file, long from, long to, int pageSize) {
+        throwExceptionIfClosed();
+        final long pages = (to - from + pageSize - 1) / pageSize;
+        final int slices = (int) Math.max(1, Math.min(workers, pages / MIN_PAGES_PER_WORKER));
+        final long slicePages = (pages + slices - 1) / slices;
+        final long start = System.nanoTime();
+        int touched = 0;
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 1; i < slices; i++) {
+                final long sliceFrom = from + i * slicePages * pageSize;
+                final long sliceTo = Math.min(to, sliceFrom + slicePages * pageSize);
+                futures.add(service.submit(() -> touchSlice(file, sliceFrom, sliceTo, pageSize)));
+            }
+            touched += touchSlice(file, from, Math.min(to, from + slicePages * pageSize), pageSize);
+            for (Future<Integer> future : futures)
+                touched += future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to pretouch " + file.file(), e.getCause());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to pretouch " + file.file(), e);
+        }
+        adapt(pages, slices, System.nanoTime() - start);
+        return touched;
+    }
+
+    /**
+     * Measures pages touched by the caller itself, e.g. as the range was too small to split.
+     */
+    void onSerialTouch(int pages, long elapsedNs) {
+        if (pages > 0)
+            adapt(pages, 1, elapsedNs);
+    }
+
+    private void adapt(long pages, int slices, long elapsedNs) {
+        // the time one worker takes per page
+        final long nsPerPage = elapsedNs * slices / Math.max(1, pages);
+        averageNsPerPage = averageNsPerPage == 0 ? nsPerPage : (nsPerPage + averageNsPerPage * 3) / 4;
+        final long needed = (pages * averageNsPerPage + TARGET_NS - 1) / TARGET_NS;
+        final int next = (int) Math.max(1, Math.min(maxWorkers, needed));
+        if (next != workers && Jvm.isDebugEnabled(getClass()))
+            Jvm.debug().on(getClass(), "Pretouching with " + next + " workers, " + averageNsPerPage + " ns per page");
+        workers = next;
+    }
+
+    private static int touchSlice(@NotNull MappedFile file, long from, long to, int pageSize) throws IOException {
+        final ReferenceOwner owner = ReferenceOwner.temporary("pretouch");
+        MappedBytesStore store = null;
+        int touched = 0;
+        try {
+            for (long page = from; page < to; page += pageSize) {
+                if (store == null || !store.inside(page, Long.BYTES)) {
+                    if (store != null)
+                        store.release(owner);
+                    store = file.acquireByteStore(owner, page);
+                }
+                if (store.compareAndSwapLong(page, 0L, 0L))
+                    touched++;
+            }
+        } finally {
+            if (store != null)
+                store.release(owner);
+        }
+        return touched;
+    }
+
+    @Override
+    protected void performClose() {
+        Threads.shutdown(service);
+    }
+
+    @Override
+    protected boolean threadSafetyCheck(boolean isUsed) {
+        // closed by whichever thread closes the pretoucher
+        return true;
+    }
+}
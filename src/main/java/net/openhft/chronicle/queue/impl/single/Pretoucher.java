@@ -6,7 +6,10 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.io.AbstractCloseable;
 import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
 import net.openhft.chronicle.core.time.TimeProvider;
+import net.openhft.chronicle.queue.util.PretouchMetrics;
+import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
 import java.util.function.IntConsumer;
 
 /**
@@ -20,7 +23,7 @@ import java.util.function.IntConsumer;
  * Alternatively, the {@code shutdown()} method can be called to close the supplied queue and release any other resources. Invocation of the {@code
  * execute()} method after {@code shutdown()} has been called with cause an {@code IllegalStateException} to be thrown.
  */
-public final class Pretoucher extends AbstractCloseable {
+public final class Pretoucher extends AbstractCloseable implements PretouchMetrics {
     static final long PRETOUCHER_PREROLL_TIME_DEFAULT_MS = 2_000L;
     private static final long PRETOUCHER_PREROLL_TIME_MS = Long.getLong("SingleChronicleQueueExcerpts.pretoucherPrerollTimeMs", PRETOUCHER_PREROLL_TIME_DEFAULT_MS);
     private static final boolean EARLY_ACQUIRE_NEXT_CYCLE = Jvm.getBoolean("SingleChronicleQueueExcerpts.earlyAcquireNextCycle");
@@ -29,6 +32,8 @@ public final class Pretoucher extends AbstractCloseable {
     private final NewChunkListener chunkListener;
     private final IntConsumer cycleChangedListener;
     private final PretoucherState pretoucherState;
+    private final ParallelPretoucher parallelPretoucher;
+    private final WriteWindowLock writeWindowLock;
     private final TimeProvider pretouchTimeProvider;
     private int currentCycle = Integer.MIN_VALUE;
     private SingleChronicleQueueStore currentCycleWireStore;
@@ -46,7 +51,10 @@ public final class Pretoucher extends AbstractCloseable {
         this.chunkListener = chunkListener;
         this.cycleChangedListener = cycleChangedListener;
         queue.addCloseListener(this);
-        pretoucherState = new PretoucherState(this::getStoreWritePosition);
+        pretoucherState = new PretoucherState(this::getStoreWritePosition, PretoucherState.HEAD_ROOM, queue.pageSize());
+        parallelPretoucher = queue.pretouchThreads() > 1 ? new ParallelPretoucher(queue.file().getName(), queue.pretouchThreads()) : null;
+        pretoucherState.parallel(parallelPretoucher);
+        writeWindowLock = queue.writeWindowLockSize() > 0 ? new WriteWindowLock(queue.writeWindowLockSize()) : null;
         pretouchTimeProvider = () -> queue.time().currentTimeMillis() + (EARLY_ACQUIRE_NEXT_CYCLE ? PRETOUCHER_PREROLL_TIME_MS : 0);
     }
 
@@ -59,8 +67,11 @@ public final class Pretoucher extends AbstractCloseable {
         try {
             assignCurrentCycle();
 
-            if (currentCycleMappedBytes != null)
+            if (currentCycleMappedBytes != null) {
                 pretoucherState.pretouch(currentCycleMappedBytes);
+                if (writeWindowLock != null)
+                    writeWindowLock.update(currentCycleMappedBytes.mappedFile(), getStoreWritePosition());
+            }
         } catch (IllegalStateException e) {
             if (queue.isClosed())
                 throw new InvalidEventHandlerException(e);
@@ -115,11 +126,51 @@ public final class Pretoucher extends AbstractCloseable {
         }
     }
 
+    @NotNull
+    @Override
+    public File queuePath() {
+        return queue.file();
+    }
+
+    @Override
+    public long pagesTouched() {
+        return pretoucherState.pagesTouched();
+    }
+
+    @Override
+    public long pagesResident() {
+        return pretoucherState.pagesResident();
+    }
+
+    @Override
+    public long headRoom() {
+        return pretoucherState.headRoom();
+    }
+
+    @Override
+    public long minHeadRoom() {
+        return pretoucherState.minHeadRoom();
+    }
+
+    @Override
+    public long minHeadRoomIncreases() {
+        return pretoucherState.minHeadRoomIncreases();
+    }
+
     private long getStoreWritePosition() {
         return currentCycleWireStore.writePosition();
     }
 
+    /**
+     * @return the number of bytes of the current cycle locked in memory around its write position
+     */
+    public long lockedBytes() {
+        return writeWindowLock == null ? 0 : writeWindowLock.lockedBytes();
+    }
+
     private void releaseResources() {
+        if (writeWindowLock != null)
+            writeWindowLock.unlockAll();
         if (currentCycleWireStore != null) {
             queue.closeStore(currentCycleWireStore);
             currentCycleWireStore = null;
@@ -132,6 +183,10 @@ public final class Pretoucher extends AbstractCloseable {
 
     @Override
     protected void performClose() {
+        if (parallelPretoucher != null)
+            parallelPretoucher.close();
         releaseResources();
+        if (writeWindowLock != null)
+            writeWindowLock.close();
     }
 }
\ No newline at end of file
@@ -2,31 +2,59 @@ package net.openhft.chronicle.queue.impl.single;
 
 import net.openhft.chronicle.bytes.MappedBytes;
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.Maths;
 import net.openhft.chronicle.core.OS;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.util.function.LongSupplier;
 
 class PretoucherState {
-    private static final int HEAD_ROOM = Integer.getInteger("PretoucherState.headRoom", 1 << 20);
+    static final int HEAD_ROOM = Integer.getInteger("PretoucherState.headRoom", 1 << 20);
     public static final int FACTOR = 4;
     @NotNull
     private final LongSupplier posSupplier;
-    private int minHeadRoom;
+    private final int pageSize;
+    private volatile int minHeadRoom;
     private long lastTouchedPage = 0;
     private long lastTouchedPos = 0;
     private long lastPos = 0;
     private int lastBytesHashcode = -1;
     private long averageMove = 0;
+    // read by other threads for monitoring
+    private volatile long pagesTouched = 0;
+    private volatile long pagesResident = 0;
+    private volatile long minHeadRoomIncreases = 0;
+    private volatile long headRoom = 0;
+    @Nullable
+    private ParallelPretoucher parallel;
 
     public PretoucherState(@NotNull LongSupplier posSupplier) {
         this(posSupplier, HEAD_ROOM);
     }
 
     public PretoucherState(@NotNull LongSupplier posSupplier, int minHeadRoom) {
+        this(posSupplier, minHeadRoom, OS.pageSize());
+    }
+
+    /**
+     * @param pageSize the size of the pages to touch, one touch each, e.g. a huge page size
+     */
+    public PretoucherState(@NotNull LongSupplier posSupplier, int minHeadRoom, long pageSize) {
         this.posSupplier = posSupplier;
-        this.minHeadRoom = minHeadRoom;
+        this.pageSize = Maths.toInt32(pageSize);
+        // always keep at least the next page touched
+        this.minHeadRoom = Math.max(minHeadRoom, this.pageSize);
+    }
+
+    /**
+     * Touches ranges of enough pages with a pool of threads rather than this one.
+     *
+     * @param parallel to touch ranges with, or null to touch them on this thread
+     */
+    void parallel(@Nullable ParallelPretoucher parallel) {
+        this.parallel = parallel;
     }
 
     static File getFile(MappedBytes bytes) {
@@ -46,12 +74,11 @@ class PretoucherState {
         }
         // don't retain the bytes object when it is head so keep the hashCode instead.
         // small risk of a duplicate hashCode.
-        int pageSize = OS.pageSize();
         if (lastBytesHashcode != System.identityHashCode(bytes)) {
             lastTouchedPage = pos - pos % pageSize;
             lastTouchedPos = pos;
             lastBytesHashcode = System.identityHashCode(bytes);
-            averageMove = OS.pageSize();
+            averageMove = pageSize;
             lastPos = pos;
             if (Jvm.isDebugEnabled(getClass())) {
                 String message = getFile(bytes) + " - Reset pretoucher to pos " + pos + " as the underlying MappedBytes changed.";
@@ -65,16 +92,30 @@ class PretoucherState {
             if (lastTouchedPage < neededEnd) {
                 Thread thread = Thread.currentThread();
                 int count = 0, pretouch = 0;
-                for (; lastTouchedPage < neededEnd; lastTouchedPage += pageSize) {
-                    if (thread.isInterrupted())
-                        break;
-                    if (touchPage(bytes, lastTouchedPage))
-                        pretouch++;
-                    count++;
+                final ParallelPretoucher parallel = this.parallel;
+                if (parallel != null && bytes != null && parallel.workers() > 1
+                        && neededEnd - lastTouchedPage >= 2L * ParallelPretoucher.MIN_PAGES_PER_WORKER * pageSize) {
+                    count = (int) ((neededEnd - lastTouchedPage + pageSize - 1) / pageSize);
+                    pretouch = parallel.touch(bytes.mappedFile(), lastTouchedPage, neededEnd, pageSize);
+                    lastTouchedPage += (long) count * pageSize;
+                } else {
+                    final long start = parallel == null ? 0 : System.nanoTime();
+                    for (; lastTouchedPage < neededEnd; lastTouchedPage += pageSize) {
+                        if (thread.isInterrupted())
+                            break;
+                        if (touchPage(bytes, lastTouchedPage))
+                            pretouch++;
+                        count++;
+                    }
+                    if (parallel != null)
+                        parallel.onSerialTouch(count, System.nanoTime() - start);
                 }
                 onTouched(count);
+                pagesTouched += pretouch;
+                pagesResident += count - pretouch;
                 if (pretouch < count) {
                     minHeadRoom += 256 << 10;
+                    minHeadRoomIncreases++;
                     if (Jvm.isDebugEnabled(getClass()))
                         debug("pretouch for only " + pretouch + " of " + count + " min: " + (minHeadRoom >> 20) + " MB.");
                 }
@@ -91,6 +132,39 @@ class PretoucherState {
             }
             lastPos = pos;
         }
+        headRoom = lastTouchedPage - pos;
+    }
+
+    /**
+     * @return the number of pages touched which hadn't been written to
+     */
+    public long pagesTouched() {
+        return pagesTouched;
+    }
+
+    /**
+     * @return the number of pages touched which had already been written to, so were already resident
+     */
+    public long pagesResident() {
+        return pagesResident;
+    }
+
+    /**
+     * @return how far ahead of the write position pages had been touched, when last pretouched
+     */
+    public long headRoom() {
+        return headRoom;
+    }
+
+    public long minHeadRoom() {
+        return minHeadRoom;
+    }
+
+    /**
+     * @return the number of times the minimum head room grew, as the writer had caught up with the pretoucher
+     */
+    public long minHeadRoomIncreases() {
+        return minHeadRoomIncreases;
     }
 
     protected void debug(String message) {
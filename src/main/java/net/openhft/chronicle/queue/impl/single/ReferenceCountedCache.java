@@ -5,62 +5,142 @@ import net.openhft.chronicle.core.io.AbstractCloseable;
 import net.openhft.chronicle.core.io.BackgroundResourceReleaser;
 import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.io.ReferenceCounted;
+import net.openhft.chronicle.core.io.ReferenceOwner;
 import net.openhft.chronicle.core.util.ThrowingFunction;
+import net.openhft.chronicle.queue.util.CacheMetrics;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
  * Thread-safe, self-cleaning cache for ReferenceCounted (and Closeable) objects
+ * <p>
+ * Entries found are used without locking. Entries nothing else holds are kept, up to {@code maxSize} entries in all,
+ * and the least recently used of them evicted beyond that. Entries still held elsewhere are never evicted, so the
+ * cache can be larger while they are.
  */
 public class ReferenceCountedCache<K, T extends ReferenceCounted & Closeable, V, E extends Throwable>
-        extends AbstractCloseable {
+        extends AbstractCloseable implements CacheMetrics {
 
-    private final Map<K, T> cache = new LinkedHashMap<>();
+    private final Map<K, Entry<T>> cache = new ConcurrentHashMap<>();
+    // held while creating and evicting entries
+    private final Object lock = new Object();
     private final Function<T, V> transformer;
     private final ThrowingFunction<K, T, E> creator;
+    private final int maxSize;
     private final Runnable bgCleanup = this::bgCleanup;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
     public ReferenceCountedCache(final Function<T, V> transformer,
                                  final ThrowingFunction<K, T, E> creator) {
+        this(transformer, creator, 0);
+    }
+
+    public ReferenceCountedCache(final Function<T, V> transformer,
+                                 final ThrowingFunction<K, T, E> creator,
+                                 final int maxSize) {
         this.transformer = transformer;
         this.creator = creator;
+        this.maxSize = Math.max(0, maxSize);
     }
 
     @NotNull
     V get(@NotNull final K key) throws E {
         throwExceptionIfClosed();
 
-        final V rv;
-        synchronized (cache) {
-            @Nullable T value = cache.get(key);
-
-            if (value == null) {
-                value = creator.apply(key);
-                value.reserveTransfer(INIT, this);
-                //System.err.println("Reserved " + value.toString() + " by " + this);
-                cache.put(key, value);
+        V rv = use(cache.get(key));
+        if (rv != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            synchronized (lock) {
+                final Entry<T> entry = cache.get(key);
+                rv = use(entry);
+                if (rv == null) {
+                    if (entry != null)
+                        cache.remove(key, entry);
+                    final T value = creator.apply(key);
+                    value.reserveTransfer(INIT, this);
+                    cache.put(key, new Entry<>(value));
+                    rv = transformer.apply(value);
+                }
             }
-
-            // this will add to the ref count and so needs to be done inside of sync block
-            rv = transformer.apply(value);
         }
 
-        BackgroundResourceReleaser.run(bgCleanup);
+        if (cache.size() > maxSize)
+            BackgroundResourceReleaser.run(bgCleanup);
 
         return rv;
     }
 
+    // the transformed value, or null if there is no entry or it has been released
+    @Nullable
+    private V use(@Nullable final Entry<T> entry) {
+        if (entry == null)
+            return null;
+        // holds the value while it is transformed, in case it is evicted meanwhile
+        final ReferenceOwner owner = ReferenceOwner.temporary("get");
+        if (!entry.value.tryReserve(owner))
+            return null;
+        try {
+            entry.lastUsed = System.nanoTime();
+            return transformer.apply(entry.value);
+        } finally {
+            entry.value.release(owner);
+        }
+    }
+
+    /**
+     * Releases the cached value for a key, if any. It is closed once no one else holds it.
+     */
+    void remove(@NotNull final K key) {
+        synchronized (lock) {
+            final Entry<T> entry = cache.remove(key);
+            if (entry != null)
+                entry.value.release(this);
+        }
+    }
+
+    @Override
+    public long hits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long misses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
     @Override
     protected void performClose() {
         List<T> retained = new ArrayList<>();
-        synchronized (cache) {
-            for (T value : cache.values()) {
+        synchronized (lock) {
+            for (Entry<T> entry : cache.values()) {
+                T value = entry.value;
                 try {
                     value.release(this);
                     if (value.refCount() > 0)
@@ -92,16 +172,35 @@ public class ReferenceCountedCache<K, T extends ReferenceCounted & Closeable, V,
     }
 
     void bgCleanup() {
-        // remove all which have been de-referenced by other than me. Garbagy but rare
-        synchronized (cache) {
-            cache.entrySet().removeIf(entry -> {
-                T value = entry.getValue();
-                int refCount = value.refCount();
-                if (refCount == 1) {
+        // evict the least recently used of those held by no one else, until there are no more than maxSize
+        synchronized (lock) {
+            int excess = cache.size() - maxSize;
+            if (excess <= 0)
+                return;
+            final List<Map.Entry<K, Entry<T>>> unused = new ArrayList<>();
+            for (Map.Entry<K, Entry<T>> entry : cache.entrySet())
+                if (entry.getValue().value.refCount() <= 1)
+                    unused.add(entry);
+            unused.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+            for (int i = 0; i < unused.size() && excess > 0; i++) {
+                final Map.Entry<K, Entry<T>> entry = unused.get(i);
+                final T value = entry.getValue().value;
+                if (!cache.remove(entry.getKey(), entry.getValue()))
+                    continue;
+                if (value.refCount() > 0)
                     value.release(this);
-                }
-                return refCount <= 1;
-            });
+                evictions.increment();
+                excess--;
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        volatile long lastUsed = System.nanoTime();
+
+        Entry(T value) {
+            this.value = value;
         }
     }
 }
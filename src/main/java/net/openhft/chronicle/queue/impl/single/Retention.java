@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.RollCycle;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Deletes the oldest cycles of a queue once they are older than the maximum age, or while the queue is larger than
+ * the maximum size.
+ * <p>
+ * The current cycle and the latest cycle are never deleted, nor is the cycle of the slowest named tailer or any cycle
+ * after it. A named tailer which hasn't read anything keeps every cycle.
+ */
+final class Retention implements EventHandler {
+    // the key SingleChronicleQueue.createTailer(id) stores the index of a named tailer under
+    private static final String NAMED_TAILER_PREFIX = "index.";
+    private static final Logger LOG = LoggerFactory.getLogger(Retention.class);
+
+    @NotNull
+    private final SingleChronicleQueue queue;
+    private final long maxAgeMS;
+    private final long maxBytes;
+    private final long checkIntervalMS;
+    private long nextCheckMS;
+
+    Retention(@NotNull SingleChronicleQueue queue, long maxAgeMS, long maxBytes, long checkIntervalMS) {
+        this.queue = queue;
+        this.maxAgeMS = maxAgeMS;
+        this.maxBytes = maxBytes;
+        this.checkIntervalMS = checkIntervalMS;
+        this.nextCheckMS = queue.time().currentTimeMillis() + checkIntervalMS;
+    }
+
+    @Override
+    public boolean action() throws InvalidEventHandlerException {
+        if (queue.isClosing())
+            throw InvalidEventHandlerException.reusable();
+
+        final long now = queue.time().currentTimeMillis();
+        if (now < nextCheckMS)
+            return false;
+        nextCheckMS = now + checkIntervalMS;
+        try {
+            return apply() > 0;
+        } catch (Exception e) {
+            if (queue.isClosing())
+                throw InvalidEventHandlerException.reusable();
+            Jvm.warn().on(getClass(), "Failed to apply retention to " + queue.file(), e);
+            return false;
+        }
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.DAEMON;
+    }
+
+    /**
+     * @return the number of cycles deleted
+     */
+    synchronized int apply() {
+        final TreeMap<Integer, Long> cycleBytes = new TreeMap<>();
+        long totalBytes = 0;
+        final File[] files = queue.file().listFiles((d, n) -> SingleChronicleQueue.isCycleFile(n));
+        if (files == null)
+            return 0;
+        for (File file : files) {
+            final long length = file.length();
+            cycleBytes.merge(queue.fileToCycleFunction().applyAsInt(file), length, Long::sum);
+            totalBytes += length;
+        }
+        if (cycleBytes.size() < 2)
+            return 0;
+
+        final RollCycle rollCycle = queue.rollCycle();
+        final int keepFrom = Math.min(Math.min(queue.cycle(), cycleBytes.lastKey()), slowestNamedTailerCycle());
+        final long expiredBefore = queue.time().currentTimeMillis() - maxAgeMS;
+        int deleted = 0;
+        for (Map.Entry<Integer, Long> entry : cycleBytes.entrySet()) {
+            final int cycle = entry.getKey();
+            if (cycle >= keepFrom)
+                break;
+            final long cycleEndMS = queue.epoch() + (cycle + 1L) * rollCycle.lengthInMillis();
+            if (cycleEndMS > expiredBefore && totalBytes <= maxBytes)
+                break;
+            if (!queue.deleteCycle(cycle))
+                break;
+            if (LOG.isDebugEnabled())
+                LOG.debug("Deleted cycle {} of {}, {} bytes", cycle, queue.file(), entry.getValue());
+            totalBytes -= entry.getValue();
+            deleted++;
+        }
+        return deleted;
+    }
+
+    private int slowestNamedTailerCycle() {
+        final int[] slowest = {Integer.MAX_VALUE};
+        final RollCycle rollCycle = queue.rollCycle();
+        queue.metaStore.forEachKey(slowest, (s, key, value) -> {
+            if (key.toString().startsWith(NAMED_TAILER_PREFIX))
+                s[0] = Math.min(s[0], rollCycle.toCycle(value.int64()));
+        });
+        return slowest[0];
+    }
+}
@@ -39,6 +39,7 @@ import java.io.StreamCorruptedException;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.function.Supplier;
 
 import static net.openhft.chronicle.core.io.Closeable.closeQuietly;
@@ -53,6 +54,8 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
     private final int indexCountBits;
     private final int indexSpacing;
     private final int indexSpacingBits;
+    // whether the secondary indexes hold 32-bit deltas, see DeltaIndexArray
+    private final boolean deltaIndex;
     private final LongValue index2Index;
     private final Supplier<LongArrayValues> longArraySupplier;
     @NotNull
@@ -67,7 +70,8 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
     Sequence sequence;
     // visible for testing
     int linearScanCount;
-    Collection<Closeable> closeables = new ArrayList<>();
+    // added to by each thread using this index, which the views of a store share
+    Collection<Closeable> closeables = Collections.synchronizedList(new ArrayList<>());
 
     /**
      * used by {@link Demarshallable}
@@ -80,29 +84,38 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
                 wire.read(IndexingFields.indexSpacing).int32(),
                 wire.read(IndexingFields.index2Index).int64ForBinding(null),
                 wire.read(IndexingFields.lastIndex).int64ForBinding(null),
+                wire.bytes().readRemaining() > 0 && wire.read(IndexingFields.deltaIndex).bool(),
                 wire::newLongArrayReference);
     }
 
     SCQIndexing(@NotNull WireType wireType, int indexCount, int indexSpacing) {
+        this(wireType, indexCount, indexSpacing, false);
+    }
+
+    SCQIndexing(@NotNull WireType wireType, int indexCount, int indexSpacing, boolean deltaIndex) {
         this(indexCount,
                 indexSpacing,
                 wireType.newLongReference().get(),
                 wireType.newLongReference().get(),
+                deltaIndex,
                 wireType.newLongArrayReference());
     }
 
-    private SCQIndexing(int indexCount, int indexSpacing, LongValue index2Index, LongValue nextEntryToBeIndexed, Supplier<LongArrayValues> longArraySupplier) {
+    private SCQIndexing(int indexCount, int indexSpacing, LongValue index2Index, LongValue nextEntryToBeIndexed, boolean deltaIndex, Supplier<LongArrayValues> longArraySupplier) {
         this.indexCount = indexCount;
         this.indexCountBits = Maths.intLog2(indexCount);
         this.indexSpacing = indexSpacing;
         this.indexSpacingBits = Maths.intLog2(indexSpacing);
         this.index2Index = index2Index;
         this.nextEntryToBeIndexed = nextEntryToBeIndexed;
+        this.deltaIndex = deltaIndex;
         this.longArraySupplier = longArraySupplier;
         this.index2indexArray = CleaningThreadLocal.withCleanup(wr -> Closeable.closeQuietly(wr.get()));
         this.indexArray = CleaningThreadLocal.withCleanup(wr -> Closeable.closeQuietly(wr.get()));
         this.index2IndexTemplate = w -> w.writeEventName("index2index").int64array(indexCount);
-        this.indexTemplate = w -> w.writeEventName("index").int64array(indexCount);
+        this.indexTemplate = deltaIndex
+                ? w -> w.writeEventName("deltaIndex").int64array(indexCount / 2)
+                : w -> w.writeEventName("index").int64array(indexCount);
     }
 
     private LongArrayValuesHolder newLogArrayValuesHolder(Supplier<LongArrayValues> las) {
@@ -168,17 +181,20 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
                 .write(IndexingFields.indexSpacing).int64(indexSpacing)
                 .write(IndexingFields.index2Index).int64forBinding(0L, index2Index)
                 .write(IndexingFields.lastIndex).int64forBinding(0L, nextEntryToBeIndexed);
+        if (deltaIndex)
+            wire.write(IndexingFields.deltaIndex).bool(true);
     }
 
     @NotNull
     private LongArrayValues arrayForAddress(@NotNull Wire wire, long secondaryAddress) {
         LongArrayValuesHolder holder = getIndexArray();
-        if (holder.address == secondaryAddress)
-            return holder.values;
-        holder.address = secondaryAddress;
-        wire.bytes().readPositionRemaining(secondaryAddress, 4); // to read the header.
-        wire.readMetaDataHeader();
-        return array(wire, holder.values, false);
+        if (holder.address != secondaryAddress) {
+            holder.address = secondaryAddress;
+            wire.bytes().readPositionRemaining(secondaryAddress, 4); // to read the header.
+            wire.readMetaDataHeader();
+            array(wire, holder.values, false);
+        }
+        return deltaIndex ? holder.deltas.base(secondaryAddress) : holder.values;
     }
 
     @NotNull
@@ -186,7 +202,7 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
         final StringBuilder sb = Wires.acquireStringBuilder();
         long readPos = w.bytes().readPosition();
         @NotNull final ValueIn valueIn = w.readEventName(sb);
-        String name = index2index ? "index2index" : "index";
+        String name = index2index ? "index2index" : deltaIndex ? "deltaIndex" : "index";
         if (!name.contentEquals(sb))
             throw new IllegalStateException("expecting index, was " + sb + ", bytes: " + w.bytes().readPosition(readPos).toHexString());
 
@@ -384,8 +400,12 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
         }
 
         bytes.readPositionUnlimited(knownAddress);
+        // skip the complete headers directly, the loop below handles the rest
+        final long skipped = toIndex > fromKnownIndex
+                ? HeaderScanner.skipHeaders(wire, toIndex - fromKnownIndex, Long.MAX_VALUE)
+                : 0;
 
-        for (long i = fromKnownIndex; ; i++) {
+        for (long i = fromKnownIndex + skipped; ; i++) {
             try {
                 if (wire.readDataHeader()) {
                     if (i == toIndex) {
@@ -447,6 +467,8 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
             bytes.readPositionUnlimited(startAddress);
             i = indexOfNext - 1;
         }
+        // skip the complete headers before toPosition directly, the loop below handles the rest
+        i += HeaderScanner.skipHeaders(wire, Long.MAX_VALUE, toPosition);
 
         while (bytes.readPosition() <= toPosition) {
             WireIn.HeaderType headerType = wire.readDataHeader(true);
@@ -647,6 +669,119 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
         nextEntryToBeIndexed.setMaxValue(sequenceNumber + indexSpacing);
     }
 
+    /**
+     * Walks every header in the file and compares the index entry of each indexable excerpt with its position. This
+     * doesn't use the index to find the excerpts so it can be used when the index is damaged or incomplete.
+     * <p>
+     * This should only be used while nothing else is writing to the file.
+     *
+     * @param wire         used to walk the headers
+     * @param wireForIndex used to read, and write, the index arrays
+     * @param repair       whether to write the missing or wrong index entries
+     * @param check        to record the results in
+     */
+    void checkIndex(@NotNull Wire wire,
+                    @NotNull Wire wireForIndex,
+                    boolean repair,
+                    @NotNull IndexCheck check) throws StreamCorruptedException {
+        check.endOfFile = endsWithEOF(wire);
+        // new index arrays are appended to the file which can't be done after the EOF marker
+        final boolean canExtend = repair && !check.endOfFile;
+        if (index2Index.getVolatileValue() == NOT_INITIALIZED) {
+            if (!canExtend) {
+                check.mismatch("no index2index");
+                check.unindexable = 1;
+                return;
+            }
+            initIndex(wireForIndex);
+        }
+        final LongArrayValues index2indexArr = getIndex2index(wireForIndex);
+
+        final Bytes<?> bytes = wire.bytes();
+        bytes.readPositionUnlimited(0);
+        long sequence = 0;
+        long lastRepaired = -1;
+        for (; ; ) {
+            final WireIn.HeaderType headerType = readHeader(wire);
+            if (headerType == WireIn.HeaderType.NONE || headerType == WireIn.HeaderType.EOF)
+                break;
+            final long position = bytes.readPosition();
+            if (headerType == WireIn.HeaderType.DATA) {
+                if (indexable(sequence) && checkEntry(wireForIndex, index2indexArr, sequence, position, repair, canExtend, check))
+                    lastRepaired = sequence;
+                sequence++;
+            }
+            final int header = bytes.readVolatileInt();
+            bytes.readSkip(Wires.lengthOf(header));
+        }
+        check.messages = sequence;
+        if (lastRepaired >= 0)
+            nextEntryToBeIndexed.setMaxValue(lastRepaired + indexSpacing);
+    }
+
+    private boolean endsWithEOF(@NotNull Wire wire) {
+        final Bytes<?> bytes = wire.bytes();
+        bytes.readPositionUnlimited(Math.max(0, writePosition.getVolatileValue()));
+        for (; ; ) {
+            final WireIn.HeaderType headerType = readHeader(wire);
+            if (headerType != WireIn.HeaderType.DATA && headerType != WireIn.HeaderType.META_DATA)
+                return headerType == WireIn.HeaderType.EOF;
+            bytes.readSkip(Wires.lengthOf(bytes.readVolatileInt()));
+        }
+    }
+
+    @NotNull
+    private static WireIn.HeaderType readHeader(@NotNull Wire wire) {
+        try {
+            return wire.readDataHeader(true);
+        } catch (EOFException e) {
+            return WireIn.HeaderType.EOF;
+        }
+    }
+
+    private boolean checkEntry(@NotNull Wire wireForIndex,
+                               @NotNull LongArrayValues index2indexArr,
+                               long sequenceNumber,
+                               long position,
+                               boolean repair,
+                               boolean canExtend,
+                               @NotNull IndexCheck check) throws StreamCorruptedException {
+        check.checked++;
+        final int index2 = (int) (sequenceNumber >>> (indexCountBits + indexSpacingBits));
+        if (index2 >= indexCount) {
+            check.unindexable++;
+            check.mismatch("no room to index sequence " + sequenceNumber);
+            return false;
+        }
+        long secondaryAddress = index2indexArr.getVolatileValueAt(index2);
+        if (secondaryAddress == 0) {
+            if (!canExtend) {
+                check.missing++;
+                check.mismatch("no index array for sequence " + sequenceNumber);
+                return false;
+            }
+            secondaryAddress = getSecondaryAddress(wireForIndex, index2indexArr, index2);
+        }
+        final LongArrayValues indexValues = arrayForAddress(wireForIndex, secondaryAddress);
+        final int index3 = (int) ((sequenceNumber >>> indexSpacingBits) & (indexCount - 1));
+        final long posN = indexValues.getVolatileValueAt(index3);
+        if (posN == position)
+            return false;
+        if (posN == 0) {
+            check.missing++;
+            check.mismatch("sequence " + sequenceNumber + " at " + position + " is not indexed");
+        } else {
+            check.wrong++;
+            check.mismatch("sequence " + sequenceNumber + " at " + position + " is indexed at " + posN);
+        }
+        if (!repair)
+            return false;
+        indexValues.setOrderedValueAt(index3, position);
+        indexValues.setMaxUsed(index3 + 1L);
+        check.repaired++;
+        return true;
+    }
+
     public boolean indexable(long index) {
         throwExceptionIfClosed();
 
@@ -689,6 +824,10 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
         return indexSpacing;
     }
 
+    boolean deltaIndex() {
+        return deltaIndex;
+    }
+
     long moveToEnd(final Wire wire) {
         Sequence sequence1 = this.sequence;
         if (sequence1 != null) {
@@ -703,30 +842,26 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
                 if (sequence == Sequence.NOT_FOUND)
                     return -1;
 
+                // the last excerpt published and its sequence are read together, so only that excerpt and any meta
+                // data after it need to be skipped. Excerpts written since are after this end, and aren't chased.
                 Bytes<?> bytes = wire.bytes();
-
-                bytes.readPosition(endAddress);
-
+                boolean skippedLast = false;
                 for (; ; ) {
-                    long paddingShift = 0L;
-                    if (wire.usePadding()) {
-                        paddingShift = -endAddress & 0x3;
-
-                        endAddress += paddingShift;
-                    }
+                    if (wire.usePadding())
+                        endAddress += -endAddress & 0x3;
                     int header = bytes.readVolatileInt(endAddress);
                     if (header == 0 || Wires.isNotComplete(header))
-                        return sequence;
-
-                    int len = Wires.lengthOf(header) + 4;
-
-                    bytes.readSkip(len + paddingShift);
-                    endAddress += len;
-
-                    if (Wires.isData(header))
+                        break;
+                    if (Wires.isData(header)) {
+                        if (skippedLast)
+                            break;
+                        skippedLast = true;
                         sequence += 1;
-
+                    }
+                    endAddress += Wires.lengthOf(header) + 4;
                 }
+                bytes.readPosition(endAddress);
+                return sequence;
             }
         }
         return -1;
@@ -734,15 +869,18 @@ class SCQIndexing extends AbstractCloseable implements Demarshallable, WriteMars
 
     enum IndexingFields implements WireKey {
         indexCount, indexSpacing, index2Index,
-        lastIndex // NOTE: the nextEntryToBeIndexed
+        lastIndex, // NOTE: the nextEntryToBeIndexed
+        deltaIndex
     }
 
     static class LongArrayValuesHolder extends AbstractCloseable {
         final LongArrayValues values;
+        final DeltaIndexArray deltas;
         long address;
 
         LongArrayValuesHolder(LongArrayValues values) {
             this.values = values;
+            this.deltas = new DeltaIndexArray(values);
             address = Long.MIN_VALUE;
         }
 
@@ -36,6 +36,8 @@ import net.openhft.chronicle.queue.*;
 import net.openhft.chronicle.queue.impl.*;
 import net.openhft.chronicle.queue.impl.table.SingleTableStore;
 import net.openhft.chronicle.queue.internal.AnalyticsHolder;
+import net.openhft.chronicle.queue.util.CacheMetrics;
+import net.openhft.chronicle.queue.util.LockMetrics;
 import net.openhft.chronicle.threads.DiskSpaceMonitor;
 import net.openhft.chronicle.threads.TimingPauser;
 import net.openhft.chronicle.wire.*;
@@ -48,14 +50,15 @@ import java.io.*;
 import java.lang.ref.WeakReference;
 import java.nio.channels.FileLock;
 import java.nio.channels.NonWritableChannelException;
+import java.nio.file.Files;
 import java.security.SecureRandom;
 import java.text.ParseException;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.*;
 
 import static java.util.Collections.emptyMap;
@@ -73,6 +76,8 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     private static final Logger LOG = LoggerFactory.getLogger(SingleChronicleQueue.class);
 
     private static final boolean SHOULD_CHECK_CYCLE = Jvm.getBoolean("chronicle.queue.checkrollcycle");
+    // read once Jvm has loaded any system.properties, as above
+    private static final String RESTORE_DIR = System.getProperty("chronicle.queue.restoreDir", OS.TMP);
     @NotNull
     protected final EventLoop eventLoop;
     @NotNull
@@ -94,11 +99,18 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     private final WireType wireType;
     private final long blockSize;
     private final long overlapSize;
+    private final long pageSize;
+    // the size the mappings of queue files are aligned to
+    private final long alignment;
+    private final int pretouchThreads;
+    private final long writeWindowLockSize;
     @NotNull
     private final Consumer<BytesRingBufferStats> onRingBufferStats;
     private final long bufferCapacity;
     private final int indexSpacing;
     private final int indexCount;
+    private final long adaptiveIndexScanBytes;
+    private final boolean deltaIndex;
     @NotNull
     private final TimeProvider time;
     @NotNull
@@ -130,6 +142,8 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     @NotNull
     private final RollCycle rollCycle;
     private final int deltaCheckpointInterval;
+    @Nullable
+    private final Retention retention;
 
     protected SingleChronicleQueue(@NotNull final SingleChronicleQueueBuilder builder) {
         try {
@@ -139,22 +153,34 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
             dateCache = new RollingResourcesCache(rollCycle, epoch, textToFile(builder), fileToText());
 
             storeFileListener = builder.storeFileListener();
-            storeSupplier = new StoreSupplier();
-            pool = WireStorePool.withSupplier(storeSupplier, storeFileListener);
             isBuffered = BufferMode.Asynchronous == builder.writeBufferMode();
             path = builder.path();
             if (!builder.readOnly())
                 //noinspection ResultOfMethodCallIgnored
                 path.mkdirs();
             fileAbsolutePath = path.getAbsolutePath();
+            storeSupplier = new StoreSupplier(builder.mappedFileCacheSize(), builder.restoreDirMaxBytes());
+            pool = WireStorePool.withSupplier(storeSupplier, storeFileListener);
             wireType = builder.wireType();
-            blockSize = builder.blockSize();
-            overlapSize = Math.max(64 << 10, builder.blockSize() / 4);
+            pageSize = builder.pageSize();
+            pretouchThreads = builder.pretouchThreads();
+            writeWindowLockSize = builder.writeWindowLockSize();
+            if (builder.hugePages()) {
+                alignment = HugePages.alignmentFor(pageSize);
+                blockSize = HugePages.align(builder.blockSize(), alignment);
+                overlapSize = HugePages.align(Math.max(64 << 10, blockSize / 4), alignment);
+            } else {
+                alignment = pageSize;
+                blockSize = builder.blockSize();
+                overlapSize = Math.max(64 << 10, builder.blockSize() / 4);
+            }
             eventLoop = builder.eventLoop();
             bufferCapacity = builder.bufferCapacity();
             onRingBufferStats = builder.onRingBufferStats();
             indexCount = builder.indexCount();
             indexSpacing = builder.indexSpacing();
+            adaptiveIndexScanBytes = builder.adaptiveIndexScanBytes();
+            deltaIndex = builder.deltaIndex();
             time = builder.timeProvider();
             pauserSupplier = builder.pauserSupplier();
             // add a 10% random element to make it less likely threads will timeout at the same time.
@@ -200,6 +226,16 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
 
             sourceId = builder.sourceId();
 
+            if (!readOnly && builder.retention()) {
+                retention = new Retention(this, builder.retentionMaxAgeMS(), builder.retentionMaxBytes(), builder.retentionCheckIntervalMS());
+                eventLoop.addHandler(retention);
+                // start it if we created it.
+                if (eventLoop instanceof OnDemandEventLoop)
+                    eventLoop.start();
+            } else {
+                retention = null;
+            }
+
             Announcer.announce("net.openhft", "chronicle-queue",
                     AnalyticsFacade.isEnabled()
                             ? singletonMap("Analytics", "Chronicle Queue reports usage statistics. Learn more or turn off: https://github.com/OpenHFT/Chronicle-Queue/blob/master/DISCLAIMER.adoc")
@@ -234,10 +270,17 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
 
     @NotNull
     private Function<File, String> fileToText() {
-        return file -> {
-            String name = file.getName();
-            return name.substring(0, name.length() - SUFFIX.length());
-        };
+        return file -> cycleName(file.getName());
+    }
+
+    @NotNull
+    static String cycleName(@NotNull String fileName) {
+        final String suffix = fileName.endsWith(CycleArchive.SUFFIX) ? CycleArchive.SUFFIX : SUFFIX;
+        return fileName.substring(0, fileName.length() - suffix.length());
+    }
+
+    static boolean isCycleFile(@NotNull String fileName) {
+        return fileName.endsWith(SUFFIX) || fileName.endsWith(CycleArchive.SUFFIX);
     }
 
     @Override
@@ -272,6 +315,88 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         lastCycle = directoryListing.getMaxCreatedCycle();
     }
 
+    /**
+     * Replaces a completed cycle with a {@link CycleArchive}, compressed in frames of about
+     * {@link CycleArchive#DEFAULT_FRAME_SIZE}. Tailers read an archived cycle as before, from a copy restored to
+     * {@code chronicle.queue.restoreDir} when it is first acquired. The copy is shared by the queues on the same path,
+     * in this and other processes, and deleted once the queue which restored it has released it, within
+     * {@link SingleChronicleQueueBuilder#restoreDirMaxBytes(long)}.
+     *
+     * @param cycle to archive, which must be before the current cycle and end in an end of file marker
+     * @return true if the cycle was archived, false if it doesn't exist or is already archived
+     */
+    public boolean archiveCycle(int cycle) throws IOException {
+        throwExceptionIfClosed();
+
+        if (readOnly)
+            throw new IllegalStateException("Cannot archive a cycle of a read only queue");
+        if (cycle >= cycle())
+            throw new IllegalArgumentException("Only a completed cycle can be archived, cycle " + cycle + " is not before the current cycle " + cycle());
+        final File file = dateCache.resourceFor(cycle).path;
+        if (!file.exists())
+            return false;
+        final SingleChronicleQueueStore store = storeForCycle(cycle, epoch, false, null);
+        if (store == null)
+            return false;
+        try {
+            final long archived = CycleArchive.archive(store, CycleArchive.archiveFileFor(file), CycleArchive.DEFAULT_FRAME_SIZE);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Archived {} from {} to {} bytes", file, file.length(), archived);
+        } finally {
+            closeStore(store);
+        }
+        // as in deleteCycle, tailers which have the cycle mapped can continue to read it
+        writeLock.lock();
+        try {
+            storeSupplier.release(file);
+            return file.delete();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the cycles which the retention policy set on the builder no longer keeps. This is done periodically on
+     * the {@link #eventLoop} when a policy is set.
+     *
+     * @return the number of cycles deleted
+     * @see SingleChronicleQueueBuilder#retentionMaxAgeMS(long)
+     * @see SingleChronicleQueueBuilder#retentionMaxBytes(long)
+     */
+    public int applyRetention() {
+        throwExceptionIfClosed();
+
+        return retention == null ? 0 : retention.apply();
+    }
+
+    /**
+     * Deletes a cycle file or its archive, releasing a cached mapping of it, and updates the directory listing.
+     * Tailers which have the cycle mapped can continue to read it until they release it.
+     *
+     * @return true if the cycle was deleted
+     */
+    boolean deleteCycle(int cycle) {
+        final RollingResourcesCache.Resource resource = dateCache.resourceFor(cycle);
+        final File file = resource.path;
+        writeLock.lock();
+        try {
+            storeSupplier.release(file);
+            boolean deleted = file.delete();
+            deleted |= CycleArchive.archiveFileFor(file).delete();
+            resource.pathExists = false;
+            storeSupplier.onCycleDeleted(cycle);
+            directoryListing.onFileDeleted(file, cycle);
+            firstAndLastCycleTime = 0;
+            return deleted;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    static boolean cycleFileExists(@NotNull File cycleFile) {
+        return cycleFile.exists() || CycleArchive.archiveFileFor(cycleFile).exists();
+    }
+
     /**
      * when using replication to another host, this is the maxiumum last index that has been sent to any of the remote host(s).
      */
@@ -385,6 +510,41 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         return indexSpacing;
     }
 
+    /**
+     * @return the average number of bytes to scan from an index entry, or 0 if adaptive index spacing is disabled
+     */
+    public long adaptiveIndexScanBytes() {
+        return adaptiveIndexScanBytes;
+    }
+
+    /**
+     * @return whether new cycles store their secondary indexes as 32-bit deltas
+     */
+    public boolean deltaIndex() {
+        return deltaIndex;
+    }
+
+    /**
+     * @param cycle being created
+     * @return the average bytes per message of the latest cycle before {@code cycle}, or -1 if not known
+     */
+    long averageMessageSizeBefore(int cycle) {
+        final int previousCycle = directoryListing.getMaxCreatedCycle();
+        if (previousCycle == Integer.MIN_VALUE || previousCycle >= cycle)
+            return -1;
+        try (StoreTailer tailer = new StoreTailer(this, pool)) {
+            if (!tailer.moveToIndex(rollCycle.toIndex(previousCycle, 0)))
+                return -1;
+            final long start = tailer.privateWire().bytes().readPosition();
+            // the write position is the start of the last message
+            final long messages = tailer.store.lastSequenceNumber(tailer);
+            return messages > 0 ? (tailer.store.writePosition() - start) / messages : -1;
+        } catch (StreamCorruptedException e) {
+            Jvm.debug().on(getClass(), "Unable to size cycle " + previousCycle, e);
+            return -1;
+        }
+    }
+
     @Override
     public long epoch() {
         return epoch;
@@ -418,7 +578,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
 
         queueLock.waitForLock();
 
-        final WireStorePool newPool = WireStorePool.withSupplier(storeSupplier, storeFileListener);
+        final WireStorePool newPool = pool.newPool();
         return new StoreAppender(this, newPool, checkInterrupts);
     }
 
@@ -476,7 +636,8 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                 ? null
                 : metaStore.doWithExclusiveLock(ts -> ts.acquireValueFor("index." + id, 0));
         final StoreTailer storeTailer = new StoreTailer(this, pool, index);
-        directoryListing.refresh(true);
+        // the listing is kept up to date as cycles are created, so the directory doesn't need to be listed here
+        directoryListing.refresh(false);
         storeTailer.clearUsedByThread();
         return storeTailer;
     }
@@ -752,6 +913,46 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         return this.overlapSize;
     }
 
+    /**
+     * @return the size of the pages queue files are mapped and pretouched with, a huge page size if the queue was
+     * built with {@link SingleChronicleQueueBuilder#hugePages(boolean)} on a file system which uses them
+     */
+    public long pageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * @return the most threads a {@link Pretoucher} of this queue touches pages with
+     */
+    public int pretouchThreads() {
+        return this.pretouchThreads;
+    }
+
+    /**
+     * @return the acquisitions of the write lock and the time waited for them by all the processes writing to this
+     * queue, or null unless it was built with {@link SingleChronicleQueueBuilder#fairWriteLock(boolean)}
+     */
+    @Nullable
+    public LockMetrics writeLockMetrics() {
+        return writeLock instanceof LockMetrics ? (LockMetrics) writeLock : null;
+    }
+
+    /**
+     * @return the hits, misses and evictions of the cache of mapped cycle files
+     */
+    @NotNull
+    public CacheMetrics mappedFileCacheMetrics() {
+        return storeSupplier.mappedFileCache;
+    }
+
+    /**
+     * @return the size of the window around the write position a {@link Pretoucher} of this queue keeps locked in
+     * memory, or 0 if none
+     */
+    public long writeWindowLockSize() {
+        return this.writeWindowLockSize;
+    }
+
     @NotNull
     @Override
     public WireType wireType() {
@@ -765,8 +966,8 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     @NotNull
     @PackageLocal
     MappedFile mappedFile(File file) throws FileNotFoundException {
-        long chunkSize = OS.pageAlign(blockSize);
-        long overlapSize = OS.pageAlign(blockSize / 4);
+        long chunkSize = HugePages.align(blockSize, alignment);
+        long overlapSize = HugePages.align(blockSize / 4, alignment);
         return MappedFile.of(file, chunkSize, overlapSize, readOnly);
     }
 
@@ -789,11 +990,8 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
     }
 
     @NotNull
-    private ToIntFunction<File> fileToCycleFunction() {
-        return f -> {
-            final String name = f.getName();
-            return dateCache.parseCount(name.substring(0, name.length() - SUFFIX.length()));
-        };
+    ToIntFunction<File> fileToCycleFunction() {
+        return f -> dateCache.parseCount(cycleName(f.getName()));
     }
 
     void removeCloseListener(final StoreTailer storeTailer) {
@@ -874,6 +1072,23 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         return longValue;
     }
 
+    /**
+     * Looks up a value of the table store once, for reads and writes which don't look up the key each time.
+     *
+     * @param key of the value, created as {@link Long#MIN_VALUE} if absent
+     * @return a handle to the value, valid until this queue is closed
+     */
+    @NotNull
+    public TableStoreKey tableStoreKey(@NotNull CharSequence key) {
+        throwExceptionIfClosed();
+
+        LongValue longValue = tableStoreAcquire(key, Long.MIN_VALUE);
+        // null when this call added it
+        if (longValue == null)
+            longValue = tableStoreAcquire(key, Long.MIN_VALUE);
+        return new TableStoreKey(key.toString(), longValue);
+    }
+
     public long tableStoreGet(CharSequence key) {
         LongValue longValue = tableStoreAcquire(key, Long.MIN_VALUE);
         if (longValue == null) return Long.MIN_VALUE;
@@ -886,25 +1101,29 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                 : ((Bytes<?>) acquireAnotherBytes()).append(key);
     }
 
-    private static final class CachedCycleTree {
-        private final long directoryModCount;
-        private final NavigableMap<Long, File> cachedCycleTree;
-
-        CachedCycleTree(final long directoryModCount, final NavigableMap<Long, File> cachedCycleTree) {
-            this.directoryModCount = directoryModCount;
-            this.cachedCycleTree = cachedCycleTree;
-        }
-    }
-
     class StoreSupplier extends AbstractCloseable implements WireStoreSupplier {
-        private final AtomicReference<CachedCycleTree> cachedTree = new AtomicReference<>();
+        // cycles found beyond either end of the index by checking for each file, rather than listing the directory
+        private static final int MAX_CYCLES_TO_PROBE = 64;
+        private final CycleIndex cycleIndex = new CycleIndex();
+        // written last when the index is updated, so reading it without the lock sees the updated index
+        private volatile long indexedModCount = Long.MIN_VALUE;
+        private volatile boolean indexed;
         private final ReferenceCountedCache<File, MappedFile, MappedBytes, IOException> mappedFileCache;
         private boolean queuePathExists;
-
-        private StoreSupplier() {
+        // shared by the queues on the same path, in any process, so they can use each other's restored copies
+        private final File restoreDir = new File(RESTORE_DIR, path.getName() + "-" + Integer.toHexString(fileAbsolutePath.hashCode()));
+        // a lock for each cycle being restored, so a cycle is restored once without holding up other cycles
+        private final ConcurrentMap<File, Object> restoring = new ConcurrentHashMap<>();
+        // the copies restored by this queue, deleted when released. Also the lock for mapping or deleting a copy
+        private final Set<File> restoredHere = ConcurrentHashMap.newKeySet();
+        private final long restoreDirMaxBytes;
+
+        private StoreSupplier(int mappedFileCacheSize, long restoreDirMaxBytes) {
             mappedFileCache = new ReferenceCountedCache<>(
                     MappedBytes::mappedBytes,
-                    SingleChronicleQueue.this::mappedFile);
+                    SingleChronicleQueue.this::mappedFile,
+                    mappedFileCacheSize);
+            this.restoreDirMaxBytes = restoreDirMaxBytes;
         }
 
         @SuppressWarnings("resource")
@@ -923,7 +1142,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                 if (!createIfAbsent &&
                         (cycle > directoryListing.getMaxCreatedCycle()
                                 || cycle < directoryListing.getMinCreatedCycle()
-                                || !path.exists())) {
+                                || !cycleFileExists(path))) {
                     return null;
                 }
 
@@ -936,7 +1155,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                 dateValue.pathExists = true;
 
                 try {
-                    mappedBytes = mappedFileCache.get(path);
+                    mappedBytes = path.exists() ? mappedFileCache.get(path) : mapRestored(path);
                 } catch (FileNotFoundException e) {
                     createFile(path);
                     mappedBytes = mappedFileCache.get(path);
@@ -966,6 +1185,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                         wireStore.initIndex(wire);
                         // do not allow tailer to see the file until it's header is written
                         directoryListing.onFileCreated(path, cycle);
+                        onCycleCreated(cycle);
                         // allow directoryListing to pick up the file immediately
                         firstAndLastCycleTime = 0;
                     } else {
@@ -1040,6 +1260,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                             wire.usePadding(true);
                         wireStore.initIndex(wire);
                         directoryListing.onFileCreated(path, cycle);
+                        onCycleCreated(cycle);
                         firstAndLastCycleTime = 0;
                     }
                 } finally {
@@ -1053,9 +1274,116 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
 
         }
 
+        /**
+         * @return a mapping of a copy of the cycle file restored from its archive, or of the cycle file if it isn't
+         * archived
+         */
+        @NotNull
+        private MappedBytes mapRestored(@NotNull final File path) throws IOException {
+            while (true) {
+                final File restored = restored(path);
+                if (restored == path)
+                    return mappedFileCache.get(path);
+                synchronized (restoredHere) {
+                    // unless it was released and deleted since
+                    if (restored.exists())
+                        return mappedFileCache.get(restored);
+                }
+            }
+        }
+
+        /**
+         * @return a copy of the cycle file restored from its archive, or the cycle file if it isn't archived
+         */
+        @NotNull
+        private File restored(@NotNull final File path) throws IOException {
+            final File archive = CycleArchive.archiveFileFor(path);
+            if (!archive.exists())
+                return path;
+            final File restored = new File(restoreDir, path.getName());
+            if (restored.exists())
+                return restored;
+            final Object lock = restoring.computeIfAbsent(restored, f -> new Object());
+            try {
+                synchronized (lock) {
+                    // restored by another thread or process meanwhile
+                    if (!restored.exists()) {
+                        Files.createDirectories(restoreDir.toPath());
+                        try (CycleArchive cycleArchive = CycleArchive.open(archive)) {
+                            makeRoomFor(restored, cycleArchive.fileLength());
+                            cycleArchive.restoreTo(restored);
+                        }
+                        restoredHere.add(restored);
+                    }
+                }
+            } finally {
+                restoring.remove(restored, lock);
+            }
+            return restored;
+        }
+
+        /**
+         * Deletes the copies in the restore dir which this queue isn't using, oldest first, until there is room for
+         * another of {@code length} bytes.
+         *
+         * @throws IOException if there isn't room once they are deleted
+         */
+        private void makeRoomFor(@NotNull final File restored, final long length) throws IOException {
+            final File[] copies = restoreDir.listFiles((dir, name) -> name.endsWith(SUFFIX));
+            if (copies == null)
+                return;
+            long used = 0;
+            for (File copy : copies)
+                used += copy.length();
+            if (used + length <= restoreDirMaxBytes)
+                return;
+            // left by other queues, or processes which didn't close their queue
+            Arrays.sort(copies, Comparator.comparingLong(File::lastModified));
+            for (int i = 0; i < copies.length && used + length > restoreDirMaxBytes; i++) {
+                final long copyLength = copies[i].length();
+                if (!restoredHere.contains(copies[i]) && copies[i].delete())
+                    used -= copyLength;
+            }
+            if (used + length > restoreDirMaxBytes)
+                throw new IOException("Unable to restore " + restored + " of " + length + " bytes, the copies in use take up "
+                        + used + " of the " + restoreDirMaxBytes + " bytes allowed by restoreDirMaxBytes");
+        }
+
+        /**
+         * Releases the cached mapping of a cycle file, and deletes any copy restored from its archive.
+         */
+        void release(@NotNull final File path) {
+            mappedFileCache.remove(path);
+            deleteRestored(new File(restoreDir, path.getName()));
+        }
+
+        /**
+         * Deletes a copy restored by this queue once the last store of it has been closed. Another queue which has it
+         * mapped can continue to read it.
+         */
+        @Override
+        public void onReleased(int cycle, @NotNull File file) {
+            if (restoredHere.contains(file))
+                deleteRestored(file);
+        }
+
+        private void deleteRestored(@NotNull final File restored) {
+            synchronized (restoredHere) {
+                mappedFileCache.remove(restored);
+                restored.delete();
+                restoredHere.remove(restored);
+            }
+        }
+
         @Override
         protected void performClose() {
             mappedFileCache.close();
+            // other queues which mapped these keep their mappings, and restore them again if needed
+            for (File restored : restoredHere)
+                restored.delete();
+            restoredHere.clear();
+            // unless other queues have copies in it
+            restoreDir.delete();
         }
 
         private void createFile(final File path) {
@@ -1078,47 +1406,75 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         }
 
         /**
-         * @return cycleTree for the current directory / parentFile
+         * Brings the cycle index up to date. Cycles this process creates or deletes are added to or removed from the
+         * index as it does so. Changes made by other processes are found from the lowest and highest cycles in the
+         * directory listing when its mod count changes, by checking for the files of the cycles beyond either end of
+         * the index. The directory is listed only the first time, when forced, or when too many cycles would need to
+         * be checked.
          */
         @NotNull
-        private NavigableMap<Long, File> cycleTree(final boolean force) {
-
-            final File parentFile = path;
-
+        private CycleIndex cycleIndex(final boolean force) {
             // use pre-calculated result in case where queue dir existed when StoreSupplier was constructed
-            if (!queuePathExists && !parentFile.exists())
-                throw new IllegalStateException("parentFile=" + parentFile.getName() + " does not exist");
+            if (!queuePathExists && !path.exists())
+                throw new IllegalStateException("parentFile=" + path.getName() + " does not exist");
 
-            CachedCycleTree cachedValue = cachedTree.get();
             final long directoryModCount = directoryListing.modCount();
-            if (force || (cachedValue == null || directoryModCount == -1 || directoryModCount > cachedValue.directoryModCount)) {
-
-                final RollingResourcesCache dateCache = SingleChronicleQueue.this.dateCache;
-                final NavigableMap<Long, File> tree = new TreeMap<>();
+            if (!force && directoryModCount != -1 && directoryModCount == indexedModCount)
+                return cycleIndex;
 
-                final File[] files = parentFile.listFiles((File file) -> file.getPath().endsWith(SUFFIX));
-
-                for (File file : files) {
-                    tree.put(dateCache.toLong(file), file);
+            synchronized (cycleIndex) {
+                if (force || !indexed) {
+                    listCycles();
+                } else {
+                    final int minCycle = directoryListing.getMinCreatedCycle();
+                    final int maxCycle = directoryListing.getMaxCreatedCycle();
+                    if (minCycle <= maxCycle && !probe(minCycle, maxCycle))
+                        listCycles();
                 }
+                // publishes the updated index to the unlocked check above
+                indexedModCount = directoryModCount;
+            }
+            return cycleIndex;
+        }
 
-                cachedValue = new CachedCycleTree(directoryModCount, tree);
+        private void listCycles() {
+            final File[] files = path.listFiles((File file) -> isCycleFile(file.getName()));
+            final int[] cycles = new int[files == null ? 0 : files.length];
+            final ToIntFunction<File> fileToCycle = fileToCycleFunction();
+            for (int i = 0; i < cycles.length; i++)
+                cycles[i] = fileToCycle.applyAsInt(files[i]);
+            cycleIndex.reset(cycles);
+            indexed = true;
+        }
 
-                while (true) {
-                    final CachedCycleTree existing = cachedTree.get();
+        /**
+         * @return false if there are too many cycles beyond the ends of the index to check them individually
+         */
+        private boolean probe(final int minCycle, final int maxCycle) {
+            cycleIndex.removeBefore(minCycle);
+            final int first = cycleIndex.first();
+            final int last = cycleIndex.last();
+            if (cycleIndex.size() == 0)
+                return (long) maxCycle - minCycle < MAX_CYCLES_TO_PROBE && probeBetween(minCycle, maxCycle);
+            if (last < maxCycle && (long) maxCycle - last > MAX_CYCLES_TO_PROBE
+                    || first > minCycle && (long) first - minCycle > MAX_CYCLES_TO_PROBE)
+                return false;
+            return probeBetween(last + 1, maxCycle) && probeBetween(minCycle, first - 1);
+        }
 
-                    if (existing != null && existing.directoryModCount > cachedValue.directoryModCount) {
-                        break;
-                    }
+        private boolean probeBetween(final int fromCycle, final int toCycle) {
+            for (int cycle = fromCycle; cycle <= toCycle && cycle >= fromCycle; cycle++)
+                if (cycleFileExists(dateCache.resourceFor(cycle).path))
+                    cycleIndex.add(cycle);
+            return true;
+        }
 
-                    if (cachedTree.compareAndSet(existing, cachedValue)) {
-                        break;
-                    }
-                    Jvm.nanoPause();
-                }
-            }
+        void onCycleCreated(final int cycle) {
+            cycleIndex.add(cycle);
+        }
 
-            return cachedValue.cachedCycleTree;
+        void onCycleDeleted(final int cycle) {
+            cycleIndex.remove(cycle);
         }
 
         @Override
@@ -1128,7 +1484,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
             if (direction == NONE)
                 throw new AssertionError("direction is NONE");
             assert currentCycle >= 0 : "currentCycle=" + Integer.toHexString(currentCycle);
-            NavigableMap<Long, File> tree = cycleTree(false);
+            CycleIndex cycles = cycleIndex(false);
             final File currentCycleFile = dateCache.resourceFor(currentCycle).path;
 
             directoryListing.refresh(false);
@@ -1144,7 +1500,7 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                         break;
                     }
                 }
-                fileFound |= currentCycleFile.exists();
+                fileFound |= cycleFileExists(currentCycleFile);
 
                 if (!fileFound) {
                     directoryListing.refresh(true);
@@ -1153,37 +1509,27 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
                                             "Available files: %s",
                                     currentCycle, currentCycleFile,
                                     directoryListing.getMinCreatedCycle(), directoryListing.getMaxCreatedCycle(),
-                                    Arrays.toString(path.list((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX)))));
+                                    Arrays.toString(path.list((d, n) -> isCycleFile(n)))));
                 }
             }
 
-            Long key = dateCache.toLong(currentCycleFile);
-            File file = tree.get(key);
-            // already checked that the file should be on-disk, so if it is null, call cycleTree again with force
-            if (file == null) {
-                tree = cycleTree(true);
-                file = tree.get(key);
-            }
-            if (file == null) {
+            // already checked that the file should be on-disk, so if it is missing, list the directory
+            if (!cycles.contains(currentCycle))
+                cycles = cycleIndex(true);
+            if (!cycles.contains(currentCycle)) {
                 throw new AssertionError("missing currentCycle, file=" + currentCycleFile);
             }
 
             switch (direction) {
                 case FORWARD:
-                    return toCycle(tree.higherEntry(key));
+                    return cycles.higher(currentCycle);
                 case BACKWARD:
-                    return toCycle(tree.lowerEntry(key));
+                    return cycles.lower(currentCycle);
                 default:
                     throw new UnsupportedOperationException("Unsupported Direction");
             }
         }
 
-        private int toCycle(@Nullable Map.Entry<Long, File> entry) {
-            if (entry == null || entry.getValue() == null)
-                return -1;
-            return dateCache.parseCount(fileToText().apply(entry.getValue()));
-        }
-
         /**
          * the cycles between a range, inclusive
          *
@@ -1195,19 +1541,19 @@ public class SingleChronicleQueue extends AbstractCloseable implements RollingCh
         public NavigableSet<Long> cycles(int lowerCycle, int upperCycle) {
             throwExceptionIfClosed();
 
-            final NavigableMap<Long, File> tree = cycleTree(false);
-            final Long lowerKey = toKey(lowerCycle, "lowerCycle");
-            final Long upperKey = toKey(upperCycle, "upperCycle");
-            assert lowerKey != null;
-            assert upperKey != null;
-            return tree.subMap(lowerKey, true, upperKey, true).navigableKeySet();
+            CycleIndex cycles = cycleIndex(false);
+            if (!cycles.contains(lowerCycle) || !cycles.contains(upperCycle)) {
+                checkExists(lowerCycle, "lowerCycle");
+                checkExists(upperCycle, "upperCycle");
+                cycles = cycleIndex(true);
+            }
+            return cycles.between(lowerCycle, upperCycle);
         }
 
-        private Long toKey(int cyle, String m) {
+        private void checkExists(int cyle, String m) {
             final File file = dateCache.resourceFor(cyle).path;
-            if (!file.exists())
+            if (!cycleFileExists(file))
                 throw new IllegalStateException("'file not found' for the " + m + ", file=" + file);
-            return dateCache.toLong(file);
         }
 
         @Override
@@ -104,12 +104,18 @@ public class SingleChronicleQueueBuilder extends SelfDescribingMarshallable impl
     private BufferMode readBufferMode = BufferMode.None;
     private WireType wireType = WireType.BINARY_LIGHT;
     private Long blockSize;
+    private Boolean hugePages;
     private File path;
     private RollCycle rollCycle;
     private Long epoch; // default is 1970-01-01 00:00:00.000 UTC
     private Long bufferCapacity;
     private Integer indexSpacing;
     private Integer indexCount;
+    private Long adaptiveIndexScanBytes;
+    private Boolean deltaIndex;
+    private Long retentionMaxAgeMS;
+    private Long retentionMaxBytes;
+    private Long retentionCheckIntervalMS;
     private Boolean enableRingBufferMonitoring;
     private Boolean ringBufferReaderCanDrain;
     private Boolean ringBufferForceCreateReader;
@@ -147,6 +153,11 @@ public class SingleChronicleQueueBuilder extends SelfDescribingMarshallable impl
     private int maxTailers;
     private ThrowingBiFunction<Long, Integer, BytesStore, Exception> bufferBytesStoreCreator;
     private Long pretouchIntervalMillis;
+    private Integer pretouchThreads;
+    private Long writeWindowLockSize;
+    private Long restoreDirMaxBytes;
+    private Integer mappedFileCacheSize;
+    private Boolean fairWriteLock;
     private LocalTime rollTime;
     private ZoneId rollTimeZone;
     private QueueOffsetSpec queueOffsetSpec;
@@ -255,12 +266,25 @@ public class SingleChronicleQueueBuilder extends SelfDescribingMarshallable impl
     static SingleChronicleQueueStore createStore(@NotNull RollingChronicleQueue queue,
                                                  @NotNull Wire wire) {
         MappedBytes mappedBytes = (MappedBytes) wire.bytes();
+        int indexCount = queue.indexCount();
+        int indexSpacing = queue.indexSpacing();
+        if (queue instanceof SingleChronicleQueue && ((SingleChronicleQueue) queue).adaptiveIndexScanBytes() > 0) {
+            final SingleChronicleQueue scq = (SingleChronicleQueue) queue;
+            final int cycle = queue.rollCycle().toCycle(wire.headerNumber() + 1);
+            final long averageSize = scq.averageMessageSizeBefore(cycle);
+            if (averageSize > 0) {
+                final long maxMessages = RollCycles.maxMessagesPerCycle(indexCount, indexSpacing);
+                indexSpacing = AdaptiveIndexSpacing.indexSpacing(averageSize, scq.adaptiveIndexScanBytes(), maxMessages, indexCount);
+                indexCount = AdaptiveIndexSpacing.indexCount(maxMessages, indexSpacing, indexCount);
+            }
+        }
         final SingleChronicleQueueStore wireStore = new SingleChronicleQueueStore(
                 queue.rollCycle(),
                 queue.wireType(),
                 mappedBytes,
-                queue.indexCount(),
-                queue.indexSpacing());
+                indexCount,
+                indexSpacing,
+                queue instanceof SingleChronicleQueue && ((SingleChronicleQueue) queue).deltaIndex());
 
         wire.writeEventName(MetaDataKeys.header).typedMarshallable(wireStore);
         return wireStore;
@@ -496,7 +520,11 @@ public class SingleChronicleQueueBuilder extends SelfDescribingMarshallable impl
 
     @NotNull
     WriteLock writeLock() {
-        return readOnly() ? new ReadOnlyWriteLock() : new TableStoreWriteLock(metaStore, pauserSupplier(), timeoutMS() * 3 / 2);
+        if (readOnly())
+            return new ReadOnlyWriteLock();
+        return fairWriteLock()
+                ? new TableStoreFairWriteLock(metaStore, pauserSupplier(), timeoutMS() * 3 / 2)
+                : new TableStoreWriteLock(metaStore, pauserSupplier(), timeoutMS() * 3 / 2);
     }
 
     public int deltaCheckpointInterval() {
@@ -572,6 +600,94 @@ public class SingleChronicleQueueBuilder extends SelfDescribingMarshallable impl
         return pretouchIntervalMillis != null;
     }
 
+    /**
+     * Lets a {@link Pretoucher} split the pages it needs to touch between up to this many threads, for write rates
+     * a single thread can't fault pages in fast enough for. The number of threads used adapts to how long pages
+     * take to fault in, so is one while that keeps up.
+     *
+     * @param pretouchThreads the most threads to pretouch with, 1 by default
+     * @return this
+     */
+    public SingleChronicleQueueBuilder pretouchThreads(int pretouchThreads) {
+        this.pretouchThreads = pretouchThreads;
+        return this;
+    }
+
+    public int pretouchThreads() {
+        return pretouchThreads == null ? 1 : Math.max(1, pretouchThreads);
+    }
+
+    /**
+     * Has a {@link Pretoucher} keep this many bytes of the current cycle around its write position locked in memory
+     * with {@code mlock}, unlocking behind as it moves and on a roll, so pages just written or about to be written
+     * aren't reclaimed when other processes put the page cache under pressure. This needs JNA and a large enough
+     * memlock limit.
+     *
+     * @param writeWindowLockSize the size of the window to lock, 0 by default to lock nothing
+     * @return this
+     */
+    public SingleChronicleQueueBuilder writeWindowLockSize(long writeWindowLockSize) {
+        this.writeWindowLockSize = writeWindowLockSize;
+        return this;
+    }
+
+    public long writeWindowLockSize() {
+        return writeWindowLockSize == null ? 0 : Math.max(0, writeWindowLockSize);
+    }
+
+    /**
+     * Limits the copies of archived cycles restored for this queue to {@code maxBytes}. Before a cycle is restored,
+     * copies which this queue isn't using are deleted, oldest first, to make room for it, and if there still isn't
+     * room, reading the cycle fails.
+     *
+     * @param maxBytes the total size of the restored copies, 16 GB by default, or -1 for no limit
+     * @return this
+     * @see SingleChronicleQueue#archiveCycle(int)
+     */
+    public SingleChronicleQueueBuilder restoreDirMaxBytes(long maxBytes) {
+        this.restoreDirMaxBytes = maxBytes;
+        return this;
+    }
+
+    public long restoreDirMaxBytes() {
+        return restoreDirMaxBytes == null ? 16L << 30 : restoreDirMaxBytes < 0 ? Long.MAX_VALUE : restoreDirMaxBytes;
+    }
+
+    /**
+     * Keeps up to this many cycle files mapped once no tailer or appender is using them, unmapping the least recently
+     * used beyond that, so readers moving between cycles at random don't map the same files again. Files in use are
+     * never unmapped, so more can be mapped while they are.
+     *
+     * @param mappedFileCacheSize the most files to keep mapped, 0 by default to unmap each once it isn't in use
+     * @return this
+     */
+    public SingleChronicleQueueBuilder mappedFileCacheSize(int mappedFileCacheSize) {
+        this.mappedFileCacheSize = mappedFileCacheSize;
+        return this;
+    }
+
+    public int mappedFileCacheSize() {
+        return mappedFileCacheSize == null ? 0 : Math.max(0, mappedFileCacheSize);
+    }
+
+    /**
+     * Uses a {@link TableStoreFairWriteLock} for the write lock, which writers get in the order they asked for it,
+     * across processes, so a writer sharing the queue with a busier one isn't starved. It also records how long
+     * writers waited, see {@link SingleChronicleQueue#writeLockMetrics()}. All the processes writing to the queue
+     * should use it, as it's only fair between those which do.
+     *
+     * @param fairWriteLock whether writers get the write lock in order, false by default
+     * @return this
+     */
+    public SingleChronicleQueueBuilder fairWriteLock(boolean fairWriteLock) {
+        this.fairWriteLock = fairWriteLock;
+        return this;
+    }
+
+    public boolean fairWriteLock() {
+        return fairWriteLock != null && fairWriteLock;
+    }
+
     public SingleChronicleQueueBuilder path(String path) {
         return path(new File(path));
     }
@@ -627,6 +743,30 @@ public class SingleChronicleQueueBuilder extends SelfDescribingMarshallable impl
         return Math.max(minSize, bs);
     }
 
+    /**
+     * Maps queue files in multiples of huge pages, for a queue on hugetlbfs or on tmpfs mounted with huge pages, so a
+     * mapping can use them. The block size and overlap size are rounded up to the huge page size of the file system,
+     * 2 MB if it doesn't use huge pages, and pretouching touches one huge page at a time.
+     *
+     * @param hugePages whether to align mappings to huge pages
+     * @return this
+     */
+    public SingleChronicleQueueBuilder hugePages(boolean hugePages) {
+        this.hugePages = hugePages;
+        return this;
+    }
+
+    public boolean hugePages() {
+        return hugePages == null ? false : hugePages;
+    }
+
+    /**
+     * @return the size of the pages the queue files are mapped and pretouched with
+     */
+    public long pageSize() {
+        return hugePages() ? HugePages.pageSizeFor(path) : OS.pageSize();
+    }
+
     /**
      * THIS IS FOR TESTING ONLY.
      * This makes the block size small to speed up short tests and show up issues which occur when moving from one block to another.
@@ -791,7 +931,8 @@ public class SingleChronicleQueueBuilder extends SelfDescribingMarshallable impl
     public EventLoop eventLoop() {
         if (eventLoop == null)
             return new OnDemandEventLoop(
-                    () -> new MediumEventLoop(null, path.getName(), Pauser.busy(), true, "none"));
+                    // the only handler of a queue's own event loop is retention, which needn't spin
+                    () -> new MediumEventLoop(null, path.getName(), retention() ? Pauser.millis(10) : Pauser.busy(), true, "none"));
         return eventLoop;
     }
 
@@ -909,6 +1050,100 @@ public class SingleChronicleQueueBuilder extends SelfDescribingMarshallable impl
                 indexSpacing;
     }
 
+    /**
+     * Enables adaptive index spacing. When a new cycle is created its index spacing is chosen from the number of
+     * messages and bytes in the previous cycle, so that finding a message from the nearest index entry scans no more
+     * than {@code maxScanBytes} on average. The spacing used is recorded in the header of each cycle.
+     * <p>
+     * The first cycle uses {@link #indexSpacing()}. The index count is increased as needed so a cycle can still hold
+     * as many messages as {@link #indexCount()} and {@link #indexSpacing()} allow.
+     *
+     * @param maxScanBytes the average number of bytes to scan from an index entry, or 0 to disable
+     * @return this
+     */
+    public SingleChronicleQueueBuilder adaptiveIndexSpacing(long maxScanBytes) {
+        this.adaptiveIndexScanBytes = maxScanBytes;
+        return this;
+    }
+
+    /**
+     * @return the average number of bytes to scan from an index entry, or 0 if adaptive index spacing is disabled
+     */
+    public long adaptiveIndexScanBytes() {
+        return adaptiveIndexScanBytes == null || adaptiveIndexScanBytes <= 0 ? 0 : adaptiveIndexScanBytes;
+    }
+
+    /**
+     * Stores the secondary indexes of new cycles as 32-bit deltas from the address of each index rather than 64-bit
+     * positions, which halves the size of the index. Lookups cost one extra add. An excerpt more than 8 GB from its
+     * secondary index is not indexed and is found by a linear scan instead.
+     * <p>
+     * The format is recorded in the header of each cycle, existing cycles are read as written. Cycles written this way
+     * can't be indexed by versions which don't support it, and will be read with a linear scan.
+     *
+     * @param deltaIndex whether to use the delta encoded index for new cycles
+     * @return this
+     */
+    public SingleChronicleQueueBuilder deltaIndex(boolean deltaIndex) {
+        this.deltaIndex = deltaIndex;
+        return this;
+    }
+
+    public boolean deltaIndex() {
+        return deltaIndex == null ? false : deltaIndex;
+    }
+
+    /**
+     * Deletes cycles which ended more than {@code maxAgeMS} ago. Retention runs on the {@link #eventLoop()}, which is
+     * started if the queue creates it, and can be applied directly with {@link SingleChronicleQueue#applyRetention()}.
+     * <p>
+     * The current and latest cycles are never deleted, nor is any cycle from that of the slowest named tailer on.
+     *
+     * @param maxAgeMS the age at which a cycle is deleted, measured from the end of the cycle
+     * @return this
+     */
+    public SingleChronicleQueueBuilder retentionMaxAgeMS(long maxAgeMS) {
+        this.retentionMaxAgeMS = maxAgeMS;
+        return this;
+    }
+
+    public long retentionMaxAgeMS() {
+        return retentionMaxAgeMS == null || retentionMaxAgeMS < 0 ? Long.MAX_VALUE : retentionMaxAgeMS;
+    }
+
+    /**
+     * Deletes the oldest cycles while the cycle files of the queue, including archived cycles, total more than
+     * {@code maxBytes}. The same cycles are kept as for {@link #retentionMaxAgeMS(long)}.
+     *
+     * @param maxBytes the total size of the cycle files to retain
+     * @return this
+     */
+    public SingleChronicleQueueBuilder retentionMaxBytes(long maxBytes) {
+        this.retentionMaxBytes = maxBytes;
+        return this;
+    }
+
+    public long retentionMaxBytes() {
+        return retentionMaxBytes == null || retentionMaxBytes < 0 ? Long.MAX_VALUE : retentionMaxBytes;
+    }
+
+    /**
+     * @param checkIntervalMS how often the event loop applies retention, by default once a second
+     * @return this
+     */
+    public SingleChronicleQueueBuilder retentionCheckIntervalMS(long checkIntervalMS) {
+        this.retentionCheckIntervalMS = checkIntervalMS;
+        return this;
+    }
+
+    public long retentionCheckIntervalMS() {
+        return retentionCheckIntervalMS == null ? 1000 : retentionCheckIntervalMS;
+    }
+
+    boolean retention() {
+        return retentionMaxAgeMS() < Long.MAX_VALUE || retentionMaxBytes() < Long.MAX_VALUE;
+    }
+
     public TimeProvider timeProvider() {
         return timeProvider == null ? SystemTimeProvider.INSTANCE : timeProvider;
     }
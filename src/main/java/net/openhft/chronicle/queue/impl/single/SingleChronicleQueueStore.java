@@ -41,6 +41,7 @@ import java.io.StreamCorruptedException;
 import java.io.UncheckedIOException;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SingleChronicleQueueStore extends AbstractCloseable implements WireStore {
     static {
@@ -59,6 +60,11 @@ public class SingleChronicleQueueStore extends AbstractCloseable implements Wire
     private final int dataVersion;
     @NotNull
     private final transient Sequence sequence;
+    // the store this is a view of, or null if this holds the state itself
+    @Nullable
+    private final transient SingleChronicleQueueStore shared;
+    // the number of open views of this store, or -1 once the last has been closed
+    private final transient AtomicInteger views = new AtomicInteger();
 
     private int cycle;
 
@@ -71,6 +77,7 @@ public class SingleChronicleQueueStore extends AbstractCloseable implements Wire
     private SingleChronicleQueueStore(@NotNull WireIn wire) {
         assert wire.startUse();
         try {
+            shared = null;
             writePosition = loadWritePosition(wire);
             this.mappedBytes = (MappedBytes) wire.bytes();
             this.mappedFile = mappedBytes.mappedFile();
@@ -102,13 +109,31 @@ public class SingleChronicleQueueStore extends AbstractCloseable implements Wire
                                      @NotNull MappedBytes mappedBytes,
                                      int indexCount,
                                      int indexSpacing) {
+        this(rollCycle, wireType, mappedBytes, indexCount, indexSpacing, false);
+    }
+
+    /**
+     * @param rollCycle    the current rollCycle
+     * @param wireType     the wire type that is being used
+     * @param mappedBytes  used to mapped the data store file
+     * @param indexCount   the number of entries in each index.
+     * @param indexSpacing the spacing between indexed entries.
+     * @param deltaIndex   whether the secondary indexes hold 32-bit deltas rather than 64-bit positions.
+     */
+    public SingleChronicleQueueStore(@NotNull RollCycle rollCycle,
+                                     @NotNull final WireType wireType,
+                                     @NotNull MappedBytes mappedBytes,
+                                     int indexCount,
+                                     int indexSpacing,
+                                     boolean deltaIndex) {
+        this.shared = null;
         this.mappedBytes = mappedBytes;
         this.mappedFile = mappedBytes.mappedFile();
         mappedFile.reserve(this);
         indexCount = Maths.nextPower2(indexCount, 8);
         indexSpacing = Maths.nextPower2(indexSpacing, 1);
 
-        this.indexing = new SCQIndexing(wireType, indexCount, indexSpacing);
+        this.indexing = new SCQIndexing(wireType, indexCount, indexSpacing, deltaIndex);
         this.indexing.writePosition = this.writePosition = wireType.newTwoLongReference().get();
         this.indexing.sequence = this.sequence = new RollCycleEncodeSequence(writePosition,
                 rollCycle.defaultIndexCount(),
@@ -116,6 +141,17 @@ public class SingleChronicleQueueStore extends AbstractCloseable implements Wire
         this.dataVersion = 1;
     }
 
+    private SingleChronicleQueueStore(@NotNull SingleChronicleQueueStore shared) {
+        this.shared = shared;
+        this.writePosition = shared.writePosition;
+        this.mappedBytes = shared.mappedBytes;
+        this.mappedFile = shared.mappedFile;
+        this.indexing = shared.indexing;
+        this.sequence = shared.sequence;
+        this.dataVersion = shared.dataVersion;
+        this.cycle = shared.cycle;
+    }
+
     @NotNull
     public static String dump(@NotNull String directoryFilePath) {
         return ChronicleQueue.singleBuilder(directoryFilePath).build().dump();
@@ -241,8 +277,42 @@ public class SingleChronicleQueueStore extends AbstractCloseable implements Wire
         return indexing.moveToEnd(w);
     }
 
+    /**
+     * Creates a view of this store, sharing the state read from the header of its file, i.e. the write position and
+     * index, rather than reading it again. Closing a view doesn't close this store, this store is closed once it has
+     * had views and the last has been closed.
+     *
+     * @return a new view of this store, or null if this store has been closed
+     */
+    @Nullable
+    public SingleChronicleQueueStore newView() {
+        if (shared != null)
+            return shared.newView();
+        for (int count; (count = views.get()) >= 0 && !isClosing(); )
+            if (views.compareAndSet(count, count + 1))
+                return new SingleChronicleQueueStore(this);
+        return null;
+    }
+
+    /**
+     * @return whether this store, or the store this is a view of, has been closed with its last view
+     */
+    public boolean isReleased() {
+        return shared == null ? isClosed() : shared.isClosed();
+    }
+
+    private void releaseView() {
+        // unless another view was created meanwhile
+        if (views.decrementAndGet() == 0 && views.compareAndSet(0, -1))
+            close();
+    }
+
     @Override
     protected void performClose() {
+        if (shared != null) {
+            shared.releaseView();
+            return;
+        }
         Closeable.closeQuietly(writePosition);
         Closeable.closeQuietly(indexing);
 
@@ -336,6 +406,40 @@ public class SingleChronicleQueueStore extends AbstractCloseable implements Wire
 
     }
 
+    /**
+     * Checks the index of this store against the excerpts in the file, by walking every header rather than using the
+     * index, and optionally writes any index entries which are missing or wrong.
+     * <p>
+     * This is intended for offline use, nothing should be appending to this store while it runs.
+     *
+     * @param wireType of the queue
+     * @param repair   whether to write the missing or wrong index entries
+     * @return the result of the check
+     */
+    @NotNull
+    public IndexCheck checkIndex(@NotNull WireType wireType, boolean repair) throws StreamCorruptedException {
+        throwExceptionIfClosed();
+
+        final IndexCheck check = new IndexCheck(cycle);
+        final Wire wire = readAnywhere(wireType.apply(bytes()));
+        final Wire wireForIndex = readAnywhere(wireType.apply(bytes()));
+        try {
+            indexing.checkIndex(wire, wireForIndex, repair, check);
+        } finally {
+            wire.bytes().releaseLast();
+            wireForIndex.bytes().releaseLast();
+        }
+        return check;
+    }
+
+    @NotNull
+    private Wire readAnywhere(@NotNull Wire wire) {
+        wire.bytes().readLimitToCapacity();
+        if (dataVersion > 0)
+            wire.usePadding(true);
+        return wire;
+    }
+
     @Override
     public ScanResult linearScanTo(final long index, final long knownIndex, final ExcerptContext ec, final long knownAddress) {
         throwExceptionIfClosed();
@@ -391,6 +495,10 @@ public class SingleChronicleQueueStore extends AbstractCloseable implements Wire
         return indexing.indexSpacing();
     }
 
+    boolean deltaIndex() {
+        return indexing.deltaIndex();
+    }
+
     public SingleChronicleQueueStore cycle(int cycle) {
         throwExceptionIfClosedInSetter();
 
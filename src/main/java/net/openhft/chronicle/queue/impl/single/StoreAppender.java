@@ -9,6 +9,7 @@ import net.openhft.chronicle.core.io.IORuntimeException;
 import net.openhft.chronicle.queue.ChronicleQueue;
 import net.openhft.chronicle.queue.ExcerptAppender;
 import net.openhft.chronicle.queue.QueueSystemProperties;
+import net.openhft.chronicle.queue.WritePriority;
 import net.openhft.chronicle.queue.batch.BatchAppender;
 import net.openhft.chronicle.queue.impl.ExcerptContext;
 import net.openhft.chronicle.queue.impl.WireStore;
@@ -56,6 +57,8 @@ class StoreAppender extends AbstractCloseable
     @UsedViaReflection
     private final Finalizer finalizer;
     private boolean disableThreadSafetyCheck;
+    @NotNull
+    private WritePriority priority = WritePriority.NORMAL;
     private int count = 0;
 
     StoreAppender(@NotNull final SingleChronicleQueue queue,
@@ -371,18 +374,21 @@ class StoreAppender extends AbstractCloseable
             return writeContext;
         }
 
-        if (queue.doubleBuffer && writeLock.locked() && !metaData) {
+        // a low priority excerpt is written to the buffer so the lock is only held to copy it
+        if ((priority == WritePriority.LOW || queue.doubleBuffer && writeLock.locked()) && !metaData) {
             writeContext.isClosed = false;
             writeContext.rollbackOnClose = false;
             writeContext.buffered = true;
             if (bufferWire == null) {
                 Bytes bufferBytes = Bytes.allocateElasticOnHeap();
                 bufferWire = queue().wireType().apply(bufferBytes);
+            } else {
+                bufferWire.clear();
             }
             writeContext.wire = bufferWire;
             writeContext.metaData(false);
         } else {
-            writeLock.lock();
+            writeLock.lock(priority);
             int cycle = queue.cycle();
 
             if (wire == null)
@@ -397,9 +403,9 @@ class StoreAppender extends AbstractCloseable
 
             // sets the writeLimit based on the safeLength
             openContext(metaData, safeLength);
+            // there is nothing to read.
+            wire.bytes().readPosition(wire.bytes().writePosition());
         }
-        // there is nothing to read.
-        wire.bytes().readPosition(wire.bytes().writePosition());
         return writeContext;
     }
 
@@ -499,7 +505,7 @@ class StoreAppender extends AbstractCloseable
     public void writeBytes(@NotNull final BytesStore bytes)  {
         throwExceptionIfClosed();
         checkAppendLock();
-        writeLock.lock();
+        writeLock.lock(priority);
         try {
             int cycle = queue.cycle();
             if (wire == null)
@@ -538,7 +544,7 @@ class StoreAppender extends AbstractCloseable
     public void writeBytes(final long index, @NotNull final BytesStore bytes) {
         throwExceptionIfClosed();
         checkAppendLock();
-        writeLock.lock();
+        writeLock.lock(priority);
         try {
             writeBytesInternal(index, bytes);
         } finally {
@@ -753,6 +759,18 @@ class StoreAppender extends AbstractCloseable
         wire.bytes().writePosition(startOfMessage);
     }
 
+    @Override
+    public ExcerptAppender priority(@NotNull WritePriority priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public WritePriority priority() {
+        return priority;
+    }
+
     @Override
     public ExcerptAppender disableThreadSafetyCheck(boolean disableThreadSafetyCheck) {
         this.disableThreadSafetyCheck = disableThreadSafetyCheck;
@@ -72,7 +72,7 @@ final class TableDirectoryListing extends AbstractCloseable implements Directory
             final long currentMax = maxCycleValue.getVolatileValue();
             Jvm.safepoint();
             final File[] queueFiles = queuePath.toFile().
-                    listFiles((d, f) -> f.endsWith(SingleChronicleQueue.SUFFIX));
+                    listFiles((d, f) -> SingleChronicleQueue.isCycleFile(f));
             int min = UNSET_MIN_CYCLE;
             int max = UNSET_MAX_CYCLE;
             if (queueFiles != null) {
@@ -104,6 +104,16 @@ final class TableDirectoryListing extends AbstractCloseable implements Directory
         }
     }
 
+    @Override
+    public void onFileDeleted(final File file, final int cycle) {
+        if (readOnly) {
+            LOGGER.warn("DirectoryListing is read-only, not updating listing");
+            return;
+        }
+        modCount.addAtomicValue(1);
+        refresh(true);
+    }
+
     @Override
     public int getMaxCreatedCycle() {
         return getMaxCycleValue();
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2014-2020 chronicle.software
+ *
+ * http://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.StackTrace;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.WritePriority;
+import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.util.LockMetrics;
+import net.openhft.chronicle.threads.TimingPauser;
+import net.openhft.chronicle.wire.UnrecoverableTimeoutException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static net.openhft.chronicle.core.Jvm.warn;
+
+/**
+ * A {@link TableStoreWriteLock} which lockers acquire in the order they asked for it, across processes, rather than
+ * whichever wins a CAS. Each takes a ticket from a counter in the table store and waits for it to be served, spinning
+ * if it's next, then yielding and then parking for longer the further back it is. Once served it takes the same lock
+ * as {@link TableStoreWriteLock}, so it still excludes processes using that, though it's only fair between processes
+ * using this.
+ * <p>
+ * Lockers of {@link WritePriority#HIGH} priority take tickets from a lane of their own, and a locker of the normal
+ * lane which is served waits while any are waiting, so they get the lock next.
+ * <p>
+ * The acquisitions and the time waited for them are counted in the table store too, so they can be read by tools,
+ * e.g. in a dump of the queue's metadata.
+ * <p>
+ * If neither lane is served for the timeout, e.g. as the process holding the lock or waiting for it died, the lock is
+ * unlocked forcibly and the ticket holding them up is skipped. An interrupt is only acted on once the locker's ticket
+ * is served, passing the lock on, so it doesn't leave a ticket which holds up the others until the timeout.
+ */
+public class TableStoreFairWriteLock extends TableStoreWriteLock implements LockMetrics {
+    private static final int SPINS = 1_000;
+    private static final int YIELDS = 100;
+    // the time a locker parks for each locker ahead of it, up to MAX_PARK_NS
+    private static final long PARK_NS = 20_000;
+    private static final long MAX_PARK_NS = 1_000_000;
+
+    private final Lane normal;
+    private final Lane high;
+    // 1 while the lock is held by a locker of the high priority lane
+    private final LongValue highHeld;
+    private final LongValue acquisitions;
+    private final LongValue totalWaitNanos;
+    private final LongValue maxWaitNanos;
+    // the lane and ticket the lock is held with, by a thread of this process
+    private Lane heldLane;
+    private long ticket;
+
+    public TableStoreFairWriteLock(final TableStore<?> tableStore, Supplier<TimingPauser> pauser, Long timeoutMs) {
+        this(tableStore, pauser, timeoutMs, LOCK_KEY);
+    }
+
+    public TableStoreFairWriteLock(final TableStore<?> tableStore, Supplier<TimingPauser> pauser, Long timeoutMs, final String lockKey) {
+        super(tableStore, pauser, timeoutMs, lockKey);
+        normal = new Lane(acquireValueFor(tableStore, lockKey + ".nextTicket"),
+                acquireValueFor(tableStore, lockKey + ".serving"));
+        high = new Lane(acquireValueFor(tableStore, lockKey + ".nextHighTicket"),
+                acquireValueFor(tableStore, lockKey + ".servingHigh"));
+        highHeld = acquireValueFor(tableStore, lockKey + ".highHeld");
+        acquisitions = acquireValueFor(tableStore, lockKey + ".acquisitions");
+        totalWaitNanos = acquireValueFor(tableStore, lockKey + ".totalWaitNanos");
+        maxWaitNanos = acquireValueFor(tableStore, lockKey + ".maxWaitNanos");
+    }
+
+    private static LongValue acquireValueFor(TableStore<?> tableStore, String key) {
+        return tableStore.doWithExclusiveLock(ts -> ts.acquireValueFor(key, 0));
+    }
+
+    @Override
+    public void lock() {
+        lock(WritePriority.NORMAL);
+    }
+
+    @Override
+    public void lock(WritePriority priority) {
+        throwExceptionIfClosed();
+
+        assert checkNotAlreadyLocked();
+
+        final long start = System.nanoTime();
+        final long timeoutNs = TimeUnit.MILLISECONDS.toNanos(timeout);
+        final Lane lane = priority == WritePriority.HIGH ? high : normal;
+        long ticket = lane.takeTicket();
+        long served = lane.served();
+        long progress = progress();
+        long progressSince = start;
+        for (int i = 0; ; i++) {
+            if (served == ticket) {
+                if (i > SPINS && Thread.interrupted()) {
+                    lane.serving.compareAndSwapValue(ticket, ticket + 1);
+                    throw new IllegalStateException("Interrupted for the lock file:" + path);
+                }
+                // the normal lane gives way to any waiting in the high priority lane
+                if ((lane == high || !high.waiting()) && lock.compareAndSwapValue(UNLOCKED, PID))
+                    break;
+            } else if (served > ticket) {
+                // skipped as it took too long to notice it was served
+                ticket = lane.takeTicket();
+            }
+            pause(i, ticket - served);
+
+            final long now = System.nanoTime();
+            served = lane.served();
+            final long nextProgress = progress();
+            if (nextProgress != progress) {
+                progress = nextProgress;
+                progressSince = now;
+                i = 0;
+            } else if (now - progressSince > timeoutNs) {
+                recover(lane, ticket);
+                progressSince = now;
+            }
+        }
+        if (lane == high)
+            highHeld.setOrderedValue(1);
+        this.heldLane = lane;
+        this.ticket = ticket;
+
+        final long waited = System.nanoTime() - start;
+        acquisitions.addAtomicValue(1);
+        totalWaitNanos.addAtomicValue(waited);
+        maxWaitNanos.setMaxValue(waited);
+
+        //noinspection ConstantConditions,AssertWithSideEffects
+        assert (lockedByThread = Thread.currentThread()) != null
+                && (lockedHere = new StackTrace()) != null;
+    }
+
+    // changes whenever either lane is served
+    private long progress() {
+        return normal.served() + high.served();
+    }
+
+    private static void pause(int iteration, long ahead) {
+        if (ahead <= 1 && iteration < SPINS)
+            Jvm.nanoPause();
+        else if (iteration < SPINS + YIELDS)
+            Thread.yield();
+        else
+            LockSupport.parkNanos(Math.min(MAX_PARK_NS, Math.max(1, ahead) * PARK_NS));
+    }
+
+    private void recover(Lane lane, long ticket) {
+        final long value = lock.getVolatileValue();
+        final Lane stuck = laneHoldingUp();
+        final long served = stuck.served();
+        final String warningMsg = "Couldn't acquire write lock " +
+                "after " + timeout + " ms " +
+                "for the lock file:" + path + ". " +
+                "Ticket " + served + (stuck == high ? " of the high priority lane" : "") + " was being served " +
+                "and lock was held by " + getLockedBy(value);
+        if (dontRecoverLockTimeout)
+            throw new UnrecoverableTimeoutException(new IllegalStateException(warningMsg));
+        warn().on(getClass(), warningMsg + ". Unlocking forcibly");
+        if (value != UNLOCKED)
+            forceUnlock(value);
+        if (stuck != lane || served != ticket)
+            stuck.skip(served);
+    }
+
+    // the lane of the locker holding the lock, or if it's not held, the lane to be served next
+    private Lane laneHoldingUp() {
+        if (lock.getVolatileValue() != UNLOCKED)
+            return highHeld.getVolatileValue() != 0 ? high : normal;
+        return high.waiting() ? high : normal;
+    }
+
+    @Override
+    public void unlock() {
+        final Lane lane = heldLane;
+        if (lane == high)
+            highHeld.setOrderedValue(0);
+        super.unlock();
+        heldLane = null;
+        // unless it was skipped meanwhile
+        if (lane != null)
+            lane.serving.compareAndSwapValue(ticket, ticket + 1);
+    }
+
+    /**
+     * Don't use this - for internal use only
+     */
+    @Override
+    public void forceUnlock() {
+        throwExceptionIfClosed();
+
+        final Lane lane = laneHoldingUp();
+        final long served = lane.served();
+        if (locked()) {
+            highHeld.setOrderedValue(0);
+            forceUnlock(lockedBy());
+            lane.skip(served);
+        }
+    }
+
+    @Override
+    public boolean forceUnlockIfProcessIsDead() {
+        final Lane lane = laneHoldingUp();
+        final long served = lane.served();
+        final boolean wasLocked = lockedBy() != UNLOCKED;
+        final boolean unlocked = super.forceUnlockIfProcessIsDead();
+        if (wasLocked && unlocked) {
+            highHeld.setOrderedValue(0);
+            lane.skip(served);
+        }
+        return unlocked;
+    }
+
+    @Override
+    public long acquisitions() {
+        return acquisitions.getVolatileValue();
+    }
+
+    @Override
+    public long totalWaitNanos() {
+        return totalWaitNanos.getVolatileValue();
+    }
+
+    @Override
+    public long maxWaitNanos() {
+        return maxWaitNanos.getVolatileValue();
+    }
+
+    @Override
+    public long queueLength() {
+        return normal.queueLength() + high.queueLength();
+    }
+
+    /**
+     * @return the number of lockers of {@link WritePriority#HIGH} priority waiting for the lock, or holding it
+     */
+    public long highPriorityQueueLength() {
+        return high.queueLength();
+    }
+
+    @Override
+    protected void performClose() {
+        super.performClose();
+        Closeable.closeQuietly(normal.nextTicket, normal.serving, high.nextTicket, high.serving,
+                highHeld, acquisitions, totalWaitNanos, maxWaitNanos);
+    }
+
+    /**
+     * The tickets of the lockers of one priority, and the ticket being served.
+     */
+    private static final class Lane {
+        final LongValue nextTicket;
+        final LongValue serving;
+
+        Lane(LongValue nextTicket, LongValue serving) {
+            this.nextTicket = nextTicket;
+            this.serving = serving;
+        }
+
+        long takeTicket() {
+            return nextTicket.addAtomicValue(1) - 1;
+        }
+
+        long served() {
+            return serving.getVolatileValue();
+        }
+
+        boolean waiting() {
+            return nextTicket.getVolatileValue() > serving.getVolatileValue();
+        }
+
+        long queueLength() {
+            return Math.max(0, nextTicket.getVolatileValue() - serving.getVolatileValue());
+        }
+
+        void skip(long served) {
+            serving.compareAndSwapValue(served, served + 1);
+        }
+    }
+}
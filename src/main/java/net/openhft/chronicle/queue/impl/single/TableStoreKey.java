@@ -0,0 +1,57 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.values.LongValue;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A value of a queue's table store, looked up once by {@link SingleChronicleQueue#tableStoreKey(CharSequence)} so each
+ * read or write is a single access to the file, e.g. for counters updated on every message, rather than the lookup of
+ * {@link SingleChronicleQueue#tableStoreGet(CharSequence)} and {@link SingleChronicleQueue#tableStorePut(CharSequence, long)}.
+ * <p>
+ * It may be used by any thread, until the queue is closed.
+ */
+public final class TableStoreKey {
+    private final String key;
+    private final LongValue value;
+
+    TableStoreKey(@NotNull String key, @NotNull LongValue value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    @NotNull
+    public String key() {
+        return key;
+    }
+
+    /**
+     * @return the value, or {@link Long#MIN_VALUE} if none has been put
+     */
+    public long get() {
+        return value.getVolatileValue();
+    }
+
+    /**
+     * Sets the value, as {@link SingleChronicleQueue#tableStorePut(CharSequence, long)} does, only increasing it unless it
+     * is {@link Long#MIN_VALUE}.
+     */
+    public void put(long value) {
+        if (value == Long.MIN_VALUE)
+            this.value.setVolatileValue(value);
+        else
+            this.value.setMaxValue(value);
+    }
+
+    /**
+     * Sets the value whether it is higher or lower.
+     */
+    public void set(long value) {
+        this.value.setOrderedValue(value);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return key + ": " + get();
+    }
+}
@@ -31,11 +31,11 @@ import java.util.function.Supplier;
 import static net.openhft.chronicle.core.Jvm.warn;
 
 public class TableStoreWriteLock extends AbstractTSQueueLock implements WriteLock {
-    private static final String LOCK_KEY = "chronicle.write.lock";
+    static final String LOCK_KEY = "chronicle.write.lock";
     public static final String APPEND_LOCK_KEY = "chronicle.append.lock";
-    private final long timeout;
-    private Thread lockedByThread = null;
-    private StackTrace lockedHere;
+    final long timeout;
+    Thread lockedByThread = null;
+    StackTrace lockedHere;
 
     public TableStoreWriteLock(final TableStore<?> tableStore, Supplier<TimingPauser> pauser, Long timeoutMs, final String lockKey) {
         super(lockKey, tableStore, pauser);
@@ -99,7 +99,7 @@ public class TableStoreWriteLock extends AbstractTSQueueLock implements WriteLoc
                         : Long.toString((int) value);
     }
 
-    private boolean checkNotAlreadyLocked() {
+    boolean checkNotAlreadyLocked() {
         if (!locked())
             return true;
         if (lockedByThread == null)
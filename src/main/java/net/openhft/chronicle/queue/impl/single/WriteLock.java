@@ -17,6 +17,8 @@
  */
 package net.openhft.chronicle.queue.impl.single;
 
+import net.openhft.chronicle.queue.WritePriority;
+
 import java.io.Closeable;
 
 public interface WriteLock extends Closeable {
@@ -42,6 +44,15 @@ public interface WriteLock extends Closeable {
      */
     void lock();
 
+    /**
+     * Locks ahead of lockers of a lower priority waiting for the lock, if this lock supports priorities.
+     *
+     * @param priority of the locker
+     */
+    default void lock(WritePriority priority) {
+        lock();
+    }
+
     /**
      * May not unlock. If it does not there will be a log.warn
      */
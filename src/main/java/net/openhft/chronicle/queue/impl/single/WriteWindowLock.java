@@ -0,0 +1,216 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.impl.single;
+
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import net.openhft.chronicle.bytes.MappedBytesStore;
+import net.openhft.chronicle.bytes.MappedFile;
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.ReferenceOwner;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps a window of a queue file around its write position locked in memory with {@code mlock}, so the pages just
+ * written and about to be written aren't reclaimed under memory pressure. A quarter of the window is behind the write
+ * position and the rest ahead of it.
+ * <p>
+ * The window is locked in segments, each through a byte store of the file reserved until it is unlocked, and moves
+ * with {@link #update(MappedFile, long)}, locking ahead and unlocking behind. Moving to another file unlocks all of the
+ * previous one.
+ * <p>
+ * Locking needs JNA on the class path, on Linux or macOS, and a large enough {@code RLIMIT_MEMLOCK}. Otherwise a
+ * warning is logged once and nothing is locked.
+ */
+final class WriteWindowLock extends AbstractCloseable {
+    private static final int MAX_SEGMENT_SIZE = 1 << 20;
+
+    private final long windowSize;
+    private final ReferenceOwner owner = ReferenceOwner.temporary("writeWindowLock");
+    // the locked segments by their position in the file
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    @Nullable
+    private MappedFile file;
+    private long segmentSize;
+    private boolean failed = false;
+    // read by other threads for monitoring
+    private volatile long lockedBytes = 0;
+
+    WriteWindowLock(long windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Moves the window to the write position of a file.
+     */
+    void update(@NotNull MappedFile file, long writePosition) {
+        throwExceptionIfClosed();
+        if (failed)
+            return;
+        if (file != this.file) {
+            unlockAll();
+            this.file = file;
+            this.segmentSize = segmentSize(file.chunkSize());
+        }
+        final long from = Math.max(0, writePosition - windowSize / 4) / segmentSize * segmentSize;
+        final long to = from + (windowSize + segmentSize - 1) / segmentSize * segmentSize;
+
+        for (Iterator<Map.Entry<Long, Segment>> it = segments.headMap(from).entrySet().iterator(); it.hasNext(); ) {
+            it.next().getValue().unlock();
+            it.remove();
+        }
+        for (long position = from; position < to; position += segmentSize) {
+            if (segments.containsKey(position))
+                continue;
+            final Segment segment = lock(file, position);
+            if (segment == null)
+                break;
+            segments.put(position, segment);
+        }
+        lockedBytes = segments.size() * segmentSize;
+    }
+
+    /**
+     * @return the number of bytes locked
+     */
+    long lockedBytes() {
+        return lockedBytes;
+    }
+
+    void unlockAll() {
+        for (Segment segment : segments.values())
+            segment.unlock();
+        segments.clear();
+        file = null;
+        lockedBytes = 0;
+    }
+
+    // the largest power of two up to 1 MB which chunks are a multiple of, so a segment is never split between chunks
+    static long segmentSize(long chunkSize) {
+        return Math.max(OS.pageSize(), Math.min(MAX_SEGMENT_SIZE, Long.lowestOneBit(chunkSize)));
+    }
+
+    @Nullable
+    private Segment lock(@NotNull MappedFile file, long position) {
+        final MappedBytesStore store;
+        try {
+            store = file.acquireByteStore(owner, position);
+        } catch (IOException e) {
+            Jvm.warn().on(getClass(), "Unable to map " + file.file() + " at " + position, e);
+            return null;
+        }
+        final long address = store.addressForRead(position);
+        final int error = MLock.lock(address, segmentSize);
+        if (error != 0) {
+            store.release(owner);
+            failed = true;
+            Jvm.warn().on(getClass(), "Unable to mlock the write window of " + file.file()
+                    + (error > 0 ? ", errno " + error + ", try raising the memlock limit" : ", JNA is not available")
+                    + ". The write window won't be locked");
+            return null;
+        }
+        return new Segment(store, address);
+    }
+
+    @Override
+    protected void performClose() {
+        unlockAll();
+    }
+
+    @Override
+    protected boolean threadSafetyCheck(boolean isUsed) {
+        // closed by whichever thread closes the pretoucher
+        return true;
+    }
+
+    private final class Segment {
+        private final MappedBytesStore store;
+        private final long address;
+
+        Segment(MappedBytesStore store, long address) {
+            this.store = store;
+            this.address = address;
+        }
+
+        void unlock() {
+            MLock.unlock(address, segmentSize);
+            store.release(owner);
+        }
+    }
+
+    /**
+     * Calls mlock and munlock if JNA is available, without loading it otherwise. Only {@link LibC} refers to JNA, so
+     * this class and WriteWindowLock load and run without it.
+     */
+    static final class MLock {
+        private static final boolean AVAILABLE = load();
+
+        private MLock() {
+        }
+
+        private static boolean load() {
+            if (!OS.isLinux() && !OS.isMacOSX())
+                return false;
+            try {
+                LibC.mlock(0, 0);
+                return true;
+            } catch (Throwable t) {
+                // NoClassDefFoundError without JNA, UnsatisfiedLinkError without the C library
+                Jvm.debug().on(WriteWindowLock.class, "Unable to load mlock", t);
+                return false;
+            }
+        }
+
+        /**
+         * @return 0 if locked, the errno if it failed or -1 if mlock isn't available
+         */
+        static int lock(long address, long length) {
+            if (!AVAILABLE)
+                return -1;
+            return LibC.mlock(address, length) == 0 ? 0 : Math.max(1, LibC.lastError());
+        }
+
+        static void unlock(long address, long length) {
+            if (AVAILABLE)
+                LibC.munlock(address, length);
+        }
+    }
+
+    // the only class which refers to JNA, first loaded by MLock.load()
+    private static final class LibC {
+        static {
+            Native.register(Platform.C_LIBRARY_NAME);
+        }
+
+        static native int mlock(long address, long length);
+
+        static native int munlock(long address, long length);
+
+        static int lastError() {
+            return Native.getLastError();
+        }
+    }
+}
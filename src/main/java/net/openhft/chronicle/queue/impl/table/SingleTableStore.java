@@ -17,6 +17,8 @@
  */
 package net.openhft.chronicle.queue.impl.table;
 
+import net.openhft.chronicle.bytes.Byteable;
+import net.openhft.chronicle.bytes.BytesStore;
 import net.openhft.chronicle.bytes.MappedBytes;
 import net.openhft.chronicle.bytes.MappedFile;
 import net.openhft.chronicle.core.Jvm;
@@ -32,6 +34,7 @@ import net.openhft.chronicle.queue.impl.TableStore;
 import net.openhft.chronicle.queue.impl.single.MetaDataField;
 import net.openhft.chronicle.wire.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.EOFException;
 import java.io.File;
@@ -41,11 +44,14 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static net.openhft.chronicle.core.io.Closeable.closeQuietly;
 import static net.openhft.chronicle.core.util.Time.sleep;
 
 public class SingleTableStore<T extends Metadata> extends AbstractCloseable implements TableStore<T> {
@@ -62,6 +68,14 @@ public class SingleTableStore<T extends Metadata> extends AbstractCloseable impl
     private final MappedFile mappedFile;
     @NotNull
     private final Wire mappedWire;
+    // an open addressed index of the entries in the file, replaced when it grows so it can be read without locking
+    private volatile Entry[] entries = new Entry[16];
+    // the rest are guarded by this
+    private int entryCount = 0;
+    // the position up to which entries have been indexed
+    private long indexedTo = 0;
+    // the chunks the indexed values are in, kept mapped while this is open
+    private final List<BytesStore> reservedStores = new ArrayList<>();
 
     /**
      * used by {@link Demarshallable}
@@ -185,6 +199,11 @@ public class SingleTableStore<T extends Metadata> extends AbstractCloseable impl
 
     @Override
     protected void performClose() {
+        synchronized (this) {
+            for (BytesStore store : reservedStores)
+                store.release(this);
+            reservedStores.clear();
+        }
         mappedBytes.releaseLast();
     }
 
@@ -230,17 +249,33 @@ public class SingleTableStore<T extends Metadata> extends AbstractCloseable impl
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Keys already in the index are found without locking. Otherwise the entries added to the file since it was last
+     * indexed, by this or another process, are indexed before the key is added.
      */
     @Override
-    public synchronized LongValue acquireValueFor(CharSequence key, final long defaultValue) { // TODO Change to ThreadLocal values if performance is a problem.
+    public LongValue acquireValueFor(CharSequence key, final long defaultValue) {
 
         if (mappedBytes.isClosed())
             throw new ClosedIllegalStateException("Closed");
 
+        final int hash = hash(key);
+        Entry entry = find(entries, key, hash);
+        if (entry == null)
+            entry = addEntry(key, hash, defaultValue);
+        return entry.newValue(wireType);
+    }
+
+    private synchronized Entry addEntry(CharSequence key, int hash, final long defaultValue) {
+        // another thread may have added it since it wasn't found
+        final Entry existing = find(entries, key, hash);
+        if (existing != null)
+            return existing;
+
         final StringBuilder sb = Wires.acquireStringBuilder();
         mappedBytes.reserve(this);
         try {
-            mappedBytes.readPosition(0);
+            mappedBytes.readPosition(indexedTo);
             mappedBytes.readLimit(mappedBytes.realCapacity());
             while (mappedWire.readDataHeader()) {
                 final int header = mappedBytes.readVolatileInt();
@@ -249,10 +284,12 @@ public class SingleTableStore<T extends Metadata> extends AbstractCloseable impl
                 final long readPosition = mappedBytes.readPosition();
                 final int length = Wires.lengthOf(header);
                 final ValueIn valueIn = mappedWire.readEventName(sb);
-                if (StringUtils.equalsCaseIgnore(key, sb)) {
-                    return valueIn.int64ForBinding(null);
-                }
-                mappedBytes.readPosition(readPosition + length);
+                final LongValue value = valueIn.int64ForBinding(null);
+                indexedTo = readPosition + length;
+                mappedBytes.readPosition(indexedTo);
+                final Entry entry = index(sb, value);
+                if (StringUtils.equalsCaseIgnore(key, sb))
+                    return entry;
             }
             // not found
             final int safeLength = Maths.toUInt31(mappedBytes.realCapacity() - mappedBytes.readPosition());
@@ -270,7 +307,8 @@ public class SingleTableStore<T extends Metadata> extends AbstractCloseable impl
             long endOfChunk = (start + chuckSize - 1) / chuckSize * chuckSize;
             if (end >= endOfChunk + overlapSize)
                 throw new IllegalStateException("Misaligned write");
-            return longValue;
+            indexedTo = end;
+            return index(key, longValue);
 
         } catch (StreamCorruptedException | EOFException e) {
             throw new IORuntimeException(e);
@@ -280,29 +318,95 @@ public class SingleTableStore<T extends Metadata> extends AbstractCloseable impl
         }
     }
 
+    // called while synchronized, takes ownership of the value
+    private Entry index(CharSequence key, LongValue value) {
+        final int hash = hash(key);
+        // the first of duplicate keys, written by processes not holding the file lock, is used
+        final Entry existing = find(entries, key, hash);
+        if (existing != null) {
+            closeQuietly(value);
+            return existing;
+        }
+        final Byteable byteable = (Byteable) value;
+        final BytesStore store = byteable.bytesStore();
+        if (reservedStores.stream().noneMatch(s -> s == store)) {
+            store.reserve(this);
+            reservedStores.add(store);
+        }
+        final Entry entry = new Entry(key.toString(), hash, store, byteable.offset());
+        closeQuietly(value);
+
+        // keep the table at most half full so a probe always reaches an empty slot
+        if ((entryCount + 1) * 2 > entries.length) {
+            final Entry[] resized = new Entry[entries.length * 2];
+            for (Entry e : entries)
+                if (e != null)
+                    put(resized, e);
+            put(resized, entry);
+            entries = resized;
+        } else {
+            put(entries, entry);
+        }
+        entryCount++;
+        return entry;
+    }
+
+    @Nullable
+    private static Entry find(Entry[] entries, CharSequence key, int hash) {
+        final int mask = entries.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            final Entry entry = entries[i];
+            if (entry == null || (entry.hash == hash && StringUtils.equalsCaseIgnore(entry.key, key)))
+                return entry;
+        }
+    }
+
+    private static void put(Entry[] entries, Entry entry) {
+        final int mask = entries.length - 1;
+        int i = entry.hash & mask;
+        while (entries[i] != null)
+            i = (i + 1) & mask;
+        entries[i] = entry;
+    }
+
+    // consistent with StringUtils.equalsCaseIgnore
+    static int hash(CharSequence key) {
+        int h = 0;
+        for (int i = 0; i < key.length(); i++)
+            h = h * 31 + Character.toLowerCase(key.charAt(i));
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Iterates over the keys with its own bytes, so it doesn't block or get blocked by
+     * {@link #acquireValueFor(CharSequence, long)}.
+     */
     @Override
-    public synchronized <T> void forEachKey(T accumulator, TableStoreIterator<T> tsIterator) {
+    public <T> void forEachKey(T accumulator, TableStoreIterator<T> tsIterator) {
+        throwExceptionIfClosed();
+
         final StringBuilder sb = Wires.acquireStringBuilder();
-        mappedBytes.reserve(this);
+        final MappedBytes bytes = MappedBytes.mappedBytes(mappedFile);
         try {
-            mappedBytes.readPosition(0);
-            mappedBytes.readLimit(mappedBytes.realCapacity());
-            while (mappedWire.readDataHeader()) {
-                final int header = mappedBytes.readVolatileInt();
+            final Wire wire = wireType.apply(bytes);
+            bytes.readPosition(0);
+            bytes.readLimit(bytes.realCapacity());
+            while (wire.readDataHeader()) {
+                final int header = bytes.readVolatileInt();
                 if (Wires.isNotComplete(header))
                     break;
-                final long readPosition = mappedBytes.readPosition();
+                final long readPosition = bytes.readPosition();
                 final int length = Wires.lengthOf(header);
-                final ValueIn valueIn = mappedWire.readEventName(sb);
+                final ValueIn valueIn = wire.readEventName(sb);
                 tsIterator.accept(accumulator, sb, valueIn);
-                mappedBytes.readPosition(readPosition + length);
+                bytes.readPosition(readPosition + length);
             }
 
         } catch (EOFException e) {
             throw new IORuntimeException(e);
 
         } finally {
-            mappedBytes.release(this);
+            bytes.releaseLast();
         }
     }
 
@@ -325,4 +429,23 @@ public class SingleTableStore<T extends Metadata> extends AbstractCloseable impl
         return true;
     }
 
-}
\ No newline at end of file
+    private static final class Entry {
+        final String key;
+        final int hash;
+        final BytesStore store;
+        final long offset;
+
+        Entry(String key, int hash, BytesStore store, long offset) {
+            this.key = key;
+            this.hash = hash;
+            this.store = store;
+            this.offset = offset;
+        }
+
+        LongValue newValue(WireType wireType) {
+            final LongValue value = wireType.newLongReference().get();
+            ((Byteable) value).bytesStore(store, offset, Long.BYTES);
+            return value;
+        }
+    }
+}
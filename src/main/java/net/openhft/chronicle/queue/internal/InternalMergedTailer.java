@@ -0,0 +1,206 @@
+package net.openhft.chronicle.queue.internal;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.util.StringUtils;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.MergedTailer;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.NoDocumentContext;
+import net.openhft.chronicle.wire.ValueIn;
+import net.openhft.chronicle.wire.VanillaMessageHistory;
+import org.jetbrains.annotations.NotNull;
+
+public final class InternalMergedTailer implements MergedTailer {
+    private static final String HISTORY = "history";
+
+    @NotNull
+    private final KeyFunction keyFunction;
+    @NotNull
+    private final ExcerptTailer[] tailers;
+    // whether the tailers were created for this and are closed with it
+    private final boolean ownsTailers;
+    // the peeked key of each input, valid while the input is in the heap
+    private final long[] keys;
+    // min-heap of input positions ordered by (key, input)
+    private final int[] heap;
+    private final boolean[] inHeap;
+    private int size;
+    private int lastInput = -1;
+    private long lastKey = Long.MIN_VALUE;
+
+    public InternalMergedTailer(@NotNull KeyFunction keyFunction, @NotNull ExcerptTailer... tailers) {
+        this(keyFunction, false, tailers);
+    }
+
+    public InternalMergedTailer(@NotNull KeyFunction keyFunction, boolean ownsTailers, @NotNull ExcerptTailer... tailers) {
+        if (tailers.length == 0)
+            throw new IllegalArgumentException("At least one tailer is required");
+        this.keyFunction = keyFunction;
+        this.tailers = tailers.clone();
+        this.ownsTailers = ownsTailers;
+        this.keys = new long[tailers.length];
+        this.heap = new int[tailers.length];
+        this.inHeap = new boolean[tailers.length];
+    }
+
+    @NotNull
+    public static KeyFunction messageHistoryTiming() {
+        final VanillaMessageHistory history = new VanillaMessageHistory();
+        final StringBuilder eventName = new StringBuilder();
+        return (wire, index) -> {
+            final ValueIn in = wire.readEventName(eventName);
+            if (!StringUtils.isEqual(eventName, HISTORY))
+                return Long.MIN_VALUE;
+            history.reset();
+            in.marshallable(history);
+            return history.timings() > 0 ? history.timing(0) : Long.MIN_VALUE;
+        };
+    }
+
+    @NotNull
+    @Override
+    public DocumentContext readingDocument() {
+        // the input last read from has moved on (or been rolled back), either way peek it again
+        for (int i = 0; i < tailers.length; i++)
+            if (!inHeap[i])
+                peek(i);
+
+        if (size == 0)
+            return NoDocumentContext.INSTANCE;
+
+        final int input = poll();
+        lastInput = input;
+        lastKey = keys[input];
+        return tailers[input].readingDocument();
+    }
+
+    @Override
+    public boolean peekDocument() {
+        for (int i = 0; i < tailers.length; i++)
+            if (!inHeap[i])
+                peek(i);
+        return size > 0;
+    }
+
+    @Override
+    public int inputs() {
+        return tailers.length;
+    }
+
+    @NotNull
+    @Override
+    public ExcerptTailer tailer(int input) {
+        return tailers[input];
+    }
+
+    @Override
+    public int lastInput() {
+        return lastInput;
+    }
+
+    @Override
+    public long lastKey() {
+        return lastKey;
+    }
+
+    @NotNull
+    @Override
+    public long[] indices(@NotNull long[] indices) {
+        for (int i = 0; i < tailers.length; i++)
+            indices[i] = tailers[i].index();
+        return indices;
+    }
+
+    @Override
+    public boolean moveToIndices(@NotNull long... indices) {
+        if (indices.length != tailers.length)
+            throw new IllegalArgumentException("Expected " + tailers.length + " indices but got " + indices.length);
+        clear();
+        boolean moved = true;
+        for (int i = 0; i < tailers.length; i++)
+            moved &= tailers[i].moveToIndex(indices[i]);
+        return moved;
+    }
+
+    @NotNull
+    @Override
+    public MergedTailer toStart() {
+        clear();
+        for (ExcerptTailer tailer : tailers)
+            tailer.toStart();
+        return this;
+    }
+
+    private void clear() {
+        size = 0;
+        lastInput = -1;
+        lastKey = Long.MIN_VALUE;
+        for (int i = 0; i < inHeap.length; i++)
+            inHeap[i] = false;
+    }
+
+    private void peek(int input) {
+        try (DocumentContext dc = tailers[input].readingDocument()) {
+            if (!dc.isPresent())
+                return;
+            keys[input] = keyFunction.key(dc.wire(), dc.index());
+            dc.rollbackOnClose();
+        }
+        offer(input);
+    }
+
+    private void offer(int input) {
+        inHeap[input] = true;
+        int pos = size++;
+        while (pos > 0) {
+            final int parent = (pos - 1) >>> 1;
+            if (!less(input, heap[parent]))
+                break;
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = input;
+    }
+
+    private int poll() {
+        final int top = heap[0];
+        inHeap[top] = false;
+        final int last = heap[--size];
+        int pos = 0;
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && less(heap[child + 1], heap[child]))
+                child++;
+            if (!less(heap[child], last))
+                break;
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        if (size > 0)
+            heap[pos] = last;
+        return top;
+    }
+
+    private boolean less(int a, int b) {
+        final long ka = keys[a];
+        final long kb = keys[b];
+        return ka < kb || (ka == kb && a < b);
+    }
+
+    @Override
+    public void close() {
+        if (ownsTailers)
+            Closeable.closeQuietly((Object[]) tailers);
+    }
+
+    @Override
+    public String toString() {
+        return "InternalMergedTailer{" +
+                "inputs=" + tailers.length +
+                ", lastInput=" + lastInput +
+                ", lastKey=" + lastKey +
+                '}';
+    }
+}
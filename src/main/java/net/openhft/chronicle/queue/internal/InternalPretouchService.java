@@ -0,0 +1,87 @@
+package net.openhft.chronicle.queue.internal;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.impl.single.Pretoucher;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.util.PretouchMetrics;
+import net.openhft.chronicle.queue.util.PretouchService;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public final class InternalPretouchService extends AbstractCloseable implements PretouchService {
+    private final List<Pretoucher> pretouchers = new CopyOnWriteArrayList<>();
+    private final long intervalMS;
+    private long nextRunMS = 0;
+
+    public InternalPretouchService(long intervalMS) {
+        this.intervalMS = intervalMS;
+    }
+
+    @NotNull
+    @Override
+    public PretouchMetrics add(@NotNull SingleChronicleQueue queue) {
+        throwExceptionIfClosed();
+        final Pretoucher pretoucher = new Pretoucher(queue);
+        pretouchers.add(pretoucher);
+        return pretoucher;
+    }
+
+    @NotNull
+    @Override
+    public List<PretouchMetrics> metrics() {
+        return new ArrayList<>(pretouchers);
+    }
+
+    @Override
+    public boolean action() throws InvalidEventHandlerException {
+        if (isClosing())
+            throw InvalidEventHandlerException.reusable();
+        long now = System.currentTimeMillis();
+        // don't check too often.
+        if (now < nextRunMS)
+            return false;
+        nextRunMS = now + intervalMS;
+
+        for (Pretoucher pretoucher : pretouchers) {
+            try {
+                pretoucher.execute();
+            } catch (InvalidEventHandlerException e) {
+                // the queue was closed
+                pretouchers.remove(pretoucher);
+                pretoucher.close();
+            } catch (RuntimeException e) {
+                if (pretoucher.isClosing()) {
+                    pretouchers.remove(pretoucher);
+                } else {
+                    Jvm.warn().on(getClass(), "Failed to pretouch " + pretoucher.queuePath(), e);
+                }
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MONITOR;
+    }
+
+    @Override
+    protected void performClose() {
+        for (Pretoucher pretoucher : pretouchers)
+            pretoucher.close();
+        pretouchers.clear();
+    }
+
+    @Override
+    protected boolean threadSafetyCheck(boolean isUsed) {
+        // added to from any thread, and run by an event loop
+        return true;
+    }
+}
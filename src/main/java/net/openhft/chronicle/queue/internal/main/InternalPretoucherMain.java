@@ -0,0 +1,148 @@
+package net.openhft.chronicle.queue.internal.main;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.queue.util.PretouchMetrics;
+import net.openhft.chronicle.queue.util.PretouchService;
+import net.openhft.chronicle.queue.util.PretouchUtil;
+import org.apache.commons.cli.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static net.openhft.chronicle.queue.internal.main.InternalReaderMain.addOption;
+
+/**
+ * Pretouches the files of one or more queues from a separate process, reporting the metrics of each queue
+ * periodically, until the process is stopped.
+ */
+public final class InternalPretoucherMain {
+    static {
+        SingleChronicleQueueBuilder.addAliases();
+    }
+
+    private static volatile boolean running = true;
+
+    public static void main(@NotNull String[] args) {
+        final Options options = options();
+        final CommandLine commandLine = parseCommandLine(args, options);
+        final long intervalMS = commandLine.hasOption('i') ? Long.parseLong(commandLine.getOptionValue('i')) : 100;
+        final long reportIntervalMS = commandLine.hasOption('r') ? Long.parseLong(commandLine.getOptionValue('r')) * 1000 : 10_000;
+        final List<File> dirs = new ArrayList<>();
+        for (String dir : commandLine.getOptionValues('d'))
+            dirs.add(new File(dir));
+
+        final Thread main = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            running = false;
+            try {
+                main.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "pretoucher-shutdown"));
+        pretouch(dirs, intervalMS, reportIntervalMS, System.out, () -> running);
+    }
+
+    /**
+     * Pretouches the queues in {@code dirs} on this thread while {@code running}.
+     *
+     * @param dirs             the queue directories
+     * @param intervalMS       how often to pretouch each queue
+     * @param reportIntervalMS how often to report the metrics of each queue
+     * @param out              to report to
+     * @param running          checked before each pretouch
+     */
+    public static void pretouch(@NotNull List<File> dirs, long intervalMS, long reportIntervalMS,
+                                @NotNull PrintStream out, @NotNull BooleanSupplier running) {
+        final List<SingleChronicleQueue> queues = new ArrayList<>();
+        final PretouchService service = PretouchUtil.createService(intervalMS);
+        try {
+            for (File dir : dirs) {
+                if (!dir.isDirectory())
+                    throw new IllegalArgumentException("Path argument must be a queue directory " + dir);
+                final SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir).build();
+                queues.add(queue);
+                service.add(queue);
+            }
+
+            long nextReportMS = System.currentTimeMillis() + reportIntervalMS;
+            while (running.getAsBoolean() && !Thread.currentThread().isInterrupted()) {
+                service.action();
+                if (System.currentTimeMillis() >= nextReportMS) {
+                    report(service.metrics(), out);
+                    nextReportMS += reportIntervalMS;
+                }
+                Jvm.pause(Math.max(1, Math.min(intervalMS, 100)));
+            }
+            report(service.metrics(), out);
+        } catch (InvalidEventHandlerException e) {
+            // closed
+        } finally {
+            Closeable.closeQuietly(service);
+            Closeable.closeQuietly(queues);
+        }
+    }
+
+    static void report(@NotNull List<PretouchMetrics> metrics, @NotNull PrintStream out) {
+        for (PretouchMetrics m : metrics)
+            out.println(m.queuePath()
+                    + " pagesTouched: " + m.pagesTouched()
+                    + ", pagesResident: " + m.pagesResident()
+                    + ", headRoom: " + (m.headRoom() >> 10) + " KB"
+                    + ", minHeadRoom: " + (m.minHeadRoom() >> 10) + " KB"
+                    + ", minHeadRoomIncreases: " + m.minHeadRoomIncreases());
+    }
+
+    @NotNull
+    private static CommandLine parseCommandLine(@NotNull String[] args, @NotNull Options options) {
+        try {
+            final CommandLine commandLine = new DefaultParser().parse(options, args);
+            if (commandLine.hasOption('h'))
+                printHelpAndExit(options, 0);
+            if (!commandLine.hasOption('d')) {
+                System.out.println("Please specify at least one directory with -d\n");
+                printHelpAndExit(options, 1);
+            }
+            return commandLine;
+        } catch (ParseException e) {
+            printHelpAndExit(options, 1);
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void printHelpAndExit(@NotNull Options options, int status) {
+        final PrintWriter writer = new PrintWriter(System.out);
+        new HelpFormatter().printHelp(
+                writer,
+                180,
+                InternalPretoucherMain.class.getSimpleName(),
+                null,
+                options,
+                HelpFormatter.DEFAULT_LEFT_PAD,
+                HelpFormatter.DEFAULT_DESC_PAD,
+                null,
+                true
+        );
+        writer.flush();
+        System.exit(status);
+    }
+
+    @NotNull
+    private static Options options() {
+        final Options options = new Options();
+        addOption(options, "d", "directory", true, "Directory containing chronicle queue files, may be given more than once", false);
+        addOption(options, "i", "interval", true, "How often to pretouch each queue in milliseconds, defaults to 100", false);
+        addOption(options, "r", "report", true, "How often to report the metrics of each queue in seconds, defaults to 10", false);
+        addOption(options, "h", "help-message", false, "Print this help and exit", false);
+        return options;
+    }
+}
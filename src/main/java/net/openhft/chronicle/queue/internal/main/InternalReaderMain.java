@@ -117,6 +117,9 @@ public class InternalReaderMain {
         if (commandLine.hasOption('e')) {
             stream(commandLine.getOptionValues('e')).forEach(chronicleReader::withExclusionRegex);
         }
+        if (commandLine.hasOption('b')) {
+            stream(commandLine.getOptionValues('b')).forEach(chronicleReader::withBinarySearch);
+        }
         if (commandLine.hasOption('f')) {
             chronicleReader.tail();
         }
@@ -136,6 +139,15 @@ public class InternalReaderMain {
         if (commandLine.hasOption('s')) {
             chronicleReader.suppressDisplayIndex();
         }
+        if (commandLine.hasOption('p')) {
+            chronicleReader.withFields(commandLine.getOptionValue('p'));
+        }
+        if (commandLine.hasOption('o')) {
+            chronicleReader.withColumnarOutput(Paths.get(commandLine.getOptionValue('o')));
+        }
+        if (commandLine.hasOption('t')) {
+            chronicleReader.withThreads(Integer.parseInt(commandLine.getOptionValue('t')));
+        }
     }
 
     @NotNull
@@ -145,6 +157,7 @@ public class InternalReaderMain {
         addOption(options, "d", "directory", true, "Directory containing chronicle queue files", false);
         addOption(options, "i", "include-regex", true, "Display records containing this regular expression", false);
         addOption(options, "e", "exclude-regex", true, "Do not display records containing this regular expression", false);
+        addOption(options, "b", "binary-search", true, "Only decode records whose bytes contain this text", false);
         addOption(options, "f", "follow", false, "Tail behaviour - wait for new records to arrive", false);
         addOption(options, "m", "max-history", true, "Show this many records from the end of the data set", false);
         addOption(options, "n", "from-index", true, "Start reading from this index (e.g. 0x123ABE)", false);
@@ -152,6 +165,9 @@ public class InternalReaderMain {
         addOption(options, "w", "wire-type", true, "Control output i.e. JSON", false);
         addOption(options, "s", "suppress-index", false, "Display index", false);
         addOption(options, "l", "single-line", false, "Squash each output message into a single line", false);
+        addOption(options, "p", "fields", true, "Only write these fields as CSV, e.g. time:long,symbol,price:double", false);
+        addOption(options, "o", "columnar-output", true, "Write the fields to this file as columns of primitives", false);
+        addOption(options, "t", "threads", true, "Decode and filter records with this many threads, unless following", false);
         addOption(options, "h", "help-message", false, "Print this help and exit", false);
         return options;
     }
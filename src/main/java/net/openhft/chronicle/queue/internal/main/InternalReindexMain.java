@@ -0,0 +1,152 @@
+package net.openhft.chronicle.queue.internal.main;
+
+import net.openhft.chronicle.queue.impl.single.IndexCheck;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueStore;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.threads.Threads;
+import org.apache.commons.cli.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static net.openhft.chronicle.queue.internal.main.InternalReaderMain.addOption;
+
+/**
+ * Checks, and optionally repairs, the index of every cycle of a queue by walking the headers of each file. Each cycle
+ * is checked by one of a pool of threads.
+ */
+public final class InternalReindexMain {
+    static {
+        SingleChronicleQueueBuilder.addAliases();
+    }
+
+    public static void main(@NotNull String[] args) {
+        final Options options = options();
+        final CommandLine commandLine = parseCommandLine(args, options);
+        final int threads = commandLine.hasOption('t')
+                ? Integer.parseInt(commandLine.getOptionValue('t'))
+                : Runtime.getRuntime().availableProcessors();
+
+        final List<IndexCheck> checks = reindex(new File(commandLine.getOptionValue('d')), commandLine.hasOption('r'), threads, System.out);
+        if (!checks.stream().allMatch(IndexCheck::ok))
+            System.exit(2);
+    }
+
+    /**
+     * Checks the index of every cycle in {@code dir}.
+     *
+     * @param dir     the queue directory
+     * @param repair  whether to write the missing or wrong index entries
+     * @param threads the number of cycles to check at once
+     * @param out     to report each cycle, and its mismatches, to
+     * @return the result for each cycle, in cycle order
+     */
+    @NotNull
+    public static List<IndexCheck> reindex(@NotNull File dir, boolean repair, int threads, @NotNull PrintStream out) {
+        if (!dir.isDirectory())
+            throw new IllegalArgumentException("Path argument must be a queue directory " + dir);
+
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir).readOnly(!repair).build()) {
+            final NavigableSet<Long> cycles = queue.firstCycle() > queue.lastCycle()
+                    ? new TreeSet<>()
+                    : queue.listCyclesBetween(queue.firstCycle(), queue.lastCycle());
+
+            final ExecutorService service = Executors.newFixedThreadPool(Math.max(1, threads), new NamedThreadFactory("reindex", true));
+            try {
+                final List<Future<IndexCheck>> futures = new ArrayList<>();
+                for (Long cycle : cycles)
+                    futures.add(service.submit(() -> checkIndex(queue, cycle.intValue(), repair)));
+
+                final List<IndexCheck> checks = new ArrayList<>();
+                for (Future<IndexCheck> future : futures) {
+                    final IndexCheck check = future.get();
+                    report(check, out);
+                    checks.add(check);
+                }
+                return checks;
+            } finally {
+                Threads.shutdown(service);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException | java.text.ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @NotNull
+    private static IndexCheck checkIndex(@NotNull SingleChronicleQueue queue, int cycle, boolean repair) throws StreamCorruptedException {
+        try (SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null)) {
+            if (store == null)
+                throw new IllegalStateException("No file for cycle " + cycle);
+            return store.checkIndex(queue.wireType(), repair);
+        }
+    }
+
+    private static void report(@NotNull IndexCheck check, @NotNull PrintStream out) {
+        out.println(check);
+        for (String mismatch : check.mismatches())
+            out.println("\t" + mismatch);
+        final long unreported = check.missing() + check.wrong() + check.unindexable() - check.mismatches().size();
+        if (unreported > 0)
+            out.println("\t... and " + unreported + " more");
+    }
+
+    @NotNull
+    private static CommandLine parseCommandLine(@NotNull String[] args, @NotNull Options options) {
+        try {
+            final CommandLine commandLine = new DefaultParser().parse(options, args);
+            if (commandLine.hasOption('h'))
+                printHelpAndExit(options, 0);
+            if (!commandLine.hasOption('d')) {
+                System.out.println("Please specify the directory with -d\n");
+                printHelpAndExit(options, 1);
+            }
+            return commandLine;
+        } catch (ParseException e) {
+            printHelpAndExit(options, 1);
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void printHelpAndExit(@NotNull Options options, int status) {
+        final PrintWriter writer = new PrintWriter(System.out);
+        new HelpFormatter().printHelp(
+                writer,
+                180,
+                InternalReindexMain.class.getSimpleName(),
+                null,
+                options,
+                HelpFormatter.DEFAULT_LEFT_PAD,
+                HelpFormatter.DEFAULT_DESC_PAD,
+                null,
+                true
+        );
+        writer.flush();
+        System.exit(status);
+    }
+
+    @NotNull
+    private static Options options() {
+        final Options options = new Options();
+        addOption(options, "d", "directory", true, "Directory containing chronicle queue files", false);
+        addOption(options, "r", "repair", false, "Write the missing or wrong index entries, nothing may append to the queue while this runs", false);
+        addOption(options, "t", "threads", true, "The number of cycles to check at once, defaults to the number of processors", false);
+        addOption(options, "h", "help-message", false, "Print this help and exit", false);
+        return options;
+    }
+}
@@ -0,0 +1,311 @@
+package net.openhft.chronicle.queue.internal.main;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.io.IOTools;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueStore;
+import net.openhft.chronicle.threads.NamedThreadFactory;
+import net.openhft.chronicle.threads.Threads;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.Wire;
+import org.apache.commons.cli.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static net.openhft.chronicle.queue.internal.main.InternalReaderMain.addOption;
+
+/**
+ * Rewrites the cycles of a queue into a new queue with a coarser roll cycle. The excerpts of each target cycle are
+ * written by one of a pool of threads into a queue of their own, and its file moved into the target once complete.
+ * <p>
+ * The target records where each source cycle starts, under {@code reroll.<source cycle>} in its metadata, so an index
+ * of the source maps to the index of its first excerpt's cycle in the target plus its sequence number. The positions
+ * of named tailers are translated as they are copied.
+ */
+public final class InternalRerollMain {
+    public static final String REROLL_PREFIX = "reroll.";
+    private static final String NAMED_TAILER_PREFIX = "index.";
+
+    static {
+        SingleChronicleQueueBuilder.addAliases();
+    }
+
+    public static void main(@NotNull String[] args) {
+        final Options options = options();
+        final CommandLine commandLine = parseCommandLine(args, options);
+        final RollCycle rollCycle = RollCycles.valueOf(commandLine.getOptionValue('r'));
+        final int threads = commandLine.hasOption('t')
+                ? Integer.parseInt(commandLine.getOptionValue('t'))
+                : Runtime.getRuntime().availableProcessors();
+        final int fromCycle = commandLine.hasOption('f') ? Integer.parseInt(commandLine.getOptionValue('f')) : Integer.MIN_VALUE;
+        final int toCycle = commandLine.hasOption('l') ? Integer.parseInt(commandLine.getOptionValue('l')) : Integer.MAX_VALUE;
+
+        reroll(new File(commandLine.getOptionValue('s')), new File(commandLine.getOptionValue('d')),
+                rollCycle, fromCycle, toCycle, threads, System.out);
+    }
+
+    /**
+     * Rewrites the cycles from {@code fromCycle} to {@code toCycle} inclusive of the queue in {@code source} into a new
+     * queue in {@code target} which rolls every {@code rollCycle}. Nothing may append to either queue while this runs.
+     *
+     * @param source    the queue directory to read
+     * @param target    the queue directory to create, which mustn't contain any cycles
+     * @param rollCycle of the target, a multiple of the length of the source's
+     * @param fromCycle the first source cycle to rewrite
+     * @param toCycle   the last source cycle to rewrite
+     * @param threads   the number of target cycles to write at once
+     * @param out       to report each target cycle to
+     * @return the index in the target of the first excerpt of each source cycle rewritten, by source cycle
+     */
+    @NotNull
+    public static NavigableMap<Integer, Long> reroll(@NotNull File source, @NotNull File target, @NotNull RollCycle rollCycle,
+                                                     int fromCycle, int toCycle, int threads, @NotNull PrintStream out) {
+        if (!source.isDirectory())
+            throw new IllegalArgumentException("Source must be a queue directory " + source);
+        final File[] existing = target.listFiles((dir, name) -> name.endsWith(SingleChronicleQueue.SUFFIX));
+        if (existing != null && existing.length > 0)
+            throw new IllegalArgumentException("Target already contains cycles " + target);
+
+        try (SingleChronicleQueue sourceQueue = SingleChronicleQueueBuilder.binary(source).readOnly(true).build()) {
+            final RollCycle sourceRollCycle = sourceQueue.rollCycle();
+            if (rollCycle.lengthInMillis() % sourceRollCycle.lengthInMillis() != 0)
+                throw new IllegalArgumentException("The length of " + rollCycle + " must be a multiple of the length of " + sourceRollCycle);
+
+            // each source cycle falls within one target cycle as both queues share an epoch
+            final NavigableMap<Integer, List<Integer>> targetCycles = new TreeMap<>();
+            if (sourceQueue.firstCycle() <= sourceQueue.lastCycle()) {
+                for (Long cycle : sourceQueue.listCyclesBetween(Math.max(fromCycle, sourceQueue.firstCycle()), Math.min(toCycle, sourceQueue.lastCycle())))
+                    targetCycles.computeIfAbsent(targetCycle(cycle.intValue(), sourceRollCycle, rollCycle), c -> new ArrayList<>())
+                            .add(cycle.intValue());
+            }
+
+            final File workDir = new File(target, ".reroll");
+            final NavigableMap<Integer, Long> firstIndexes = new TreeMap<>();
+            final ExecutorService service = Executors.newFixedThreadPool(Math.max(1, threads), new NamedThreadFactory("reroll", true));
+            try {
+                final List<Future<CycleResult>> futures = new ArrayList<>();
+                for (Map.Entry<Integer, List<Integer>> entry : targetCycles.entrySet())
+                    futures.add(service.submit(() -> writeCycle(sourceQueue, entry.getValue(), target,
+                            new File(workDir, entry.getKey().toString()), rollCycle, entry.getKey())));
+                for (Future<CycleResult> future : futures) {
+                    final CycleResult result = future.get();
+                    out.println(result.report);
+                    firstIndexes.putAll(result.firstIndexes);
+                }
+            } finally {
+                Threads.shutdown(service);
+                IOTools.deleteDirWithFiles(workDir, 2);
+            }
+
+            try (SingleChronicleQueue targetQueue = SingleChronicleQueueBuilder.binary(target)
+                    .rollCycle(rollCycle)
+                    .epoch(sourceQueue.epoch())
+                    .blockSize(sourceQueue.blockSize())
+                    .build()) {
+                targetQueue.refreshDirectoryListing();
+                for (Map.Entry<Integer, Long> entry : firstIndexes.entrySet())
+                    setValue(targetQueue, REROLL_PREFIX + entry.getKey(), entry.getValue());
+                translateNamedTailers(sourceQueue, targetQueue, firstIndexes, fromCycle, toCycle);
+            }
+            return firstIndexes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException | java.text.ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Translates an index of the source queue to the index of the same excerpt in a queue rewritten from it.
+     *
+     * @param targetQueue     the rewritten queue
+     * @param sourceRollCycle the roll cycle of the source queue
+     * @param index           in the source queue
+     * @return the index in the target, or -1 if its cycle wasn't rewritten
+     */
+    public static long translate(@NotNull SingleChronicleQueue targetQueue, @NotNull RollCycle sourceRollCycle, long index) {
+        final String key = REROLL_PREFIX + sourceRollCycle.toCycle(index);
+        final long[] firstIndex = {-1};
+        // looked up without acquiring a value, which would add the key
+        metaStore(targetQueue).forEachKey(firstIndex, (f, k, value) -> {
+            if (key.contentEquals(k))
+                f[0] = value.int64();
+        });
+        return firstIndex[0] < 0 ? -1 : firstIndex[0] + sourceRollCycle.toSequenceNumber(index);
+    }
+
+    static int targetCycle(int sourceCycle, @NotNull RollCycle sourceRollCycle, @NotNull RollCycle rollCycle) {
+        return (int) Math.floorDiv((long) sourceCycle * sourceRollCycle.lengthInMillis(), rollCycle.lengthInMillis());
+    }
+
+    @NotNull
+    private static CycleResult writeCycle(@NotNull SingleChronicleQueue sourceQueue, @NotNull List<Integer> sourceCycles,
+                                          @NotNull File target, @NotNull File workDir, @NotNull RollCycle rollCycle, int cycle) throws IOException {
+        final RollCycle sourceRollCycle = sourceQueue.rollCycle();
+        final Map<Integer, Long> firstIndexes = new HashMap<>();
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        timeProvider.currentTimeMillis(sourceQueue.epoch() + (long) cycle * rollCycle.lengthInMillis());
+        final SingleChronicleQueueBuilder builder = SingleChronicleQueueBuilder.binary(workDir)
+                .rollCycle(rollCycle)
+                .epoch(sourceQueue.epoch())
+                .blockSize(sourceQueue.blockSize())
+                .timeProvider(timeProvider);
+        long excerpts = 0;
+        final File cycleFile;
+        try (SingleChronicleQueue queue = builder.build();
+             ExcerptTailer tailer = sourceQueue.createTailer()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int sourceCycle : sourceCycles) {
+                final long count = sourceQueue.exceptsPerCycle(sourceCycle);
+                if (count <= 0 || !tailer.moveToIndex(sourceRollCycle.toIndex(sourceCycle, 0)))
+                    continue;
+                for (long i = 0; i < count; i++) {
+                    try (DocumentContext dc = tailer.readingDocument()) {
+                        if (!dc.isPresent())
+                            throw new IllegalStateException("Missing excerpt " + i + " of cycle " + sourceCycle + " of " + sourceQueue.file());
+                        appender.writeBytes(dc.wire().bytes());
+                    }
+                    if (i == 0)
+                        firstIndexes.put(sourceCycle, appender.lastIndexAppended());
+                }
+                excerpts += count;
+            }
+
+            try (SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null)) {
+                if (store == null) {
+                    if (excerpts > 0)
+                        throw new IllegalStateException("No file written for cycle " + cycle);
+                    return new CycleResult(firstIndexes, "cycle " + cycle + ": no excerpts in " + sourceCycles.size() + " source cycles");
+                }
+                cycleFile = store.file();
+                // the cycle is complete, so readers move on to the next without waiting
+                final MappedBytes bytes = store.bytes();
+                try {
+                    final Wire wire = queue.wireType().apply(bytes);
+                    wire.usePadding(store.dataVersion() > 0);
+                    store.writeEOF(wire, builder.timeoutMS());
+                } finally {
+                    bytes.releaseLast();
+                }
+            }
+        }
+        Files.move(cycleFile.toPath(), new File(target, cycleFile.getName()).toPath());
+        return new CycleResult(firstIndexes, "cycle " + cycle + ": " + excerpts + " excerpts from " + sourceCycles.size() + " source cycles to " + cycleFile.getName());
+    }
+
+    private static void translateNamedTailers(@NotNull SingleChronicleQueue sourceQueue, @NotNull SingleChronicleQueue targetQueue,
+                                              @NotNull NavigableMap<Integer, Long> firstIndexes, int fromCycle, int toCycle) {
+        final RollCycle sourceRollCycle = sourceQueue.rollCycle();
+        final Map<String, Long> positions = new LinkedHashMap<>();
+        metaStore(sourceQueue).forEachKey(positions, (p, key, value) -> {
+            if (key.toString().startsWith(NAMED_TAILER_PREFIX))
+                p.put(key.toString(), value.int64());
+        });
+        for (Map.Entry<String, Long> entry : positions.entrySet()) {
+            final long index = entry.getValue();
+            final int cycle = sourceRollCycle.toCycle(index);
+            // a tailer outside the cycles rewritten is at an excerpt which isn't in the target
+            if (index == 0 || cycle < fromCycle || cycle > toCycle)
+                continue;
+            // a tailer at a cycle without excerpts is at the start of the next one which has any
+            final Map.Entry<Integer, Long> first = firstIndexes.ceilingEntry(cycle);
+            if (first == null)
+                continue;
+            final long translated = first.getKey() == cycle
+                    ? first.getValue() + sourceRollCycle.toSequenceNumber(index)
+                    : first.getValue();
+            setValue(targetQueue, entry.getKey(), translated);
+        }
+    }
+
+    private static void setValue(@NotNull SingleChronicleQueue queue, @NotNull String key, long value) {
+        final LongValue longValue = metaStore(queue).doWithExclusiveLock(ts -> ts.acquireValueFor(key, value));
+        try {
+            longValue.setVolatileValue(value);
+        } finally {
+            Closeable.closeQuietly(longValue);
+        }
+    }
+
+    @NotNull
+    private static TableStore<?> metaStore(@NotNull SingleChronicleQueue queue) {
+        return queue.metaStore();
+    }
+
+    @NotNull
+    private static CommandLine parseCommandLine(@NotNull String[] args, @NotNull Options options) {
+        try {
+            final CommandLine commandLine = new DefaultParser().parse(options, args);
+            if (commandLine.hasOption('h'))
+                printHelpAndExit(options, 0);
+            if (!commandLine.hasOption('s') || !commandLine.hasOption('d') || !commandLine.hasOption('r')) {
+                System.out.println("Please specify the source with -s, the target with -d and the roll cycle with -r\n");
+                printHelpAndExit(options, 1);
+            }
+            return commandLine;
+        } catch (ParseException e) {
+            printHelpAndExit(options, 1);
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void printHelpAndExit(@NotNull Options options, int status) {
+        final PrintWriter writer = new PrintWriter(System.out);
+        new HelpFormatter().printHelp(
+                writer,
+                180,
+                InternalRerollMain.class.getSimpleName(),
+                null,
+                options,
+                HelpFormatter.DEFAULT_LEFT_PAD,
+                HelpFormatter.DEFAULT_DESC_PAD,
+                null,
+                true
+        );
+        writer.flush();
+        System.exit(status);
+    }
+
+    @NotNull
+    private static Options options() {
+        final Options options = new Options();
+        addOption(options, "s", "source", true, "Directory containing the chronicle queue files to rewrite", false);
+        addOption(options, "d", "directory", true, "Directory to write the rewritten queue to", false);
+        addOption(options, "r", "roll-cycle", true, "The roll cycle to rewrite to e.g. FAST_DAILY", false);
+        addOption(options, "f", "from-cycle", true, "The first source cycle to rewrite, defaults to the first", false);
+        addOption(options, "l", "to-cycle", true, "The last source cycle to rewrite, defaults to the last", false);
+        addOption(options, "t", "threads", true, "The number of target cycles to write at once, defaults to the number of processors", false);
+        addOption(options, "h", "help-message", false, "Print this help and exit", false);
+        return options;
+    }
+
+    private static final class CycleResult {
+        final Map<Integer, Long> firstIndexes;
+        final String report;
+
+        CycleResult(@NotNull Map<Integer, Long> firstIndexes, @NotNull String report) {
+            this.firstIndexes = firstIndexes;
+            this.report = report;
+        }
+    }
+}
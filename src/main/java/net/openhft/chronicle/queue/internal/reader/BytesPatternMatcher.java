@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014-2020 chronicle.software
+ *
+ * http://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.queue.internal.reader;
+
+import net.openhft.chronicle.bytes.Bytes;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Finds whether any of a set of byte patterns occurs in the readable bytes of a document, without decoding it. The
+ * patterns are grouped by their first byte, so each byte scanned costs one table lookup and only the patterns starting
+ * with it are compared.
+ */
+final class BytesPatternMatcher {
+    private static final byte[][] NONE = {};
+
+    // the patterns, by their first byte
+    private final byte[][][] byFirstByte = new byte[256][][];
+    private int minLength = Integer.MAX_VALUE;
+
+    boolean isEmpty() {
+        return minLength == Integer.MAX_VALUE;
+    }
+
+    void add(@NotNull String pattern) {
+        final byte[] bytes = pattern.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0)
+            throw new IllegalArgumentException("Empty pattern");
+        final int first = bytes[0] & 0xFF;
+        final byte[][] patterns = byFirstByte[first] == null ? NONE : byFirstByte[first];
+        final byte[][] added = Arrays.copyOf(patterns, patterns.length + 1);
+        added[patterns.length] = bytes;
+        byFirstByte[first] = added;
+        minLength = Math.min(minLength, bytes.length);
+    }
+
+    /**
+     * @return whether any of the patterns occurs between the read position and read limit of the bytes, or true if
+     * there are no patterns
+     */
+    boolean matches(@NotNull Bytes<?> bytes) {
+        if (isEmpty())
+            return true;
+        final long start = bytes.readPosition();
+        final long limit = bytes.readLimit();
+        for (long i = start, end = limit - minLength; i <= end; i++) {
+            final byte[][] patterns = byFirstByte[bytes.readByte(i) & 0xFF];
+            if (patterns == null)
+                continue;
+            for (byte[] pattern : patterns)
+                if (matchesAt(bytes, i, limit, pattern))
+                    return true;
+        }
+        return false;
+    }
+
+    private static boolean matchesAt(@NotNull Bytes<?> bytes, long offset, long limit, byte[] pattern) {
+        if (offset + pattern.length > limit)
+            return false;
+        for (int j = 1; j < pattern.length; j++)
+            if (bytes.readByte(offset + j) != pattern[j])
+                return false;
+        return true;
+    }
+}
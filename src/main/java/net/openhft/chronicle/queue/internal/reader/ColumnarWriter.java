@@ -0,0 +1,126 @@
+package net.openhft.chronicle.queue.internal.reader;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.*;
+import static net.openhft.chronicle.queue.internal.reader.InternalFieldExportQueueEntryHandler.DOUBLE;
+import static net.openhft.chronicle.queue.internal.reader.InternalFieldExportQueueEntryHandler.LONG;
+
+/**
+ * Writes rows of fields to a file as a column of primitives per field, so they can be loaded into arrays without
+ * parsing. The rows are written in groups of up to {@link #ROWS_PER_GROUP}, so only one group is held in memory.
+ * <p>
+ * The file starts with the number of columns, then the name of each, as written by {@link Bytes#writeUtf8(CharSequence)},
+ * and its type, a byte of 0 for long, 1 for double or 2 for text. Each group then has the number of rows as an int and
+ * each column in turn: a long or double per row, or for text, the int offset of the end of each row's text and the
+ * UTF-8 bytes of all of them. All numbers are in the platform's byte order, little-endian on x86 and ARM.
+ */
+final class ColumnarWriter implements java.io.Closeable {
+    static final int ROWS_PER_GROUP = 64 << 10;
+
+    private final FileChannel channel;
+    private final byte[] types;
+    private final Bytes<ByteBuffer>[] columns;
+    // the text of the text columns, the columns holding their end offsets
+    private final Bytes<ByteBuffer>[] texts;
+    private final Bytes<ByteBuffer> count = Bytes.elasticByteBuffer(4);
+    private int rows;
+
+    @SuppressWarnings("unchecked")
+    ColumnarWriter(@NotNull Path path, @NotNull String[] names, @NotNull byte[] types) {
+        this.types = types;
+        this.columns = new Bytes[names.length];
+        this.texts = new Bytes[names.length];
+        try {
+            this.channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+        final Bytes<ByteBuffer> header = Bytes.elasticByteBuffer();
+        try {
+            header.writeInt(names.length);
+            for (int i = 0; i < names.length; i++) {
+                header.writeUtf8(names[i]);
+                header.writeByte(types[i]);
+                columns[i] = Bytes.elasticByteBuffer();
+                if (types[i] != LONG && types[i] != DOUBLE)
+                    texts[i] = Bytes.elasticByteBuffer();
+            }
+            write(header);
+        } finally {
+            header.releaseLast();
+        }
+    }
+
+    void addRow(long[] longs, double[] doubles, StringBuilder[] text) {
+        for (int i = 0; i < types.length; i++) {
+            switch (types[i]) {
+                case LONG:
+                    columns[i].writeLong(longs[i]);
+                    break;
+                case DOUBLE:
+                    columns[i].writeDouble(doubles[i]);
+                    break;
+                default:
+                    texts[i].appendUtf8(text[i]);
+                    columns[i].writeInt(Math.toIntExact(texts[i].writePosition()));
+            }
+        }
+        if (++rows == ROWS_PER_GROUP)
+            flush();
+    }
+
+    private void flush() {
+        if (rows == 0)
+            return;
+        count.clear().writeInt(rows);
+        write(count);
+        for (int i = 0; i < types.length; i++) {
+            write(columns[i]);
+            columns[i].clear();
+            if (texts[i] != null) {
+                write(texts[i]);
+                texts[i].clear();
+            }
+        }
+        rows = 0;
+    }
+
+    private void write(Bytes<ByteBuffer> bytes) {
+        final ByteBuffer buffer = bytes.underlyingObject();
+        buffer.limit(Math.toIntExact(bytes.writePosition()));
+        buffer.position(0);
+        try {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            count.releaseLast();
+            for (int i = 0; i < types.length; i++) {
+                columns[i].releaseLast();
+                if (texts[i] != null)
+                    texts[i].releaseLast();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        }
+    }
+}
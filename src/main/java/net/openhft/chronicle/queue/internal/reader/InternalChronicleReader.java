@@ -23,34 +23,52 @@ import net.openhft.chronicle.bytes.MethodReader;
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.queue.ChronicleQueue;
 import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
 import net.openhft.chronicle.queue.reader.*;
 import net.openhft.chronicle.queue.util.ToolsUtil;
+import net.openhft.chronicle.threads.NamedThreadFactory;
 import net.openhft.chronicle.threads.Pauser;
+import net.openhft.chronicle.threads.Threads;
 import net.openhft.chronicle.wire.DocumentContext;
 import net.openhft.chronicle.wire.WireType;
 import org.jetbrains.annotations.NotNull;
 
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.text.ParseException;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import static net.openhft.chronicle.core.util.ObjectUtils.requireNonNull;
 import static net.openhft.chronicle.queue.impl.StoreFileListener.NO_OP;
 
 public final class InternalChronicleReader implements Reader{
     private static final long UNSET_VALUE = Long.MIN_VALUE;
+    // the excerpts read as one task when reading with more than one thread
+    private static final int CHUNK_SIZE = 4096;
+    // the chunks read ahead of the one being written, per thread
+    private static final int CHUNKS_AHEAD = 4;
 
     private final List<Pattern> inclusionRegex = new ArrayList<>();
     private final List<Pattern> exclusionRegex = new ArrayList<>();
+    private final BytesPatternMatcher binarySearch = new BytesPatternMatcher();
     private final Pauser pauser = Pauser.millis(1, 100);
     private Path basePath;
     private long startIndex = UNSET_VALUE;
@@ -65,6 +83,10 @@ public final class InternalChronicleReader implements Reader{
     private boolean displayIndex = true;
     private Class<?> methodReaderInterface;
     private volatile boolean running = true;
+    private int threads = 1;
+    private String fields;
+    private Path columnarOutput;
+    private ColumnarWriter columnarWriter;
 
     static {
         ToolsUtil.warnIfResourceTracing();
@@ -74,14 +96,34 @@ public final class InternalChronicleReader implements Reader{
     private ThreadLocal<ExcerptTailer> tlTailer;
 
     public void execute() {
+        if (fields == null) {
+            read();
+            return;
+        }
+        final InternalFieldExportQueueEntryHandler export = newFieldExport();
+        if (columnarOutput == null) {
+            messageSink.accept(export.header());
+            read();
+            return;
+        }
+        columnarWriter = new ColumnarWriter(columnarOutput, export.names(), export.types());
+        try {
+            read();
+        } finally {
+            columnarWriter.close();
+            columnarWriter = null;
+        }
+    }
+
+    private void read() {
         long lastObservedTailIndex;
         long highestReachedIndex = 0L;
         boolean isFirstIteration = true;
         boolean retryLastOperation;
         boolean queueHasBeenModified;
         do {
-            try (final ChronicleQueue queue = createQueue();
-                 final QueueEntryHandler messageConverter = entryHandlerFactory.get()) {
+            try (final SingleChronicleQueue queue = createQueue();
+                 final QueueEntryHandler messageConverter = newEntryHandler()) {
                 final ExcerptTailer tailer = queue.createTailer();
 
                 tlTailer = ThreadLocal.withInitial(queue::createTailer);
@@ -94,33 +136,23 @@ public final class InternalChronicleReader implements Reader{
                     try {
                         moveToSpecifiedPosition(queue, tailer, isFirstIteration);
                         lastObservedTailIndex = tailer.index();
-                        Consumer<String> messageConsumer = text -> applyFiltersAndLog(text, tailer.index());
-                        BooleanSupplier readOne;
-                        if (methodReaderInterface == null) {
-                            readOne = () -> readOne(messageConverter, tailer, messageConsumer);
+                        if (threads > 1 && !tailInputSource && customPlugin == null && columnarWriter == null) {
+                            readInParallel(queue, tailer);
                         } else {
-                            Bytes<ByteBuffer> bytes = Bytes.elasticHeapByteBuffer(256);
-                            Object writer = WireType.TEXT.apply(bytes).methodWriter(methodReaderInterface);
-                            MethodReader methodReader = tailer.methodReader(writer);
-                            readOne = () -> {
-                                boolean found = methodReader.readOne();
-                                if (found)
-                                    messageConsumer.accept(bytes.toString());
-                                bytes.clear();
-                                return found;
-                            };
-                        }
+                            final BooleanSupplier readOne = readOneFor(messageConverter, tailer,
+                                    text -> applyFiltersAndLog(text, tailer.index()));
 
-                        while (!Thread.currentThread().isInterrupted()) {
-                            boolean found = readOne.getAsBoolean();
+                            while (!Thread.currentThread().isInterrupted()) {
+                                boolean found = readOne.getAsBoolean();
 
-                            if (!found) {
-                                if (tailInputSource) {
-                                    pauser.pause();
+                                if (!found) {
+                                    if (tailInputSource) {
+                                        pauser.pause();
+                                    }
+                                    break;
                                 }
-                                break;
+                                pauser.reset();
                             }
-                            pauser.reset();
                         }
                     } finally {
                         textConversionTarget.releaseLast();
@@ -146,6 +178,114 @@ public final class InternalChronicleReader implements Reader{
 
     }
 
+    /**
+     * Reads from the tailer's index to the end of the queue, splitting it into chunks which are decoded and filtered by
+     * a pool of threads. The chunks are written in order, and only a few per thread are read ahead of the one being
+     * written, so the output waiting to be written is bounded. The tailer is left after the last excerpt read.
+     */
+    private void readInParallel(@NotNull SingleChronicleQueue queue, @NotNull ExcerptTailer tailer) {
+        final long firstIndex = queue.firstIndex();
+        if (firstIndex == Long.MAX_VALUE)
+            return;
+        final RollCycle rollCycle = queue.rollCycle();
+        final long from = Math.max(firstIndex, tailer.index());
+        final int fromCycle = rollCycle.toCycle(from);
+        final ExecutorService service = Executors.newFixedThreadPool(threads, new NamedThreadFactory("chronicle-reader", true));
+        final Deque<Future<Chunk>> pending = new ArrayDeque<>();
+        long lastIndex = UNSET_VALUE;
+        try {
+            for (long cycle : queue.listCyclesBetween(fromCycle, queue.lastCycle())) {
+                final long excerpts = queue.exceptsPerCycle((int) cycle);
+                for (long seq = cycle == fromCycle ? rollCycle.toSequenceNumber(from) : 0; seq < excerpts && running; seq += CHUNK_SIZE) {
+                    final long chunkFrom = rollCycle.toIndex((int) cycle, seq);
+                    final long chunkTo = rollCycle.toIndex((int) cycle, Math.min(excerpts, seq + CHUNK_SIZE));
+                    if (pending.size() >= threads * CHUNKS_AHEAD)
+                        lastIndex = write(pending.removeFirst(), lastIndex);
+                    pending.add(service.submit(() -> readChunk(queue, chunkFrom, chunkTo)));
+                }
+            }
+            while (!pending.isEmpty())
+                lastIndex = write(pending.removeFirst(), lastIndex);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw Jvm.rethrow(e.getCause());
+        } finally {
+            pending.forEach(f -> f.cancel(true));
+            Threads.shutdown(service);
+        }
+
+        if (isSet(lastIndex) && tailer.moveToIndex(lastIndex)) {
+            try (DocumentContext dc = tailer.readingDocument()) {
+                // moves the tailer past the last excerpt read
+                assert dc.isPresent();
+            }
+        }
+    }
+
+    private long write(@NotNull Future<Chunk> future, long lastIndex) throws InterruptedException, ExecutionException {
+        final Chunk chunk = future.get();
+        chunk.output.forEach(messageSink);
+        return isSet(chunk.lastIndex) ? chunk.lastIndex : lastIndex;
+    }
+
+    @NotNull
+    private Chunk readChunk(@NotNull ChronicleQueue queue, long from, long to) {
+        final Chunk chunk = new Chunk();
+        try (ExcerptTailer tailer = queue.createTailer();
+             QueueEntryHandler messageConverter = newEntryHandler()) {
+            if (!tailer.moveToIndex(from))
+                return chunk;
+            final BooleanSupplier readOne = readOneFor(messageConverter, tailer,
+                    text -> applyFilters(text, tailer.index(), chunk.output::add));
+            for (long index; (index = tailer.index()) < to && running && readOne.getAsBoolean(); )
+                chunk.lastIndex = index;
+        }
+        return chunk;
+    }
+
+    @NotNull
+    private QueueEntryHandler newEntryHandler() {
+        return fields == null ? entryHandlerFactory.get() : newFieldExport();
+    }
+
+    @NotNull
+    private InternalFieldExportQueueEntryHandler newFieldExport() {
+        // only the events of the method reader interface, if given
+        final String[] events = methodReaderInterface == null ? null :
+                Stream.of(methodReaderInterface.getMethods()).map(Method::getName).distinct().toArray(String[]::new);
+        return new InternalFieldExportQueueEntryHandler(fields, events, columnarWriter);
+    }
+
+    @NotNull
+    private BooleanSupplier readOneFor(@NotNull QueueEntryHandler messageConverter, @NotNull ExcerptTailer tailer, @NotNull Consumer<String> messageConsumer) {
+        if (methodReaderInterface == null || fields != null)
+            return () -> readOne(messageConverter, tailer, messageConsumer);
+
+        Bytes<ByteBuffer> bytes = Bytes.elasticHeapByteBuffer(256);
+        Object writer = WireType.TEXT.apply(bytes).methodWriter(methodReaderInterface);
+        MethodReader methodReader = tailer.methodReader(writer);
+        return () -> {
+            if (!binarySearch.isEmpty()) {
+                // skips dispatching the documents which can't match, peeking at the rest for the method reader
+                try (DocumentContext dc = pollMethod.apply(tailer)) {
+                    if (!dc.isPresent())
+                        return false;
+                    if (!binarySearch.matches(dc.wire().bytes()))
+                        return true;
+                    dc.rollbackOnClose();
+                }
+            }
+            boolean found = methodReader.readOne();
+            if (found)
+                messageConsumer.accept(bytes.toString());
+            bytes.clear();
+            return found;
+        };
+    }
+
     public boolean readOne(@NotNull QueueEntryHandler messageConverter, @NotNull ExcerptTailer tailer, @NotNull Consumer<String> messageConsumer) {
         requireNonNull(messageConsumer);
         requireNonNull(tailer);
@@ -154,6 +294,10 @@ public final class InternalChronicleReader implements Reader{
             if (!dc.isPresent()) {
                 return false;
             }
+            // skips converting the documents which can't match
+            if (!binarySearch.matches(dc.wire().bytes())) {
+                return true;
+            }
 
             if (customPlugin == null) {
                 messageConverter.accept(dc.wire(), messageConsumer);
@@ -193,6 +337,11 @@ public final class InternalChronicleReader implements Reader{
         return this;
     }
 
+    public InternalChronicleReader withBinarySearch(final @NotNull String text) {
+        this.binarySearch.add(requireNonNull(text));
+        return this;
+    }
+
     public InternalChronicleReader withCustomPlugin(final @NotNull ChronicleReaderPlugin customPlugin) {
         this.customPlugin = requireNonNull(customPlugin);
         return this;
@@ -234,6 +383,21 @@ public final class InternalChronicleReader implements Reader{
         return this;
     }
 
+    public InternalChronicleReader withFields(@NotNull String fields) {
+        this.fields = requireNonNull(fields);
+        return this;
+    }
+
+    public InternalChronicleReader withColumnarOutput(@NotNull Path path) {
+        this.columnarOutput = requireNonNull(path);
+        return this;
+    }
+
+    public InternalChronicleReader withThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
     public void stop() {
         running = false;
     }
@@ -297,7 +461,7 @@ public final class InternalChronicleReader implements Reader{
     }
 
     @NotNull
-    private ChronicleQueue createQueue() {
+    private SingleChronicleQueue createQueue() {
         if (!Files.exists(basePath)) {
             throw new IllegalArgumentException(String.format("Path '%s' does not exist (absolute path '%s')", basePath, basePath.toAbsolutePath()));
         }
@@ -309,12 +473,24 @@ public final class InternalChronicleReader implements Reader{
     }
 
     protected void applyFiltersAndLog(final String text, final long index) {
+        applyFilters(text, index, messageSink);
+    }
+
+    private void applyFilters(final String text, final long index, final Consumer<? super String> sink) {
         if (inclusionRegex.isEmpty() || checkForMatches(inclusionRegex, text, true)) {
             if (exclusionRegex.isEmpty() || checkForMatches(exclusionRegex, text, false)) {
-                if (displayIndex)
-                    messageSink.accept("0x" + Long.toHexString(index) + ": ");
-                messageSink.accept(text);
+                if (displayIndex && fields == null)
+                    sink.accept("0x" + Long.toHexString(index) + ": ");
+                sink.accept(text);
             }
         }
     }
+
+    /**
+     * The output of the excerpts read as one task, and the index of the last.
+     */
+    private static final class Chunk {
+        final List<String> output = new ArrayList<>();
+        long lastIndex = UNSET_VALUE;
+    }
 }
\ No newline at end of file
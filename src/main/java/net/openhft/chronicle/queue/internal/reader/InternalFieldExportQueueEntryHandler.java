@@ -0,0 +1,210 @@
+package net.openhft.chronicle.queue.internal.reader;
+
+import net.openhft.chronicle.core.util.StringUtils;
+import net.openhft.chronicle.queue.reader.QueueEntryHandler;
+import net.openhft.chronicle.wire.BracketType;
+import net.openhft.chronicle.wire.ReadMarshallable;
+import net.openhft.chronicle.wire.ValueIn;
+import net.openhft.chronicle.wire.WireIn;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * Reads the projected fields of each document straight from the wire, without converting it to text, and writes them
+ * as a CSV line, or as a row of a {@link ColumnarWriter}.
+ * <p>
+ * A field is a field of an event's marshallable value, or an event with a scalar value, e.g. a method with one
+ * argument. Only the events named in {@code events} are read, if given. A document with none of the fields is skipped,
+ * and a field it doesn't have is left empty, or written as {@link Long#MIN_VALUE} or NaN.
+ */
+final class InternalFieldExportQueueEntryHandler implements QueueEntryHandler {
+    static final byte LONG = 0;
+    static final byte DOUBLE = 1;
+    static final byte TEXT = 2;
+
+    private final String[] names;
+    private final byte[] types;
+    @Nullable
+    private final String[] events;
+    @Nullable
+    private final ColumnarWriter columnarWriter;
+
+    // the row being read
+    private final long[] longs;
+    private final double[] doubles;
+    private final StringBuilder[] texts;
+    private final boolean[] present;
+
+    private final StringBuilder event = new StringBuilder();
+    private final StringBuilder name = new StringBuilder();
+    private final StringBuilder line = new StringBuilder();
+    private final ReadMarshallable fieldsReader = this::readFields;
+
+    /**
+     * @param fields         comma separated, each a name with an optional type of {@code :long}, {@code :double} or
+     *                       {@code :text}, the default
+     * @param events         to read the fields of, or null for all
+     * @param columnarWriter to add the rows to, or null to write CSV lines
+     */
+    InternalFieldExportQueueEntryHandler(@NotNull String fields, @Nullable String[] events, @Nullable ColumnarWriter columnarWriter) {
+        final String[] specs = fields.split(",");
+        this.names = new String[specs.length];
+        this.types = new byte[specs.length];
+        for (int i = 0; i < specs.length; i++) {
+            final String[] parts = specs[i].trim().split(":", 2);
+            names[i] = parts[0];
+            types[i] = parts.length == 1 ? TEXT : parseType(parts[1]);
+        }
+        this.events = events;
+        this.columnarWriter = columnarWriter;
+        this.longs = new long[names.length];
+        this.doubles = new double[names.length];
+        this.texts = new StringBuilder[names.length];
+        for (int i = 0; i < names.length; i++)
+            texts[i] = new StringBuilder();
+        this.present = new boolean[names.length];
+    }
+
+    private static byte parseType(String type) {
+        switch (type.trim()) {
+            case "long":
+                return LONG;
+            case "double":
+                return DOUBLE;
+            case "text":
+                return TEXT;
+            default:
+                throw new IllegalArgumentException("Unknown field type: " + type + ", expected long, double or text");
+        }
+    }
+
+    String[] names() {
+        return names;
+    }
+
+    byte[] types() {
+        return types;
+    }
+
+    /**
+     * @return the CSV header line for these fields
+     */
+    @NotNull
+    String header() {
+        return String.join(",", names);
+    }
+
+    @Override
+    public void accept(final WireIn wireIn, final Consumer<String> messageHandler) {
+        boolean found = false;
+        for (int i = 0; i < names.length; i++) {
+            present[i] = false;
+            longs[i] = Long.MIN_VALUE;
+            doubles[i] = Double.NaN;
+            texts[i].setLength(0);
+        }
+
+        while (wireIn.hasMore()) {
+            final ValueIn valueIn = wireIn.readEventName(event);
+            if (events != null && !contains(events, event)) {
+                valueIn.skipValue();
+            } else if (valueIn.getBracketType() == BracketType.MAP) {
+                valueIn.marshallable(fieldsReader);
+            } else {
+                readField(event, valueIn);
+            }
+        }
+        for (boolean p : present)
+            found |= p;
+        if (!found)
+            return;
+
+        if (columnarWriter != null) {
+            columnarWriter.addRow(longs, doubles, texts);
+            return;
+        }
+        line.setLength(0);
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0)
+                line.append(',');
+            if (!present[i])
+                continue;
+            switch (types[i]) {
+                case LONG:
+                    line.append(longs[i]);
+                    break;
+                case DOUBLE:
+                    line.append(doubles[i]);
+                    break;
+                default:
+                    appendCsv(line, texts[i]);
+            }
+        }
+        messageHandler.accept(line.toString());
+    }
+
+    private void readFields(WireIn wireIn) {
+        while (wireIn.hasMore())
+            readField(name, wireIn.readEventName(name));
+    }
+
+    private void readField(CharSequence fieldName, ValueIn valueIn) {
+        final int i = indexOf(fieldName);
+        if (i < 0) {
+            valueIn.skipValue();
+            return;
+        }
+        switch (types[i]) {
+            case LONG:
+                longs[i] = valueIn.int64();
+                break;
+            case DOUBLE:
+                doubles[i] = valueIn.float64();
+                break;
+            default:
+                if (valueIn.textTo(texts[i]) == null)
+                    texts[i].setLength(0);
+        }
+        present[i] = true;
+    }
+
+    private int indexOf(CharSequence fieldName) {
+        for (int i = 0; i < names.length; i++)
+            if (StringUtils.isEqual(fieldName, names[i]))
+                return i;
+        return -1;
+    }
+
+    private static boolean contains(String[] events, StringBuilder event) {
+        for (String e : events)
+            if (StringUtils.isEqual(event, e))
+                return true;
+        return false;
+    }
+
+    private static void appendCsv(StringBuilder line, CharSequence text) {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            final char ch = text.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char ch = text.charAt(i);
+            if (ch == '"')
+                line.append('"');
+            line.append(ch);
+        }
+        line.append('"');
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,161 @@
+package net.openhft.chronicle.queue.internal.util;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.util.TailerPublisher;
+import net.openhft.chronicle.threads.Pauser;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.WireIn;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public final class InternalTailerPublisher<T> implements TailerPublisher<T>, TailerPublisher.Subscription {
+    @NotNull
+    private final ExcerptTailer tailer;
+    @NotNull
+    private final Function<? super WireIn, ? extends T> mapper;
+    private final int batchSize;
+    @NotNull
+    private final Pauser pauser;
+    private final long endIndex;
+    private final AtomicLong demand = new AtomicLong();
+    private volatile Subscriber<? super T> subscriber;
+    private volatile boolean cancelled;
+    private volatile Throwable pendingError;
+    private boolean done;
+
+    public InternalTailerPublisher(@NotNull ExcerptTailer tailer,
+                                   @NotNull Function<? super WireIn, ? extends T> mapper,
+                                   int batchSize,
+                                   @NotNull Pauser pauser,
+                                   long endIndex) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be positive, was " + batchSize);
+        this.tailer = tailer;
+        this.mapper = mapper;
+        this.batchSize = batchSize;
+        this.pauser = pauser;
+        this.endIndex = endIndex;
+    }
+
+    @Override
+    public synchronized void subscribe(@NotNull Subscriber<? super T> subscriber) {
+        if (this.subscriber != null) {
+            subscriber.onSubscribe(NoSubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException("Only one subscriber is supported"));
+            return;
+        }
+        this.subscriber = subscriber;
+        subscriber.onSubscribe(this);
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            pendingError = new IllegalArgumentException("Non-positive request " + n);
+        } else {
+            demand.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+        }
+        pauser.unpause();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        pauser.unpause();
+    }
+
+    @Override
+    public boolean action() throws InvalidEventHandlerException {
+        final Subscriber<? super T> subscriber = this.subscriber;
+        if (subscriber == null)
+            return false;
+        if (done || cancelled) {
+            done = true;
+            throw InvalidEventHandlerException.reusable();
+        }
+        final Throwable error = pendingError;
+        if (error != null) {
+            done = true;
+            subscriber.onError(error);
+            throw InvalidEventHandlerException.reusable();
+        }
+
+        final long requested = demand.get();
+        final long limit = Math.min(requested, batchSize);
+        int count = 0;
+        try {
+            while (!cancelled) {
+                // checked before reading, so a range ending at the tail completes
+                if (tailer.index() >= endIndex) {
+                    done = true;
+                    break;
+                }
+                if (count >= limit)
+                    break;
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    if (!dc.isPresent())
+                        break;
+                    if (dc.index() >= endIndex) {
+                        dc.rollbackOnClose();
+                        done = true;
+                        break;
+                    }
+                    subscriber.onNext(mapper.apply(dc.wire()));
+                    count++;
+                }
+            }
+        } catch (Throwable t) {
+            done = true;
+            subscriber.onError(t);
+            throw InvalidEventHandlerException.reusable();
+        } finally {
+            if (requested != Long.MAX_VALUE && count > 0)
+                demand.addAndGet(-count);
+        }
+
+        if (done) {
+            subscriber.onComplete();
+            throw InvalidEventHandlerException.reusable();
+        }
+        return count > 0;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                if (action())
+                    pauser.reset();
+                else
+                    pauser.pause();
+            }
+        } catch (InvalidEventHandlerException e) {
+            // cancelled or complete
+        } catch (Throwable t) {
+            Jvm.warn().on(getClass(), "Publisher stopped", t);
+        }
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MEDIUM;
+    }
+
+    enum NoSubscription implements Subscription {
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package net.openhft.chronicle.queue.internal.util;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.WireIn;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.ParseException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A Spliterator over the excerpts with an index in {@code [fromIndex, toIndex)}.
+ * <p>
+ * Each split reads with its own tailer, created on first use so it belongs to the thread which consumes it.
+ * Ranges are split on the boundary of a cycle which has a file.
+ * <p>
+ * A tailer is closed when its split has been read to the end. {@link #close()} closes the tailers of this Spliterator
+ * and all the splits of it which haven't, e.g. when a short-circuiting operation stops reading early.
+ */
+public final class InternalTailerSpliterator<T> implements Spliterator<T>, java.io.Closeable {
+    @NotNull
+    private final SingleChronicleQueue queue;
+    @NotNull
+    private final Function<? super WireIn, ? extends T> mapper;
+    private final RollCycle rollCycle;
+    private final long toIndex;
+    // the open tailers of this Spliterator and its splits
+    private final Queue<ExcerptTailer> tailers;
+    private long fromIndex;
+    @Nullable
+    private ExcerptTailer tailer;
+    private boolean finished;
+
+    public InternalTailerSpliterator(@NotNull SingleChronicleQueue queue,
+                                      long fromIndex,
+                                      long toIndex,
+                                      @NotNull Function<? super WireIn, ? extends T> mapper) {
+        this(queue, fromIndex, toIndex, mapper, new ConcurrentLinkedQueue<>());
+    }
+
+    private InternalTailerSpliterator(@NotNull SingleChronicleQueue queue,
+                                      long fromIndex,
+                                      long toIndex,
+                                      @NotNull Function<? super WireIn, ? extends T> mapper,
+                                      @NotNull Queue<ExcerptTailer> tailers) {
+        this.queue = queue;
+        this.tailers = tailers;
+        this.mapper = mapper;
+        this.rollCycle = queue.rollCycle();
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+        this.finished = fromIndex >= toIndex;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (finished)
+            return false;
+        final ExcerptTailer tailer = tailer();
+        if (tailer == null)
+            return finish();
+        try (DocumentContext dc = tailer.readingDocument()) {
+            if (dc.isPresent()) {
+                if (dc.index() < toIndex) {
+                    action.accept(mapper.apply(dc.wire()));
+                    return true;
+                }
+                dc.rollbackOnClose();
+            }
+        }
+        return finish();
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while (tryAdvance(action)) {
+            // keep going
+        }
+    }
+
+    @Nullable
+    @Override
+    public Spliterator<T> trySplit() {
+        if (tailer != null || finished)
+            return null;
+        final int fromCycle = rollCycle.toCycle(fromIndex);
+        final int lastCycle = rollCycle.toCycle(toIndex - 1);
+        if (fromCycle >= lastCycle)
+            return null;
+        // split on the middle cycle which has a file, so both halves have something to read
+        final Long[] cycles = cycles(fromCycle + 1, lastCycle);
+        if (cycles.length == 0)
+            return null;
+        final long midIndex = rollCycle.toIndex(cycles[cycles.length / 2].intValue(), 0);
+        final Spliterator<T> prefix = new InternalTailerSpliterator<>(queue, fromIndex, midIndex, mapper, tailers);
+        fromIndex = midIndex;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        if (finished)
+            return 0;
+        // indices within a cycle are contiguous, across cycles the number of excerpts is unknown
+        return rollCycle.toCycle(fromIndex) == rollCycle.toCycle(toIndex - 1)
+                ? toIndex - fromIndex
+                : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    @Nullable
+    private ExcerptTailer tailer() {
+        if (tailer == null) {
+            tailer = queue.createTailer();
+            tailers.add(tailer);
+            if (!moveToFirstIndex(tailer))
+                return null;
+        }
+        return tailer;
+    }
+
+    private boolean moveToFirstIndex(@NotNull ExcerptTailer tailer) {
+        if (tailer.moveToIndex(fromIndex))
+            return true;
+        // fromIndex may be before the start, in a cycle with no file or past the end of its cycle
+        for (Long cycle : cycles(rollCycle.toCycle(fromIndex) + 1, rollCycle.toCycle(toIndex - 1))) {
+            if (tailer.moveToIndex(rollCycle.toIndex(cycle.intValue(), 0)))
+                return true;
+        }
+        return false;
+    }
+
+    @NotNull
+    private Long[] cycles(int lowerCycle, int upperCycle) {
+        final int firstCycle = queue.firstCycle();
+        final int lastCycle = queue.lastCycle();
+        if (lowerCycle > upperCycle || firstCycle > lastCycle)
+            return new Long[0];
+        try {
+            // the bounds passed to listCyclesBetween must have a file
+            return queue.listCyclesBetween(firstCycle, lastCycle)
+                    .subSet((long) lowerCycle, true, (long) upperCycle, true)
+                    .toArray(new Long[0]);
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean finish() {
+        finished = true;
+        if (tailer != null && tailers.remove(tailer))
+            Closeable.closeQuietly(tailer);
+        return false;
+    }
+
+    /**
+     * Closes the tailers of this Spliterator and of all the splits of it, after which none of them can be read.
+     */
+    @Override
+    public void close() {
+        finished = true;
+        for (ExcerptTailer t; (t = tailers.poll()) != null; )
+            Closeable.closeQuietly(t);
+    }
+}
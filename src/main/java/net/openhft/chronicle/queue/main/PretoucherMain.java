@@ -0,0 +1,28 @@
+package net.openhft.chronicle.queue.main;
+
+import net.openhft.chronicle.queue.internal.main.InternalPretoucherMain;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pretouches the files of one or more queues, given with {@code -d}, from a separate process, so their writers don't
+ * take page faults. The metrics of each queue are printed periodically until the process is stopped.
+ * <p>
+ * To pretouch within a process, add {@link net.openhft.chronicle.queue.util.PretouchUtil#createService(long)} to an
+ * event loop instead.
+ */
+public final class PretoucherMain {
+
+    public static void main(@NotNull String[] args) {
+        InternalPretoucherMain.main(args);
+    }
+
+    public static void pretouch(@NotNull List<File> dirs, long intervalMS, long reportIntervalMS,
+                                @NotNull PrintStream out, @NotNull BooleanSupplier running) {
+        InternalPretoucherMain.pretouch(dirs, intervalMS, reportIntervalMS, out, running);
+    }
+}
@@ -0,0 +1,27 @@
+package net.openhft.chronicle.queue.main;
+
+import net.openhft.chronicle.queue.impl.single.IndexCheck;
+import net.openhft.chronicle.queue.internal.main.InternalReindexMain;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Checks the index of every cycle of a queue against the excerpts in its file, and with {@code -r} writes the index
+ * entries which are missing or wrong, e.g. after {@code queue.ignoreIndexingFailure} was used. Cycles are checked in
+ * parallel, one per thread.
+ * <p>
+ * Nothing may append to the queue while it is being repaired.
+ */
+public final class ReindexMain {
+
+    public static void main(@NotNull String[] args) {
+        InternalReindexMain.main(args);
+    }
+
+    public static List<IndexCheck> reindex(@NotNull File dir, boolean repair, int threads, @NotNull PrintStream out) {
+        return InternalReindexMain.reindex(dir, repair, threads, out);
+    }
+}
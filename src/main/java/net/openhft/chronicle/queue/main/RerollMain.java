@@ -0,0 +1,34 @@
+package net.openhft.chronicle.queue.main;
+
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.internal.main.InternalRerollMain;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.NavigableMap;
+
+/**
+ * Compacts a queue by rewriting its cycles, or a range of them with {@code -f} and {@code -l}, into a new queue with
+ * a coarser roll cycle, e.g. {@code -r FAST_DAILY} for a queue which rolls every minute, so reading it back maps a
+ * few large files rather than many small ones. Target cycles are written in parallel, one per thread.
+ * <p>
+ * The positions of named tailers are carried across, and {@link #translate(SingleChronicleQueue, RollCycle, long)}
+ * maps any other index of the source to the target. Nothing may append to either queue while it is being rewritten.
+ */
+public final class RerollMain {
+
+    public static void main(@NotNull String[] args) {
+        InternalRerollMain.main(args);
+    }
+
+    public static NavigableMap<Integer, Long> reroll(@NotNull File source, @NotNull File target, @NotNull RollCycle rollCycle,
+                                                     int threads, @NotNull PrintStream out) {
+        return InternalRerollMain.reroll(source, target, rollCycle, Integer.MIN_VALUE, Integer.MAX_VALUE, threads, out);
+    }
+
+    public static long translate(@NotNull SingleChronicleQueue targetQueue, @NotNull RollCycle sourceRollCycle, long index) {
+        return InternalRerollMain.translate(targetQueue, sourceRollCycle, index);
+    }
+}
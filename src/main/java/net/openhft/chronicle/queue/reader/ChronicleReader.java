@@ -72,6 +72,12 @@ public final class ChronicleReader implements Reader {
         return this;
     }
 
+    @Override
+    public ChronicleReader withBinarySearch(@NotNull String text) {
+        delegate.withBinarySearch(text);
+        return this;
+    }
+
     @Override
     public ChronicleReader withCustomPlugin(final @NotNull ChronicleReaderPlugin customPlugin) {
         delegate.withCustomPlugin(customPlugin);
@@ -114,6 +120,24 @@ public final class ChronicleReader implements Reader {
         return this;
     }
 
+    @Override
+    public ChronicleReader withThreads(int threads) {
+        delegate.withThreads(threads);
+        return this;
+    }
+
+    @Override
+    public ChronicleReader withFields(@NotNull String fields) {
+        delegate.withFields(fields);
+        return this;
+    }
+
+    @Override
+    public ChronicleReader withColumnarOutput(@NotNull Path path) {
+        delegate.withColumnarOutput(path);
+        return this;
+    }
+
     /*
     // visible for testing only
     ChronicleReader withDocumentPollMethod(final Function<ExcerptTailer, DocumentContext> pollMethod) {
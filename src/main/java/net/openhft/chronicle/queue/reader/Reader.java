@@ -45,6 +45,16 @@ public interface Reader {
 
     Reader withExclusionRegex(@NotNull String regex);
 
+    /**
+     * Only converts the records whose bytes contain this text, or any of the others added, before applying the regular
+     * expressions. Text in a binary wire is written as UTF-8, so this finds field names and text values without
+     * decoding the records which don't contain them. This isn't used when reading as a method reader.
+     *
+     * @param text to search for
+     * @return this
+     */
+    Reader withBinarySearch(@NotNull String text);
+
     Reader withCustomPlugin(@NotNull ChronicleReaderPlugin customPlugin);
 
     Reader withStartIndex(final long index);
@@ -59,6 +69,37 @@ public interface Reader {
 
     Reader suppressDisplayIndex();
 
+    /**
+     * Decodes and filters the excerpts with this many threads, writing them in the same order. This isn't used when
+     * following the queue or with a custom plugin. Readers which only read with one thread ignore this, as it doesn't
+     * change what they write.
+     *
+     * @param threads to read with, 1 by default
+     * @return this
+     */
+    default Reader withThreads(int threads) {
+        return this;
+    }
+
+    /**
+     * Writes only these fields of each record, as CSV lines after a header, without converting the records to text.
+     * Each field is a name with an optional type of {@code :long}, {@code :double} or {@code :text}, the default. When
+     * reading as a method reader, only the fields of its methods' arguments are written.
+     *
+     * @param fields comma separated, e.g. {@code time:long,symbol,price:double}
+     * @return this
+     */
+    Reader withFields(@NotNull String fields);
+
+    /**
+     * Writes the fields to this file, as a column of primitives per field, rather than as CSV to the message sink.
+     * This reads with one thread.
+     *
+     * @param path to write to
+     * @return this
+     */
+    Reader withColumnarOutput(@NotNull Path path);
+
     static Reader create() {
         return new InternalChronicleReader();
     }
@@ -0,0 +1,32 @@
+package net.openhft.chronicle.queue.util;
+
+/**
+ * What a cache of a queue has done so far, which can be read from any thread.
+ */
+public interface CacheMetrics {
+
+    /**
+     * @return the number of lookups which found an entry
+     */
+    long hits();
+
+    /**
+     * @return the number of lookups which had to create an entry
+     */
+    long misses();
+
+    /**
+     * @return the number of entries evicted as nothing else held them
+     */
+    long evictions();
+
+    /**
+     * @return the number of entries, whether in use or not
+     */
+    int size();
+
+    /**
+     * @return the most entries kept once nothing else holds them
+     */
+    int maxSize();
+}
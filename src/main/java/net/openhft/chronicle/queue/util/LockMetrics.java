@@ -0,0 +1,33 @@
+package net.openhft.chronicle.queue.util;
+
+/**
+ * How a lock shared by the processes writing to a queue has been contended, as recorded in the queue's metadata, so
+ * it can be read from any thread or process.
+ */
+public interface LockMetrics {
+
+    /**
+     * @return the number of times the lock has been acquired
+     */
+    long acquisitions();
+
+    /**
+     * @return the total time spent waiting to acquire the lock
+     */
+    long totalWaitNanos();
+
+    /**
+     * @return the longest time spent waiting to acquire the lock
+     */
+    long maxWaitNanos();
+
+    /**
+     * @return the number of lockers waiting for the lock, or holding it
+     */
+    long queueLength();
+
+    /**
+     * @return the process id holding the lock, or {@link Long#MIN_VALUE} if it's not held
+     */
+    long lockedBy();
+}
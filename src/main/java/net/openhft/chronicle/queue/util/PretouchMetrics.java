@@ -0,0 +1,43 @@
+package net.openhft.chronicle.queue.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+/**
+ * What pretouching a queue has done so far, which can be read from any thread.
+ */
+public interface PretouchMetrics {
+
+    /**
+     * @return the directory of the queue pretouched
+     */
+    @NotNull
+    File queuePath();
+
+    /**
+     * @return the number of pages touched before being written to, each of which a writer would otherwise have faulted
+     * in
+     */
+    long pagesTouched();
+
+    /**
+     * @return the number of pages which had already been written to when touched
+     */
+    long pagesResident();
+
+    /**
+     * @return how far ahead of the write position pages had been touched, as of the last pretouch
+     */
+    long headRoom();
+
+    /**
+     * @return the minimum distance pages are touched ahead of the write position
+     */
+    long minHeadRoom();
+
+    /**
+     * @return the number of times the minimum head room grew, as writers had caught up with the pretoucher
+     */
+    long minHeadRoomIncreases();
+}
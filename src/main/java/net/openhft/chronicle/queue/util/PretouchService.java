@@ -0,0 +1,44 @@
+package net.openhft.chronicle.queue.util;
+
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Pretouches the files of many queues ahead of their writers, so writers don't take page faults, either as an
+ * {@link EventHandler} added to an {@link net.openhft.chronicle.core.threads.EventLoop} or from another process with
+ * {@link net.openhft.chronicle.queue.main.PretoucherMain}.
+ * <p>
+ * A queue is dropped once it is closed. Closing the service releases the files it has mapped, but doesn't close the
+ * queues.
+ */
+public interface PretouchService extends EventHandler, Closeable {
+
+    /**
+     * Starts pretouching a queue.
+     *
+     * @param queue to pretouch
+     * @return the metrics of pretouching this queue
+     */
+    @NotNull
+    PretouchMetrics add(@NotNull SingleChronicleQueue queue);
+
+    /**
+     * @return the metrics of each queue being pretouched
+     */
+    @NotNull
+    List<PretouchMetrics> metrics();
+
+    /**
+     * Pretouches each queue, if the interval has passed since they were last pretouched.
+     *
+     * @return {@code false} as pretouching is background work
+     * @throws InvalidEventHandlerException once the service is closed
+     */
+    @Override
+    boolean action() throws InvalidEventHandlerException;
+}
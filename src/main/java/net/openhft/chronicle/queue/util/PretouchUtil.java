@@ -3,6 +3,7 @@ package net.openhft.chronicle.queue.util;
 import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import net.openhft.chronicle.queue.internal.InternalPretouchHandler;
+import net.openhft.chronicle.queue.internal.InternalPretouchService;
 import org.jetbrains.annotations.NotNull;
 
 public final class PretouchUtil {
@@ -12,4 +13,13 @@ public final class PretouchUtil {
     public static EventHandler createEventHandler(@NotNull final SingleChronicleQueue queue) {
         return new InternalPretouchHandler(queue);
     }
+
+    /**
+     * @param intervalMS how often to pretouch each queue
+     * @return a handler which pretouches any number of queues, with metrics for each
+     */
+    @NotNull
+    public static PretouchService createService(final long intervalMS) {
+        return new InternalPretouchService(intervalMS);
+    }
 }
\ No newline at end of file
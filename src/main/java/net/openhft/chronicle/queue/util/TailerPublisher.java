@@ -0,0 +1,66 @@
+package net.openhft.chronicle.queue.util;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A back-pressured source of excerpts read from an {@link net.openhft.chronicle.queue.ExcerptTailer}.
+ * <p>
+ * The interfaces mirror {@code java.util.concurrent.Flow} so a Java 9+ (or Reactive Streams) bridge is a thin
+ * adapter, while remaining usable on Java 8.
+ * <p>
+ * Excerpts are delivered on the thread which drives the publisher, either by adding it to an
+ * {@link net.openhft.chronicle.core.threads.EventLoop} or by calling {@link #run()} on a dedicated thread, which
+ * parks using the publisher's {@link net.openhft.chronicle.threads.Pauser} while there is no data or no demand.
+ *
+ * @param <T> the type of item delivered
+ */
+public interface TailerPublisher<T> extends EventHandler, Runnable {
+
+    /**
+     * Subscribes a {@link Subscriber}, only one subscriber is supported.
+     *
+     * @param subscriber to deliver to
+     */
+    void subscribe(@NotNull Subscriber<? super T> subscriber);
+
+    /**
+     * Delivers up to a batch of excerpts, as far as demand allows.
+     *
+     * @return {@code true} if any excerpts were delivered
+     * @throws InvalidEventHandlerException once the subscription is cancelled or completes
+     */
+    @Override
+    boolean action() throws InvalidEventHandlerException;
+
+    /**
+     * Delivers excerpts until the subscription is cancelled or completes.
+     */
+    @Override
+    void run();
+
+    /**
+     * Equivalent of {@code java.util.concurrent.Flow.Subscriber}.
+     *
+     * @param <T> the type of item received
+     */
+    interface Subscriber<T> {
+        void onSubscribe(@NotNull Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(@NotNull Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * Equivalent of {@code java.util.concurrent.Flow.Subscription}, which may be called from any thread.
+     */
+    interface Subscription {
+        void request(long n);
+
+        void cancel();
+    }
+}
@@ -0,0 +1,144 @@
+package net.openhft.chronicle.queue.util;
+
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.internal.util.InternalTailerPublisher;
+import net.openhft.chronicle.queue.internal.util.InternalTailerSpliterator;
+import net.openhft.chronicle.threads.Pauser;
+import net.openhft.chronicle.wire.WireIn;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Adapters which read a queue as a {@link Stream}, a {@link Spliterator} or a {@link TailerPublisher}.
+ * <p>
+ * Each excerpt is passed to a {@code mapper} while its document is open, the mapper should read what it needs from
+ * the wire rather than retain it.
+ */
+public final class TailerStreams {
+
+    private TailerStreams() {}
+
+    /**
+     * Returns a Spliterator over the excerpts with an index from {@code fromIndex} inclusive to {@code toIndex}
+     * exclusive. The Spliterator splits by cycle, and each part reads with its own tailer.
+     * <p>
+     * A tailer is closed once its part has been read to the end. If the Spliterator may not be read to the end, close
+     * it with {@link java.io.Closeable#close()} to close the tailers of it and its parts.
+     *
+     * @param queue     to read
+     * @param fromIndex the first index to read
+     * @param toIndex   the index to stop reading at
+     * @param mapper    to apply to each excerpt
+     * @param <T>       the type of element
+     * @return a new Spliterator
+     */
+    @NotNull
+    public static <T> Spliterator<T> spliterator(@NotNull ChronicleQueue queue,
+                                                 long fromIndex,
+                                                 long toIndex,
+                                                 @NotNull Function<? super WireIn, ? extends T> mapper) {
+        return newSpliterator(queue, fromIndex, toIndex, mapper);
+    }
+
+    @NotNull
+    private static <T> InternalTailerSpliterator<T> newSpliterator(@NotNull ChronicleQueue queue,
+                                                                   long fromIndex,
+                                                                   long toIndex,
+                                                                   @NotNull Function<? super WireIn, ? extends T> mapper) {
+        if (!(queue instanceof SingleChronicleQueue))
+            throw new IllegalArgumentException("Only a SingleChronicleQueue can be split, was " + queue.getClass().getName());
+        return new InternalTailerSpliterator<>((SingleChronicleQueue) queue, fromIndex, toIndex, mapper);
+    }
+
+    /**
+     * Returns a Stream of the excerpts with an index from {@code fromIndex} inclusive to {@code toIndex} exclusive.
+     * <p>
+     * The Stream reads with tailers which are only closed when it is closed, so it should be used in a
+     * try-with-resources statement, especially with a short-circuiting operation such as {@code findFirst()}.
+     *
+     * @param queue     to read
+     * @param fromIndex the first index to read
+     * @param toIndex   the index to stop reading at
+     * @param mapper    to apply to each excerpt
+     * @param parallel  if the stream should be split by cycle and read in parallel
+     * @param <T>       the type of element
+     * @return a new Stream
+     */
+    @NotNull
+    public static <T> Stream<T> stream(@NotNull ChronicleQueue queue,
+                                       long fromIndex,
+                                       long toIndex,
+                                       @NotNull Function<? super WireIn, ? extends T> mapper,
+                                       boolean parallel) {
+        final InternalTailerSpliterator<T> spliterator = newSpliterator(queue, fromIndex, toIndex, mapper);
+        return StreamSupport.stream(spliterator, parallel)
+                .onClose(spliterator::close);
+    }
+
+    /**
+     * Returns a Stream of all the excerpts written to the queue so far, which should be used in a try-with-resources
+     * statement, see {@link #stream(ChronicleQueue, long, long, Function, boolean)}.
+     *
+     * @param queue    to read
+     * @param mapper   to apply to each excerpt
+     * @param parallel if the stream should be split by cycle and read in parallel
+     * @param <T>      the type of element
+     * @return a new Stream
+     */
+    @NotNull
+    public static <T> Stream<T> stream(@NotNull ChronicleQueue queue,
+                                       @NotNull Function<? super WireIn, ? extends T> mapper,
+                                       boolean parallel) {
+        final long toIndex;
+        try (ExcerptTailer tailer = queue.createTailer()) {
+            toIndex = tailer.toEnd().index();
+        }
+        return stream(queue, queue.firstIndex(), toIndex, mapper, parallel);
+    }
+
+    /**
+     * Returns a publisher which delivers excerpts from the {@code tailer} as they are written, for as long as there is
+     * demand, until the subscription is cancelled.
+     *
+     * @param tailer    to read
+     * @param mapper    to apply to each excerpt
+     * @param batchSize the maximum number of excerpts delivered per {@link TailerPublisher#action()}
+     * @param pauser    used by {@link TailerPublisher#run()} while there is nothing to deliver
+     * @param <T>       the type of item
+     * @return a new publisher
+     */
+    @NotNull
+    public static <T> TailerPublisher<T> publisher(@NotNull ExcerptTailer tailer,
+                                                   @NotNull Function<? super WireIn, ? extends T> mapper,
+                                                   int batchSize,
+                                                   @NotNull Pauser pauser) {
+        return publisher(tailer, mapper, batchSize, pauser, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a publisher which delivers excerpts from the {@code tailer} and completes when it reaches
+     * {@code endIndex}.
+     *
+     * @param tailer    to read
+     * @param mapper    to apply to each excerpt
+     * @param batchSize the maximum number of excerpts delivered per {@link TailerPublisher#action()}
+     * @param pauser    used by {@link TailerPublisher#run()} while there is nothing to deliver
+     * @param endIndex  the index to complete at, exclusive
+     * @param <T>       the type of item
+     * @return a new publisher
+     */
+    @NotNull
+    public static <T> TailerPublisher<T> publisher(@NotNull ExcerptTailer tailer,
+                                                   @NotNull Function<? super WireIn, ? extends T> mapper,
+                                                   int batchSize,
+                                                   @NotNull Pauser pauser,
+                                                   long endIndex) {
+        return new InternalTailerPublisher<>(tailer, mapper, batchSize, pauser, endIndex);
+    }
+}
@@ -0,0 +1,146 @@
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.bytes.MethodReader;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.WireIn;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MergedTailerTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void mergesByKeyAcrossQueues() {
+        final File dir = getTmpDir();
+        try (ChronicleQueue q0 = queue(new File(dir, "q0"));
+             ChronicleQueue q1 = queue(new File(dir, "q1"));
+             ChronicleQueue q2 = queue(new File(dir, "q2"))) {
+            write(q0, 1, 4, 7);
+            write(q1, 2, 5, 8, 9);
+            write(q2, 3, 6);
+
+            final long[] indices;
+            try (MergedTailer tailer = MergedTailer.create(MergedTailerTest::timestamp, q0, q1, q2)) {
+                assertEquals("[1, 2, 3, 4, 5]", readAll(tailer, 5).toString());
+
+                indices = tailer.indices(new long[tailer.inputs()]);
+                assertEquals("[6, 7, 8, 9]", readAll(tailer, Integer.MAX_VALUE).toString());
+                assertEquals(1, tailer.lastInput());
+                assertEquals(9, tailer.lastKey());
+
+                // late arrivals are merged on the next read
+                write(q2, 10);
+                assertEquals("[10]", readAll(tailer, Integer.MAX_VALUE).toString());
+            }
+
+            // restart from the saved position
+            try (MergedTailer restarted = MergedTailer.create(MergedTailerTest::timestamp, q0, q1, q2)) {
+                assertTrue(restarted.moveToIndices(indices));
+                assertEquals("[6, 7, 8, 9, 10]", readAll(restarted, Integer.MAX_VALUE).toString());
+
+                assertEquals("[1, 2, 3, 4, 5, 6, 7, 8, 9, 10]", readAll(restarted.toStart(), Integer.MAX_VALUE).toString());
+            }
+        }
+    }
+
+    @Test
+    public void rollbackReadsTheSameExcerptAgain() {
+        final File dir = getTmpDir();
+        try (ChronicleQueue q0 = queue(new File(dir, "q0"));
+             ChronicleQueue q1 = queue(new File(dir, "q1"))) {
+            write(q0, 2);
+            write(q1, 1);
+
+            try (MergedTailer tailer = MergedTailer.create(MergedTailerTest::timestamp, q0, q1)) {
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    assertTrue(dc.isPresent());
+                    dc.rollbackOnClose();
+                }
+                assertEquals("[1, 2]", readAll(tailer, Integer.MAX_VALUE).toString());
+            }
+        }
+    }
+
+    @Test
+    public void closesOnlyTheTailersItCreated() {
+        final File dir = getTmpDir();
+        try (ChronicleQueue q0 = queue(new File(dir, "q0"));
+             ChronicleQueue q1 = queue(new File(dir, "q1"))) {
+            write(q0, 1);
+            write(q1, 2);
+
+            final MergedTailer created = MergedTailer.create(MergedTailerTest::timestamp, q0, q1);
+            assertEquals("[1, 2]", readAll(created, Integer.MAX_VALUE).toString());
+            created.close();
+            assertTrue(created.tailer(0).isClosed());
+            assertTrue(created.tailer(1).isClosed());
+
+            try (ExcerptTailer t0 = q0.createTailer();
+                 ExcerptTailer t1 = q1.createTailer()) {
+                final MergedTailer given = MergedTailer.create(MergedTailerTest::timestamp, t0, t1);
+                assertEquals("[1, 2]", readAll(given, Integer.MAX_VALUE).toString());
+                given.close();
+                assertFalse(t0.isClosed());
+                assertFalse(t1.isClosed());
+                assertEquals("[1]", readAll(MergedTailer.create(MergedTailerTest::timestamp, t0.toStart()), 1).toString());
+            }
+        }
+    }
+
+    @Test
+    public void mergesByMessageHistory() {
+        final File dir = getTmpDir();
+        try (ChronicleQueue q0 = SingleChronicleQueueBuilder.single(new File(dir, "q0")).testBlockSize().sourceId(1).build();
+             ChronicleQueue q1 = SingleChronicleQueueBuilder.single(new File(dir, "q1")).testBlockSize().sourceId(2).build()) {
+            final Greeter out0 = q0.acquireAppender().methodWriterBuilder(Greeter.class).recordHistory(true).get();
+            final Greeter out1 = q1.acquireAppender().methodWriterBuilder(Greeter.class).recordHistory(true).get();
+            out0.hello("a");
+            out1.hello("b");
+            out0.hello("c");
+            out1.hello("d");
+
+            final List<String> names = new ArrayList<>();
+            final MethodReader reader = MergedTailer.create(q0.createTailer(), q1.createTailer())
+                    .methodReader((Greeter) names::add);
+            while (reader.readOne()) {
+                // read all
+            }
+            assertEquals("[a, b, c, d]", names.toString());
+        }
+    }
+
+    private static ChronicleQueue queue(File path) {
+        return SingleChronicleQueueBuilder.single(path).testBlockSize().build();
+    }
+
+    private static void write(ChronicleQueue queue, long... timestamps) {
+        final ExcerptAppender appender = queue.acquireAppender();
+        for (long timestamp : timestamps)
+            appender.writeDocument(w -> w.write("ts").int64(timestamp));
+    }
+
+    private static long timestamp(WireIn wire, long index) {
+        return wire.read("ts").int64();
+    }
+
+    private static List<Long> readAll(MergedTailer tailer, int max) {
+        final List<Long> timestamps = new ArrayList<>();
+        while (timestamps.size() < max) {
+            try (DocumentContext dc = tailer.readingDocument()) {
+                if (!dc.isPresent())
+                    break;
+                timestamps.add(dc.wire().read("ts").int64());
+            }
+        }
+        return timestamps;
+    }
+
+    interface Greeter {
+        void hello(String name);
+    }
+}
@@ -0,0 +1,118 @@
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.impl.single.IndexCheck;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.queue.main.ReindexMain;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReindexMainTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void verifiesAndRepairsTheIndex() throws FileNotFoundException {
+        final File dir = getTmpDir();
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        final long position8;
+        final long position12;
+        final long position13;
+        final File file;
+        try (SingleChronicleQueue queue = queue(dir, timeProvider)) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 100; i++) {
+                if (i == 50)
+                    timeProvider.advanceMillis(2_000);
+                appender.writeText("hello " + i);
+            }
+            position8 = position(queue, 8);
+            position12 = position(queue, 12);
+            position13 = position(queue, 13);
+            file = queue.storeForCycle(0, queue.epoch(), false, null).file();
+        }
+
+        List<IndexCheck> checks = reindex(dir, false);
+        assertEquals(2, checks.size());
+        for (IndexCheck check : checks) {
+            assertTrue(check.toString(), check.ok());
+            assertEquals(50, check.messages());
+            assertEquals(13, check.checked());
+            assertTrue(check.mismatches().isEmpty());
+        }
+
+        // damage the entries for sequence 8 and 12 of the first cycle
+        try (MappedBytes bytes = MappedBytes.mappedBytes(file, 64 << 10)) {
+            final long entry8 = indexEntry(bytes, position8);
+            bytes.writeLong(entry8, 0L);
+            bytes.writeLong(entry8 + 8, position13);
+        }
+
+        checks = reindex(dir, false);
+        final IndexCheck damaged = checks.get(0);
+        assertFalse(damaged.ok());
+        assertEquals(1, damaged.missing());
+        assertEquals(1, damaged.wrong());
+        assertEquals(0, damaged.repaired());
+        assertEquals("[sequence 8 at " + position8 + " is not indexed, " +
+                        "sequence 12 at " + position12 + " is indexed at " + position13 + "]",
+                damaged.mismatches().toString());
+        assertTrue(checks.get(1).ok());
+
+        checks = reindex(dir, true);
+        assertTrue(checks.get(0).ok());
+        assertEquals(2, checks.get(0).repaired());
+
+        checks = reindex(dir, false);
+        assertTrue(checks.get(0).ok());
+        assertEquals(0, checks.get(0).missing() + checks.get(0).wrong());
+        assertEquals(position8, position(dir, timeProvider, 8));
+        assertEquals(position12, position(dir, timeProvider, 12));
+    }
+
+    private List<IndexCheck> reindex(File dir, boolean repair) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        return ReindexMain.reindex(dir, repair, 2, new PrintStream(out));
+    }
+
+    // the only occurrence of the position in the file is in the index array
+    private static long indexEntry(MappedBytes bytes, long position) {
+        for (long offset = 0; offset < bytes.realCapacity() - 8; offset += 4)
+            if (bytes.readLong(offset) == position)
+                return offset;
+        throw new AssertionError("index entry for " + position + " not found");
+    }
+
+    private static SingleChronicleQueue queue(File dir, SetTimeProvider timeProvider) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build();
+    }
+
+    private static long position(File dir, SetTimeProvider timeProvider, int sequence) {
+        try (SingleChronicleQueue queue = queue(dir, timeProvider)) {
+            return position(queue, sequence);
+        }
+    }
+
+    private static long position(SingleChronicleQueue queue, int sequence) {
+        try (ExcerptTailer tailer = queue.createTailer()) {
+            assertTrue(tailer.moveToIndex(queue.rollCycle().toIndex(0, sequence)));
+            try (DocumentContext dc = tailer.readingDocument()) {
+                assertTrue(dc.isPresent());
+                // the index records the position of the header
+                return dc.wire().bytes().readPosition() - 4;
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package net.openhft.chronicle.queue;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.queue.internal.main.InternalRerollMain;
+import net.openhft.chronicle.queue.main.RerollMain;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RerollMainTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void rewritesSecondlyCyclesIntoMinutely() {
+        final File source = getTmpDir();
+        final File target = getTmpDir();
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        final long index34;
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(source)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            // ten excerpts a second for six seconds of the first minute, and two of the second
+            for (int i = 0; i < 80; i++) {
+                if (i > 0 && i % 10 == 0)
+                    timeProvider.advanceMillis(i == 60 ? 55_000 : 1_000);
+                appender.writeText("hello " + i);
+            }
+            index34 = queue.rollCycle().toIndex(3, 4);
+
+            final ExcerptTailer named = queue.createTailer("reader");
+            for (int i = 0; i < 25; i++)
+                assertEquals("hello " + i, named.readText());
+        }
+        assertEquals(8, source.listFiles((dir, name) -> name.endsWith(SingleChronicleQueue.SUFFIX)).length);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final NavigableMap<Integer, Long> firstIndexes = RerollMain.reroll(source, target, RollCycles.MINUTELY, 2, new PrintStream(out));
+        assertEquals(8, firstIndexes.size());
+        assertTrue(out.toString(), out.toString().contains("60 excerpts from 6 source cycles"));
+        assertFalse(new File(target, ".reroll").exists());
+
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(target).build()) {
+            assertEquals(RollCycles.MINUTELY, queue.rollCycle());
+            assertEquals(2, queue.listCyclesBetween(queue.firstCycle(), queue.lastCycle()).size());
+
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 80; i++)
+                assertEquals("hello " + i, tailer.readText());
+            assertNull(tailer.readText());
+
+            final long translated = RerollMain.translate(queue, RollCycles.TEST_SECONDLY, index34);
+            assertEquals(queue.rollCycle().toIndex(0, 34), translated);
+            assertTrue(tailer.moveToIndex(translated));
+            assertEquals("hello 34", tailer.readText());
+            assertEquals(-1, RerollMain.translate(queue, RollCycles.TEST_SECONDLY, RollCycles.TEST_SECONDLY.toIndex(30, 0)));
+
+            // the named tailer carries on where it left off
+            final ExcerptTailer named = queue.createTailer("reader");
+            assertEquals("hello 25", named.readText());
+        } catch (java.text.ParseException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void onlyTranslatesNamedTailersInTheCyclesRewritten() {
+        final File source = getTmpDir();
+        final File target = getTmpDir();
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(source)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 50; i++) {
+                if (i > 0 && i % 10 == 0)
+                    timeProvider.advanceMillis(1_000);
+                appender.writeText("hello " + i);
+            }
+
+            // before the cycles rewritten
+            final ExcerptTailer early = queue.createTailer("early");
+            for (int i = 0; i < 15; i++)
+                assertEquals("hello " + i, early.readText());
+            final ExcerptTailer late = queue.createTailer("late");
+            for (int i = 0; i < 34; i++)
+                assertEquals("hello " + i, late.readText());
+        }
+
+        InternalRerollMain.reroll(source, target, RollCycles.MINUTELY, 2, Integer.MAX_VALUE, 1, new PrintStream(new ByteArrayOutputStream()));
+
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(target).build()) {
+            final Set<String> keys = new HashSet<>();
+            final TableStore<?> metaStore = queue.metaStore();
+            metaStore.forEachKey(keys, (k, key, value) -> k.add(key.toString()));
+            assertFalse(keys.toString(), keys.contains("index.early"));
+            assertTrue(keys.toString(), keys.contains("index.late"));
+
+            final ExcerptTailer late = queue.createTailer("late");
+            assertEquals("hello 34", late.readText());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rollCycleMustBeAMultiple() {
+        final File source = getTmpDir();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(source)
+                .testBlockSize()
+                .rollCycle(RollCycles.FIVE_MINUTELY)
+                .build()) {
+            queue.acquireAppender().writeText("hello");
+        }
+        RerollMain.reroll(source, getTmpDir(), RollCycles.MINUTELY, 1, System.out);
+    }
+}
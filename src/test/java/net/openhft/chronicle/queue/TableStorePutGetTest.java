@@ -2,6 +2,7 @@ package net.openhft.chronicle.queue;
 
 import net.openhft.chronicle.core.time.SetTimeProvider;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.TableStoreKey;
 import net.openhft.chronicle.wire.DocumentContext;
 import org.junit.Test;
 
@@ -108,4 +109,29 @@ public class TableStorePutGetTest extends QueueTestCommon {
             }
         }
     }
+
+    @Test
+    public void tableStoreKey() {
+        try (SingleChronicleQueue cq = ChronicleQueue.singleBuilder(DirectoryUtils.tempDir("tableStoreKey"))
+                .rollCycle(RollCycles.TEST_DAILY)
+                .testBlockSize()
+                .build()) {
+            final TableStoreKey lag = cq.tableStoreKey("=lag");
+            assertEquals("=lag", lag.key());
+            assertEquals(Long.MIN_VALUE, lag.get());
+
+            // only increased by put, as by tableStorePut
+            lag.put(10);
+            lag.put(5);
+            assertEquals(10, cq.tableStoreGet("=lag"));
+            cq.tableStorePut("=lag", 20);
+            assertEquals(20, lag.get());
+            lag.set(3);
+            assertEquals(3, cq.tableStoreGet("=lag"));
+
+            // an existing key
+            cq.tableStorePut("=replicated", 7);
+            assertEquals(7, cq.tableStoreKey("=replicated").get());
+        }
+    }
 }
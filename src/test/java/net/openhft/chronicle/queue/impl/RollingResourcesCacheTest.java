@@ -10,12 +10,19 @@ import java.io.File;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
 import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
 public class RollingResourcesCacheTest extends QueueTestCommon {
@@ -250,6 +257,38 @@ public class RollingResourcesCacheTest extends QueueTestCommon {
         }
     }
 
+    @Test
+    public void nameFormatMatchesDateTimeFormatter() {
+        final Random random = new Random(SEED);
+        final List<RollCycle> rollCycles = new ArrayList<>(Arrays.asList(RollCycles.values()));
+        rollCycles.add(WeeklyRollCycle.INSTANCE);
+        for (RollCycle rollCycle : rollCycles) {
+            final CycleNameFormat nameFormat = CycleNameFormat.compile(rollCycle.format());
+            assertNotNull(rollCycle.format(), nameFormat);
+            final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(rollCycle.format()).withZone(ZoneId.of("UTC"));
+
+            for (int i = 0; i < 2_000; i++) {
+                // from 1900 to 2100, to the second
+                final long millis = (random.nextLong() % 3_155_760_000L) * 1000;
+                final String expected = formatter.format(Instant.ofEpochMilli(millis));
+                assertEquals(expected, nameFormat.format(millis));
+                final TemporalAccessor parsed = formatter.parse(expected);
+                final long seconds = parsed.getLong(ChronoField.EPOCH_DAY) * 86400 +
+                        (parsed.isSupported(ChronoField.SECOND_OF_DAY) ? parsed.getLong(ChronoField.SECOND_OF_DAY) : 0);
+                assertEquals(seconds * 1000, nameFormat.parse(expected));
+            }
+
+            final RollingResourcesCache cache = new RollingResourcesCache(rollCycle, 0, File::new, File::getName);
+            for (int i = 0; i < 200; i++) {
+                final int cycle = random.nextInt(1 << 16) - (1 << 15);
+                final RollingResourcesCache.Resource resource = cache.resourceFor(cycle);
+                assertEquals(cycle, cache.parseCount(resource.text));
+            }
+        }
+        assertNull(CycleNameFormat.compile("xyz"));
+        assertNull(CycleNameFormat.compile("yyyy-MM"));
+    }
+
     @Test
     public void testToLong() {
         doTestToLong(RollCycles.DAILY, AM_EPOCH, 0, Long.valueOf("17633"));
@@ -11,6 +11,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.openhft.chronicle.core.io.Closeable.closeQuietly;
 import static net.openhft.chronicle.queue.DirectoryUtils.tempDir;
@@ -77,4 +78,66 @@ public class TableStoreTest extends QueueTestCommon {
             closeQuietly(c, b);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void indexesManyKeys() throws IOException, InterruptedException {
+        final File file = tempDir("table");
+        file.mkdir();
+        final File tempFile = Files.createTempFile(file.toPath(), "table", SingleTableStore.SUFFIX).toFile();
+
+        try (TableStore<Metadata.NoMeta> table = SingleTableBuilder.binary(tempFile, Metadata.NoMeta.INSTANCE).build();
+             TableStore<Metadata.NoMeta> other = SingleTableBuilder.binary(tempFile, Metadata.NoMeta.INSTANCE).build()) {
+            for (int i = 0; i < 500; i++) {
+                final LongValue value = table.acquireValueFor("index.tailer" + i, i);
+                closeQuietly(value);
+            }
+            // found in any case, and added by another instance on the same file
+            final LongValue upper = table.acquireValueFor("INDEX.TAILER123");
+            assertEquals(123, upper.getVolatileValue());
+            final LongValue added = other.acquireValueFor("added", 7);
+            final LongValue seen = table.acquireValueFor("added");
+            assertEquals(7, seen.getVolatileValue());
+            assertTrue(added.compareAndSwapValue(7, 8));
+            assertEquals(8, seen.getVolatileValue());
+            closeQuietly(upper, added, seen);
+
+            // concurrent lookups of existing keys see the same values
+            final AtomicInteger failures = new AtomicInteger();
+            final Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        final LongValue value = other.acquireValueFor("index.tailer" + i);
+                        if (value.getVolatileValue() != i)
+                            failures.incrementAndGet();
+                        closeQuietly(value);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads)
+                thread.join();
+            assertEquals(0, failures.get());
+
+            // concurrent first lookups of new keys add each once
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        final LongValue value = table.acquireValueFor("new.key" + i, i);
+                        if (value.getVolatileValue() != i)
+                            failures.incrementAndGet();
+                        closeQuietly(value);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads)
+                thread.join();
+            assertEquals(0, failures.get());
+
+            final int[] keys = {0};
+            table.forEachKey(keys, (k, key, value) -> k[0]++);
+            assertEquals(2501, keys[0]);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveIndexSpacingTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void spacingBoundsTheScan() {
+        final long maxMessages = RollCycles.DAILY.maxMessagesPerCycle();
+        assertEquals(16, AdaptiveIndexSpacing.indexSpacing(1000, 16 << 10, maxMessages, 8 << 10));
+        assertEquals(1 << 12, AdaptiveIndexSpacing.indexSpacing(16, 64 << 10, maxMessages, 8 << 10));
+        assertEquals(AdaptiveIndexSpacing.MAX_INDEX_SPACING, AdaptiveIndexSpacing.indexSpacing(1, Long.MAX_VALUE, maxMessages, 8 << 10));
+        // the index count can only grow to 4K so the spacing must be 256 to index 2^32 messages
+        assertEquals(256, AdaptiveIndexSpacing.indexSpacing(100_000, 1 << 10, maxMessages, 1 << 10));
+    }
+
+    @Test
+    public void indexCountKeepsCapacity() {
+        final long maxMessages = RollCycles.DAILY.maxMessagesPerCycle();
+        assertEquals(8 << 10, AdaptiveIndexSpacing.indexCount(maxMessages, 64, 8 << 10));
+        assertEquals(8 << 10, AdaptiveIndexSpacing.indexCount(maxMessages, 4096, 8 << 10));
+        assertEquals(16 << 10, AdaptiveIndexSpacing.indexCount(maxMessages, 16, 8 << 10));
+    }
+
+    @Test
+    public void nextCycleUsesPreviousMessageSize() {
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        final char[] chars = new char[1000];
+        Arrays.fill(chars, 'x');
+        final String text = new String(chars);
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .adaptiveIndexSpacing(16 << 10)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 100; i++)
+                appender.writeText(text);
+            timeProvider.advanceMillis(1000);
+            for (int i = 0; i < 100; i++)
+                appender.writeText(text);
+
+            // the first cycle has nothing to go on
+            assertEquals(RollCycles.TEST_SECONDLY.defaultIndexSpacing(), indexSpacing(queue, 0));
+            assertEquals(16, indexSpacing(queue, 1));
+
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 99; i >= 0; i -= 7) {
+                assertTrue(tailer.moveToIndex(queue.rollCycle().toIndex(1, i)));
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    assertTrue(dc.isPresent());
+                    assertEquals(queue.rollCycle().toIndex(1, i), dc.index());
+                }
+            }
+        }
+    }
+
+    private static int indexSpacing(SingleChronicleQueue queue, int cycle) {
+        try (SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null)) {
+            return store.rollIndexSpacing();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.TailerDirection;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CycleArchiveTest extends ChronicleQueueTestBase {
+    private static final int MESSAGES = 2_000;
+
+    @Test
+    public void archivedCyclesAreReadTransparently() throws IOException {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis());
+        final int[] cycles = new int[3];
+        try (SingleChronicleQueue queue = builder(dir, time).build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int c = 0; c < cycles.length; c++) {
+                for (int i = 0; i < MESSAGES; i++)
+                    appender.writeText("cycle " + c + " message " + i);
+                cycles[c] = appender.cycle();
+                time.advanceMillis(1000);
+            }
+
+            assertFalse(queue.archiveCycle(cycles[0] - 1));
+            final File file;
+            try (SingleChronicleQueueStore store = queue.storeForCycle(cycles[1], queue.epoch(), false, null)) {
+                file = store.file();
+            }
+            final long length = file.length();
+            assertTrue(queue.archiveCycle(cycles[0]));
+            assertTrue(queue.archiveCycle(cycles[1]));
+            assertFalse(queue.archiveCycle(cycles[1]));
+            assertFalse(file.exists());
+            final File archive = CycleArchive.archiveFileFor(file);
+            assertTrue(archive.exists());
+            assertTrue(archive.length() + " of " + length, archive.length() * 5 < length);
+
+            try {
+                queue.archiveCycle(cycles[2] + 1);
+                fail();
+            } catch (IllegalArgumentException expected) {
+                // the current cycle can't be archived
+            }
+
+            readAll(queue, cycles);
+        }
+
+        try (SingleChronicleQueue queue = builder(dir, time).readOnly(true).build()) {
+            assertEquals(cycles[0], queue.firstCycle());
+            readAll(queue, cycles);
+        }
+    }
+
+    @Test
+    public void framesStartAtIndexedExcerpts() throws IOException {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis());
+        try (SingleChronicleQueue queue = builder(dir, time).build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < MESSAGES; i++)
+                appender.writeText("message " + i);
+            final int cycle = appender.cycle();
+            time.advanceMillis(1000);
+            appender.writeText("next");
+
+            final File archiveDir = getTmpDir();
+            assertTrue(archiveDir.mkdirs());
+            final File target = new File(archiveDir, "frames" + CycleArchive.SUFFIX);
+            try (SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null)) {
+                CycleArchive.archive(store, target, 4 << 10);
+                final byte[] original = Files.readAllBytes(store.file().toPath());
+
+                try (CycleArchive archive = CycleArchive.open(target)) {
+                    assertTrue(archive.frameCount() > 4);
+                    assertEquals(original.length, archive.fileLength());
+                    assertEquals(-1, archive.frameFor(archive.dataLength()));
+                    for (int i = 0; i < archive.frameCount(); i++) {
+                        final long start = archive.frameStart(i);
+                        assertEquals(i, archive.frameFor(start));
+                        final byte[] frame = archive.readFrame(i);
+                        assertArrayEquals(Arrays.copyOfRange(original, (int) start, (int) start + frame.length), frame);
+                        if (i > 0) {
+                            // each frame starts with an indexed excerpt
+                            final long sequence = store.sequenceForPosition(queue.acquireTailer(), start, true);
+                            assertEquals(0, sequence % store.rollIndexSpacing());
+                        }
+                    }
+
+                    final File restored = new File(archiveDir, "restored");
+                    archive.restoreTo(restored);
+                    assertArrayEquals(original, Files.readAllBytes(restored.toPath()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void restoredCopiesAreSharedBetweenQueues() throws Exception {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis());
+        final int[] cycles = new int[3];
+        try (SingleChronicleQueue queue = builder(dir, time).build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int c = 0; c < cycles.length; c++) {
+                for (int i = 0; i < MESSAGES; i++)
+                    appender.writeText("cycle " + c + " message " + i);
+                cycles[c] = appender.cycle();
+                time.advanceMillis(1000);
+            }
+            // a tailer reading a cycle as it's archived carries on
+            try (ExcerptTailer tailer = queue.createTailer()) {
+                assertEquals("cycle 0 message 0", tailer.readText());
+                assertTrue(queue.archiveCycle(cycles[0]));
+                assertEquals("cycle 0 message 1", tailer.readText());
+            }
+            assertTrue(queue.archiveCycle(cycles[1]));
+
+            try (SingleChronicleQueue other = builder(dir, time).readOnly(true).build()) {
+                // both cycles are acquired by several threads at once, each restored once
+                final ExecutorService service = Executors.newFixedThreadPool(4);
+                try {
+                    final List<Future<?>> futures = new ArrayList<>();
+                    for (SingleChronicleQueue q : new SingleChronicleQueue[]{queue, other, queue, other})
+                        futures.add(service.submit(() -> readAll(q, cycles)));
+                    for (Future<?> future : futures)
+                        future.get();
+                } finally {
+                    service.shutdown();
+                    assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+                }
+
+                final SingleChronicleQueueStore store = queue.storeForCycle(cycles[1], queue.epoch(), false, null);
+                assertNotNull(store);
+                final File restored = store.file();
+                try {
+                    assertTrue(restored.exists());
+                    final SingleChronicleQueueStore otherStore = other.storeForCycle(cycles[1], other.epoch(), false, null);
+                    assertNotNull(otherStore);
+                    assertEquals(restored, otherStore.file());
+                    other.closeStore(otherStore);
+                    // left for the queue which restored it
+                    assertTrue(restored.exists());
+                } finally {
+                    queue.closeStore(store);
+                }
+                // deleted once released
+                assertFalse(restored.exists());
+            }
+        }
+    }
+
+    @Test
+    public void restoredCopiesAreLimited() throws IOException {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis());
+        final int[] cycles = new int[3];
+        final long length;
+        try (SingleChronicleQueue queue = builder(dir, time).build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int c = 0; c < cycles.length; c++) {
+                for (int i = 0; i < MESSAGES; i++)
+                    appender.writeText("cycle " + c + " message " + i);
+                cycles[c] = appender.cycle();
+                time.advanceMillis(1000);
+            }
+            try (SingleChronicleQueueStore store = queue.storeForCycle(cycles[0], queue.epoch(), false, null)) {
+                length = store.file().length();
+            }
+            assertTrue(queue.archiveCycle(cycles[0]));
+            assertTrue(queue.archiveCycle(cycles[1]));
+        }
+
+        // room for one copy and a bit
+        try (SingleChronicleQueue queue = builder(dir, time).restoreDirMaxBytes(length * 3 / 2).readOnly(true).build()) {
+            final SingleChronicleQueueStore store = queue.storeForCycle(cycles[0], queue.epoch(), false, null);
+            assertNotNull(store);
+            final File restored = store.file();
+            try {
+                // a copy left by a process which didn't close its queue is deleted to make room
+                final File stale = new File(restored.getParentFile(), "stale" + SingleChronicleQueue.SUFFIX);
+                Files.write(stale.toPath(), new byte[(int) (length / 2)]);
+                try {
+                    queue.storeForCycle(cycles[1], queue.epoch(), false, null);
+                    fail();
+                } catch (Exception expected) {
+                    assertTrue(expected.toString(), expected.getMessage().contains("restoreDirMaxBytes"));
+                }
+                assertFalse(stale.exists());
+            } finally {
+                queue.closeStore(store);
+            }
+            assertFalse(restored.exists());
+
+            // once the first is released the second has room
+            final SingleChronicleQueueStore second = queue.storeForCycle(cycles[1], queue.epoch(), false, null);
+            assertNotNull(second);
+            queue.closeStore(second);
+        }
+    }
+
+    private static SingleChronicleQueueBuilder builder(File dir, SetTimeProvider time) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(time);
+    }
+
+    private static void readAll(SingleChronicleQueue queue, int[] cycles) {
+        try (ExcerptTailer tailer = queue.createTailer()) {
+            for (int c = 0; c < cycles.length; c++) {
+                for (int i = 0; i < MESSAGES; i++) {
+                    try (DocumentContext dc = tailer.readingDocument()) {
+                        assertTrue(dc.isPresent());
+                        assertEquals(queue.rollCycle().toIndex(cycles[c], i), dc.index());
+                        assertEquals("cycle " + c + " message " + i, dc.wire().getValueIn().text());
+                    }
+                }
+            }
+            try (DocumentContext dc = tailer.readingDocument()) {
+                assertFalse(dc.isPresent());
+            }
+
+            assertTrue(tailer.moveToIndex(queue.rollCycle().toIndex(cycles[1], 1234)));
+            assertEquals("cycle 1 message 1234", tailer.readText());
+            tailer.direction(TailerDirection.BACKWARD).toEnd();
+            int read = 0;
+            while (tailer.readText() != null)
+                read++;
+            assertEquals(cycles.length * MESSAGES, read);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.text.ParseException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CycleIndexTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void sortedCopyOnWrite() {
+        final CycleIndex index = new CycleIndex();
+        assertEquals(Integer.MAX_VALUE, index.first());
+        assertEquals(Integer.MIN_VALUE, index.last());
+        assertEquals(-1, index.higher(0));
+
+        index.reset(new int[]{30, 10, 20, 10, 50});
+        assertEquals(4, index.size());
+        index.add(40);
+        index.add(40);
+        index.add(5);
+        assertEquals(6, index.size());
+        assertEquals(5, index.first());
+        assertEquals(50, index.last());
+
+        assertTrue(index.contains(40));
+        assertFalse(index.contains(41));
+        assertEquals(20, index.higher(10));
+        assertEquals(20, index.higher(11));
+        assertEquals(-1, index.higher(50));
+        assertEquals(10, index.lower(20));
+        assertEquals(10, index.lower(19));
+        assertEquals(-1, index.lower(5));
+        assertEquals(Arrays.asList(10L, 20L, 30L), Arrays.asList(index.between(6, 30).toArray()));
+
+        index.remove(20);
+        index.remove(21);
+        assertEquals(30, index.higher(10));
+        index.removeBefore(30);
+        assertEquals(Arrays.asList(30L, 40L, 50L), Arrays.asList(index.between(0, 100).toArray()));
+    }
+
+    @Test
+    public void findsCyclesCreatedByAnotherQueue() throws ParseException {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        try (SingleChronicleQueue reader = builder(dir, time).build();
+             SingleChronicleQueue writer = builder(dir, time).build()) {
+            final int first = writer.cycle();
+            for (int i = 0; i < 3; i++) {
+                writer.acquireAppender().writeText("cycle " + i);
+                time.advanceMillis(1_000);
+            }
+
+            final ExcerptTailer tailer = reader.createTailer();
+            for (int i = 0; i < 3; i++)
+                assertEquals("cycle " + i, tailer.readText());
+            assertNull(tailer.readText());
+
+            // skip some cycles, then write more from the other queue
+            time.advanceMillis(10_000);
+            for (int i = 3; i < 5; i++) {
+                writer.acquireAppender().writeText("cycle " + i);
+                time.advanceMillis(1_000);
+            }
+            for (int i = 3; i < 5; i++)
+                assertEquals("cycle " + i, tailer.readText());
+            assertNull(tailer.readText());
+
+            assertEquals(Arrays.asList((long) first, first + 1L, first + 2L, first + 13L, first + 14L),
+                    Arrays.asList(reader.listCyclesBetween(first, first + 14).toArray()));
+            assertEquals(Arrays.asList(first + 2L, first + 13L),
+                    Arrays.asList(reader.listCyclesBetween(first + 2, first + 13).toArray()));
+        }
+    }
+
+    private static SingleChronicleQueueBuilder builder(File dir, SetTimeProvider time) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(time);
+    }
+}
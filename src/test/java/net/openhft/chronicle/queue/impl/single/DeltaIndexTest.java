@@ -0,0 +1,125 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.bytes.ref.BinaryLongArrayReference;
+import net.openhft.chronicle.bytes.ref.BinaryLongReference;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StreamCorruptedException;
+
+import static org.junit.Assert.*;
+
+public class DeltaIndexTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void canStore() {
+        assertTrue(DeltaIndexArray.canStore(1000, 1004));
+        assertTrue(DeltaIndexArray.canStore(1000, 996));
+        assertTrue(DeltaIndexArray.canStore(1000, 1000 + (Integer.MAX_VALUE * 4L)));
+        assertFalse(DeltaIndexArray.canStore(1000, 1000 + (Integer.MAX_VALUE + 1L) * 4));
+        // not aligned
+        assertFalse(DeltaIndexArray.canStore(1000, 1002));
+        // the base itself is not set
+        assertFalse(DeltaIndexArray.canStore(1000, 1000));
+    }
+
+    @Test
+    public void bindsElements() {
+        final Bytes<?> bytes = Bytes.allocateElasticDirect();
+        final BinaryLongArrayReference packed = new BinaryLongArrayReference();
+        try {
+            BinaryLongArrayReference.write(bytes, 4);
+            packed.bytesStore(bytes, 0, bytes.writePosition());
+            final DeltaIndexArray array = new DeltaIndexArray(packed).base(1000);
+
+            final DeltaIndexArray.Element element = new DeltaIndexArray.Element();
+            array.bindValueAt(3, element);
+            array.setValueAt(3, 1400);
+            assertEquals(1400, element.getValue());
+            // the element keeps the base it was bound with
+            array.base(2000);
+            element.setOrderedValue(1800);
+            assertEquals(1800, element.getVolatileValue());
+            assertEquals(1800, array.base(1000).getValueAt(3));
+            assertEquals(0, array.getValueAt(2));
+
+            assertTrue(element.compareAndSwapValue(1800, 2004));
+            assertFalse(element.compareAndSwapValue(1800, 1804));
+            assertEquals(2008, element.addAtomicValue(4));
+            // not aligned, so left unset
+            element.setValue(2002);
+            assertEquals(2008, element.getValue());
+
+            try {
+                array.bindValueAt(0, new BinaryLongReference());
+                fail();
+            } catch (IllegalArgumentException expected) {
+                // only an Element can be bound
+            }
+        } finally {
+            packed.close();
+            bytes.releaseLast();
+        }
+    }
+
+    @Test
+    public void indexesWithDeltas() throws StreamCorruptedException {
+        final File dir = getTmpDir();
+        final int messages = 60;
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_DAILY)
+                .indexCount(8)
+                .indexSpacing(1)
+                .deltaIndex(true)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < messages; i++)
+                appender.writeText("hello " + i);
+
+            final int cycle = appender.cycle();
+            try (SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null)) {
+                assertTrue(store.deltaIndex());
+                assertTrue(store.dumpHeader(), store.dumpHeader().contains("deltaIndex: true"));
+                assertTrue(store.dump().contains("deltaIndex: ["));
+
+                final IndexCheck check = store.checkIndex(queue.wireType(), false);
+                assertTrue(check.toString(), check.ok());
+                assertEquals(messages, check.checked());
+            }
+
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = messages - 1; i >= 0; i -= 3) {
+                final long index = queue.rollCycle().toIndex(cycle, i);
+                assertTrue(tailer.moveToIndex(index));
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    assertTrue(dc.isPresent());
+                    assertEquals(index, dc.index());
+                    assertEquals("hello " + i, dc.wire().getValueIn().text());
+                }
+            }
+            assertEquals(queue.rollCycle().toIndex(cycle, messages), tailer.toEnd().index());
+            assertEquals(queue.rollCycle().toIndex(cycle, messages - 1), appender.lastIndexAppended());
+        }
+    }
+
+    @Test
+    public void plainIndexByDefault() {
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_DAILY)
+                .build()) {
+            queue.acquireAppender().writeText("hello");
+            try (SingleChronicleQueueStore store = queue.storeForCycle(queue.lastCycle(), queue.epoch(), false, null)) {
+                assertFalse(store.deltaIndex());
+                assertFalse(store.dumpHeader().contains("deltaIndex"));
+            }
+        }
+    }
+}
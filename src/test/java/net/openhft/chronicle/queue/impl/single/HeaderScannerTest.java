@@ -0,0 +1,84 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.Wire;
+import org.junit.Test;
+
+import java.io.StreamCorruptedException;
+
+import static org.junit.Assert.*;
+
+public class HeaderScannerTest extends ChronicleQueueTestBase {
+    private static final int MESSAGES = 20_000;
+
+    @Test
+    public void skipsHeadersAcrossChunks() throws StreamCorruptedException {
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_DAILY)
+                .indexCount(64)
+                .indexSpacing(1024)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < MESSAGES; i++) {
+                if (i % 7 == 0) {
+                    try (DocumentContext dc = appender.writingDocument(true)) {
+                        dc.wire().write("meta").int32(i);
+                    }
+                }
+                try (DocumentContext dc = appender.writingDocument()) {
+                    dc.wire().write("n").int32(i).write("text").text("some text to make the message longer");
+                }
+            }
+            final int cycle = appender.cycle();
+
+            final long[] positions = new long[MESSAGES];
+            try (ExcerptTailer tailer = queue.createTailer()) {
+                for (int i = 0; i < MESSAGES; i++) {
+                    try (DocumentContext dc = tailer.readingDocument()) {
+                        positions[i] = dc.wire().bytes().readPosition() - 4;
+                    }
+                }
+            }
+            // the messages span many chunks
+            assertTrue(positions[MESSAGES - 1] > 4 * queue.blockSize());
+
+            try (SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null);
+                 MappedBytes bytes = store.bytes()) {
+                final Wire wire = queue.wireType().apply(bytes);
+                wire.usePadding(true);
+                for (int n : new int[]{0, 1, 2, 1023, 5000, MESSAGES - 1}) {
+                    bytes.readPositionUnlimited(positions[0]);
+                    assertEquals(n, HeaderScanner.skipHeaders(wire, n, Long.MAX_VALUE));
+                    assertEquals(positions[n], bytes.readPosition());
+                }
+                // stops at the end of the data
+                bytes.readPositionUnlimited(positions[0]);
+                assertEquals(MESSAGES, HeaderScanner.skipHeaders(wire, Long.MAX_VALUE, Long.MAX_VALUE));
+
+                // stops before a position
+                bytes.readPositionUnlimited(positions[0]);
+                assertEquals(12_345, HeaderScanner.skipHeaders(wire, Long.MAX_VALUE, positions[12_345]));
+                assertEquals(positions[12_345], bytes.readPosition());
+            }
+
+            try (ExcerptTailer tailer = queue.createTailer()) {
+                for (int i = MESSAGES - 1; i >= 0; i -= 997) {
+                    final long index = queue.rollCycle().toIndex(cycle, i);
+                    assertTrue(tailer.moveToIndex(index));
+                    try (DocumentContext dc = tailer.readingDocument()) {
+                        assertEquals(index, dc.index());
+                        assertEquals(i, dc.wire().read("n").int32());
+                    }
+                }
+                assertEquals(queue.rollCycle().toIndex(cycle, MESSAGES), tailer.toEnd().index());
+                assertEquals(MESSAGES - 1, queue.rollCycle().toSequenceNumber(appender.lastIndexAppended()));
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HugePagesTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void findsThePageSizeOfTheMount() {
+        final List<String> mounts = Arrays.asList(
+                "/dev/sda1 / ext4 rw,relatime 0 0",
+                "tmpfs /dev/shm tmpfs rw,nosuid,nodev,huge=within_size 0 0",
+                "hugetlbfs /mnt/huge hugetlbfs rw,relatime,pagesize=1024M 0 0",
+                "hugetlbfs /mnt/huge2 hugetlbfs rw,relatime 0 0");
+
+        assertEquals("/", HugePages.mountOf(new File("/data/queue"), mounts)[1]);
+        assertEquals("/", HugePages.mountOf(new File("/mnt/huge2x/queue"), mounts)[1]);
+        final String[] huge = HugePages.mountOf(new File("/mnt/huge/queue"), mounts);
+        assertEquals("/mnt/huge", huge[1]);
+
+        assertEquals(1L << 30, HugePages.pageSizeOf(huge[2], huge[3], 2 << 20));
+        assertEquals(2L << 20, HugePages.pageSizeOf("hugetlbfs", "rw,relatime", 2 << 20));
+        assertEquals(2L << 20, HugePages.pageSizeOf("tmpfs", "rw,huge=within_size", 1 << 30));
+        assertEquals(2L << 20, HugePages.pageSizeOf("tmpfs", "rw,huge=always", 1 << 30));
+        assertEquals(0, HugePages.pageSizeOf("tmpfs", "rw,huge=advise", 2 << 20));
+        assertEquals(0, HugePages.pageSizeOf("tmpfs", "rw,huge=never", 2 << 20));
+        assertEquals(0, HugePages.pageSizeOf("ext4", "rw,relatime", 2 << 20));
+
+        assertEquals(2048L << 10, HugePages.parseSize("2048 kB"));
+        assertEquals(2L << 20, HugePages.parseSize("2M"));
+        assertEquals(4L << 20, HugePages.align(3 << 20, 2 << 20));
+        assertEquals(2L << 20, HugePages.align(2 << 20, 2 << 20));
+
+        assertEquals(HugePages.DEFAULT_SIZE, HugePages.alignmentFor(4 << 10));
+        assertEquals(1L << 30, HugePages.alignmentFor(1L << 30));
+    }
+
+    @Test
+    public void alignsMappingsToHugePages() {
+        final File dir = getTmpDir();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_DAILY)
+                .hugePages(true)
+                .build()) {
+            // pretouched with the page size of the file system, but aligned to huge pages either way
+            final long pageSize = queue.pageSize();
+            assertTrue(pageSize == OS.pageSize() || pageSize >= HugePages.DEFAULT_SIZE);
+            final long alignment = HugePages.alignmentFor(pageSize);
+            assertEquals(0, queue.blockSize() % alignment);
+            assertEquals(0, queue.overlapSize() % alignment);
+
+            final ExcerptAppender appender = queue.acquireAppender();
+            final char[] chars = new char[100_000];
+            Arrays.fill(chars, 'x');
+            final String text = new String(chars);
+            for (int i = 0; i < 50; i++)
+                appender.writeText(text);
+
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 50; i++)
+                assertEquals(text, tailer.readText());
+            assertNull(tailer.readText());
+        }
+    }
+}
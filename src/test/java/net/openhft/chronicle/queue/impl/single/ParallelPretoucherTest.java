@@ -0,0 +1,81 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytesStore;
+import net.openhft.chronicle.bytes.MappedFile;
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.io.ReferenceOwner;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class ParallelPretoucherTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void touchesEveryPageAcrossChunks() throws IOException {
+        final File file = new File(getTmpDir(), "pretouch.cq4");
+        file.getParentFile().mkdirs();
+        final int pageSize = OS.pageSize();
+        final MappedFile mappedFile = MappedFile.of(file, 64 << 10, 16 << 10, false);
+        try (ParallelPretoucher pretoucher = new ParallelPretoucher("test", 4)) {
+            // written pages are counted as resident
+            final ReferenceOwner owner = ReferenceOwner.temporary("test");
+            final MappedBytesStore store = mappedFile.acquireByteStore(owner, 0);
+            store.writeLong(pageSize, 1);
+            store.writeLong(3L * pageSize, 1);
+            store.release(owner);
+
+            assertEquals(1, pretoucher.workers());
+            // as if each of 100 pages took a millisecond to fault in
+            pretoucher.onSerialTouch(100, 100_000_000);
+            assertEquals(4, pretoucher.workers());
+
+            final int pages = 200;
+            assertEquals(pages - 2, pretoucher.touch(mappedFile, 0, (long) pages * pageSize, pageSize));
+            assertTrue(file.length() >= (long) pages * pageSize);
+
+            // faulting in quickly needs fewer workers
+            for (int i = 0; i < 10; i++)
+                pretoucher.onSerialTouch(1, 1_000);
+            assertEquals(1, pretoucher.workers());
+        } finally {
+            mappedFile.releaseLast();
+        }
+    }
+
+    @Test
+    public void pretouchesQueueInParallel() throws InvalidEventHandlerException {
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .rollCycle(RollCycles.TEST_DAILY)
+                .blockSize(1 << 20)
+                .pretouchThreads(4)
+                .build();
+             Pretoucher pretoucher = new Pretoucher(queue)) {
+            assertEquals(4, queue.pretouchThreads());
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 50; i++) {
+                try (DocumentContext dc = appender.writingDocument()) {
+                    dc.wire().bytes().writeInt(i).writeSkip(32 << 10);
+                }
+                pretoucher.execute();
+            }
+            assertTrue(pretoucher.pagesTouched() > 0);
+            assertTrue(pretoucher.headRoom() > 0);
+
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 50; i++) {
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    assertEquals(i, dc.wire().bytes().readInt());
+                }
+            }
+        }
+    }
+}
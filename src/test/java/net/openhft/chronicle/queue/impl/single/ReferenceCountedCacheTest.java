@@ -0,0 +1,96 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.bytes.MappedBytes;
+import net.openhft.chronicle.bytes.MappedFile;
+import net.openhft.chronicle.core.io.BackgroundResourceReleaser;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.util.CacheMetrics;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class ReferenceCountedCacheTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void evictsLeastRecentlyUsedUnheldFiles() throws IOException {
+        final File dir = getTmpDir();
+        dir.mkdirs();
+        final ReferenceCountedCache<File, MappedFile, MappedBytes, IOException> cache = new ReferenceCountedCache<>(
+                MappedBytes::mappedBytes, file -> MappedFile.of(file, 64 << 10, 0, false), 2);
+        try {
+            final File[] files = new File[3];
+            final MappedFile[] mappedFiles = new MappedFile[files.length];
+            for (int i = 0; i < files.length; i++) {
+                files[i] = new File(dir, i + ".cq4");
+                final MappedBytes bytes = cache.get(files[i]);
+                mappedFiles[i] = bytes.mappedFile();
+                bytes.releaseLast();
+                // file 0 is used again, so file 1 is the least recently used
+                if (i == 1)
+                    cache.get(files[0]).releaseLast();
+            }
+            BackgroundResourceReleaser.releasePendingResources();
+            cache.bgCleanup();
+
+            assertEquals(2, cache.size());
+            assertEquals(1, cache.evictions());
+            assertEquals(1, cache.hits());
+            assertEquals(3, cache.misses());
+            assertEquals(0, mappedFiles[1].refCount());
+            assertTrue(mappedFiles[0].refCount() > 0);
+            assertTrue(mappedFiles[2].refCount() > 0);
+
+            // held files are never evicted
+            final MappedBytes held1 = cache.get(files[1]);
+            final MappedBytes held2 = cache.get(files[2]);
+            BackgroundResourceReleaser.releasePendingResources();
+            cache.bgCleanup();
+            assertEquals(2, cache.size());
+            assertTrue(held1.mappedFile().refCount() > 0);
+            assertTrue(held2.mappedFile().refCount() > 0);
+            held1.releaseLast();
+            held2.releaseLast();
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void queueReportsMappedFileCacheMetrics() {
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .mappedFileCacheSize(8)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 5; i++) {
+                appender.writeText("hello " + i);
+                timeProvider.advanceMillis(1_000);
+            }
+
+            // reading back and forth between cycles reuses their mappings
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int n = 0; n < 3; n++) {
+                for (int i = 0; i < 5; i++) {
+                    assertTrue(tailer.moveToIndex(queue.rollCycle().toIndex(i, 0)));
+                    assertEquals("hello " + i, tailer.readText());
+                }
+            }
+            final CacheMetrics metrics = queue.mappedFileCacheMetrics();
+            assertEquals(8, metrics.maxSize());
+            assertEquals(5, metrics.misses());
+            assertTrue(metrics.hits() > 10);
+            assertEquals(0, metrics.evictions());
+            assertEquals(5, metrics.size());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RetentionTest extends ChronicleQueueTestBase {
+    private static final int CYCLES = 5;
+
+    @Test
+    public void deletesCyclesOlderThanMaxAge() {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        try (SingleChronicleQueue queue = builder(dir, time).retentionMaxAgeMS(2_500).build()) {
+            final int first = write(queue, time);
+            assertEquals(first, queue.firstCycle());
+
+            // cycles which ended more than 2.5 seconds ago
+            assertEquals(2, queue.applyRetention());
+            assertEquals(first + 2, queue.firstCycle());
+            assertEquals(CYCLES - 2, dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX)).length);
+            assertEquals(0, queue.applyRetention());
+
+            final ExcerptTailer tailer = queue.createTailer();
+            assertEquals("cycle 2", tailer.readText());
+
+            // the latest cycle is always kept
+            time.advanceMillis(TimeUnit.DAYS.toMillis(1));
+            assertEquals(CYCLES - 3, queue.applyRetention());
+            assertEquals(first + CYCLES - 1, queue.firstCycle());
+            assertEquals(1, dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX)).length);
+        }
+    }
+
+    @Test
+    public void keepsCyclesOfTheSlowestNamedTailer() {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        try (SingleChronicleQueue queue = builder(dir, time).retentionMaxAgeMS(0).build()) {
+            final ExcerptTailer slow = queue.createTailer("slow");
+            final ExcerptTailer fast = queue.createTailer("fast");
+            final int first = write(queue, time);
+
+            // a named tailer which hasn't read anything keeps every cycle
+            assertEquals(0, queue.applyRetention());
+
+            for (int i = 0; i < CYCLES; i++)
+                assertEquals("cycle " + i, fast.readText());
+            assertEquals("cycle 0", slow.readText());
+            assertEquals("cycle 1", slow.readText());
+            assertEquals("cycle 2", slow.readText());
+            assertEquals(2, queue.applyRetention());
+            assertEquals(first + 2, queue.firstCycle());
+
+            assertEquals("cycle 3", slow.readText());
+            assertEquals("cycle 4", slow.readText());
+            assertEquals(2, queue.applyRetention());
+            assertEquals(first + CYCLES - 1, queue.firstCycle());
+        }
+    }
+
+    @Test
+    public void deletesOldestCyclesOverMaxBytes() {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        try (SingleChronicleQueue queue = builder(dir, time).build()) {
+            write(queue, time);
+        }
+        final File[] files = dir.listFiles((d, n) -> n.endsWith(SingleChronicleQueue.SUFFIX));
+        long total = 0;
+        for (File file : files)
+            total += file.length();
+
+        try (SingleChronicleQueue queue = builder(dir, time).retentionMaxBytes(total - 1).build()) {
+            final int first = queue.firstCycle();
+            assertEquals(1, queue.applyRetention());
+            assertEquals(first + 1, queue.firstCycle());
+            assertEquals(0, queue.applyRetention());
+        }
+    }
+
+    @Test
+    public void appliedOnTheEventLoop() {
+        final File dir = getTmpDir();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        try (SingleChronicleQueue queue = builder(dir, time)
+                .retentionMaxAgeMS(0)
+                .retentionCheckIntervalMS(100)
+                .build()) {
+            final int first = write(queue, time);
+            final long end = System.currentTimeMillis() + 5_000;
+            while (queue.firstCycle() != first + CYCLES - 1) {
+                assertTrue("cycles not deleted", System.currentTimeMillis() < end);
+                Jvm.pause(10);
+                queue.refreshDirectoryListing();
+            }
+        }
+    }
+
+    private static SingleChronicleQueueBuilder builder(File dir, SetTimeProvider time) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(time)
+                // applied directly by the tests
+                .retentionCheckIntervalMS(TimeUnit.DAYS.toMillis(30));
+    }
+
+    private static int write(SingleChronicleQueue queue, SetTimeProvider time) {
+        final ExcerptAppender appender = queue.acquireAppender();
+        int first = -1;
+        for (int i = 0; i < CYCLES; i++) {
+            appender.writeText("cycle " + i);
+            if (first < 0)
+                first = appender.cycle();
+            time.advanceMillis(1_000);
+        }
+        return first;
+    }
+}
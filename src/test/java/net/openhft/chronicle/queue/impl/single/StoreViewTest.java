@@ -0,0 +1,60 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycles;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StoreViewTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void sharesTheStoreOfACycleUntilTheLastViewIsClosed() {
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .rollCycle(RollCycles.TEST_DAILY)
+                .testBlockSize()
+                .build()) {
+            final int cycle = queue.cycle();
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 10; i++)
+                appender.writeText("hello " + i);
+
+            final SingleChronicleQueueStore a = queue.storeForCycle(cycle, queue.epoch(), false, null);
+            final SingleChronicleQueueStore b = queue.storeForCycle(cycle, queue.epoch(), false, null);
+            assertNotNull(a);
+            assertNotNull(b);
+            assertNotSame(a, b);
+            assertSame(a.indexing, b.indexing);
+
+            // closing a view leaves the others open
+            queue.closeStore(a);
+            assertTrue(a.isClosed());
+            assertFalse(b.indexing.isClosed());
+            final long writePosition = b.writePosition();
+            assertTrue(writePosition > 0);
+
+            try (ExcerptTailer tailer1 = queue.createTailer();
+                 ExcerptTailer tailer2 = queue.createTailer()) {
+                for (int i = 0; i < 10; i++) {
+                    assertEquals("hello " + i, tailer1.readText());
+                    assertEquals("hello " + i, tailer2.readText());
+                }
+            }
+            appender.close();
+            queue.closeStore(b);
+            // the last view closes the shared store
+            assertTrue(b.indexing.isClosed());
+
+            final SingleChronicleQueueStore c = queue.storeForCycle(cycle, queue.epoch(), false, null);
+            assertNotNull(c);
+            try {
+                assertNotSame(b.indexing, c.indexing);
+                assertEquals(writePosition, c.writePosition());
+            } finally {
+                queue.closeStore(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.values.LongValue;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.impl.TableStore;
+import net.openhft.chronicle.queue.impl.table.AbstractTSQueueLock;
+import net.openhft.chronicle.queue.util.LockMetrics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TableStoreFairWriteLockTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void grantsTheLockInTheOrderAskedFor() throws InterruptedException {
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .testBlockSize()
+                .fairWriteLock(true)
+                .build()) {
+            final WriteLock writeLock = queue.writeLock();
+            final LockMetrics metrics = queue.writeLockMetrics();
+            assertNotNull(metrics);
+
+            final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            final List<Thread> threads = new ArrayList<>();
+            writeLock.lock();
+            for (int i = 0; i < 4; i++) {
+                final int id = i;
+                final Thread thread = new Thread(() -> {
+                    writeLock.lock();
+                    order.add(id);
+                    writeLock.unlock();
+                });
+                thread.start();
+                threads.add(thread);
+                // wait for it to take its ticket before the next asks
+                while (metrics.queueLength() < i + 2)
+                    Jvm.pause(1);
+            }
+            assertEquals(Jvm.getProcessId(), metrics.lockedBy());
+            writeLock.unlock();
+            for (Thread thread : threads)
+                thread.join();
+
+            assertEquals("[0, 1, 2, 3]", order.toString());
+            assertEquals(5, metrics.acquisitions());
+            assertEquals(0, metrics.queueLength());
+            assertEquals(AbstractTSQueueLock.UNLOCKED, metrics.lockedBy());
+            assertTrue(metrics.maxWaitNanos() > 0);
+            assertTrue(metrics.totalWaitNanos() >= metrics.maxWaitNanos());
+        }
+    }
+
+    @Test
+    public void skipsATicketWhichIsNeverServed() {
+        expectException("Unlocking forcibly");
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .testBlockSize()
+                .timeoutMS(200)
+                .fairWriteLock(true)
+                .build()) {
+            final WriteLock writeLock = queue.writeLock();
+            writeLock.lock();
+            // as if another process took a ticket and then died
+            final TableStore<?> metaStore = queue.metaStore();
+            final LongValue nextTicket = metaStore.doWithExclusiveLock(ts -> ts.acquireValueFor("chronicle.write.lock.nextTicket", 0));
+            nextTicket.addAtomicValue(1);
+            Closeable.closeQuietly(nextTicket);
+            writeLock.unlock();
+
+            final long start = System.currentTimeMillis();
+            writeLock.lock();
+            assertTrue(System.currentTimeMillis() - start >= 300);
+            writeLock.unlock();
+
+            assertEquals(2, queue.writeLockMetrics().acquisitions());
+            assertEquals(0, queue.writeLockMetrics().queueLength());
+        }
+    }
+}
@@ -17,6 +17,7 @@
  */
 package net.openhft.chronicle.queue.impl.single;
 
+import net.openhft.chronicle.bytes.MappedBytes;
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.OS;
 import net.openhft.chronicle.core.io.AbstractCloseable;
@@ -26,6 +27,8 @@ import net.openhft.chronicle.core.time.SetTimeProvider;
 import net.openhft.chronicle.core.util.Time;
 import net.openhft.chronicle.queue.*;
 import net.openhft.chronicle.wire.DocumentContext;
+import net.openhft.chronicle.wire.Wire;
+import net.openhft.chronicle.wire.Wires;
 import org.jetbrains.annotations.NotNull;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -125,6 +128,44 @@ public class ToEndTest extends ChronicleQueueTestBase {
         }
     }
 
+    @Test
+    public void toEndStopsAtTheLastPublishedExcerpt() {
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_DAILY)
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int i = 0; i < 5; i++) {
+                final int n = i;
+                appender.writeDocument(w -> w.write("msg").int32(n));
+            }
+            try (DocumentContext dc = appender.writingDocument(true)) {
+                dc.wire().write("meta").int32(0);
+            }
+            final int cycle = appender.cycle();
+
+            // an excerpt which is complete but not yet published, as if another appender is part way through
+            try (SingleChronicleQueueStore store = queue.storeForCycle(cycle, queue.epoch(), false, null);
+                 MappedBytes bytes = store.bytes()) {
+                final Wire wire = queue.wireType().apply(bytes);
+                wire.usePadding(true);
+                long end = store.writePosition();
+                for (int header; (header = bytes.readVolatileInt(end)) != 0; )
+                    end += (Wires.lengthOf(header) + 4 + 3) & ~3;
+                bytes.writePosition(end);
+                wire.writeDocument(false, w -> w.write("msg").int32(5));
+            }
+
+            final ExcerptTailer tailer = queue.createTailer().toEnd();
+            assertEquals(queue.rollCycle().toIndex(cycle, 5), tailer.index());
+            try (DocumentContext dc = tailer.readingDocument()) {
+                assertTrue(dc.isPresent());
+                assertEquals(queue.rollCycle().toIndex(cycle, 5), dc.index());
+                assertEquals(5, dc.wire().read("msg").int32());
+            }
+        }
+    }
+
     @Test
     public void tailerToEndIncreasesRefCount() throws NoSuchFieldException, IllegalAccessException {
         String path = OS.getTarget() + "/toEndIncRefCount-" + Time.uniqueId();
@@ -0,0 +1,89 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.WritePriority;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WritePriorityTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void highPriorityLockersGoAheadOfWaitingOnes() throws InterruptedException {
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .testBlockSize()
+                .fairWriteLock(true)
+                .build()) {
+            final TableStoreFairWriteLock writeLock = (TableStoreFairWriteLock) queue.writeLock();
+            final List<String> order = Collections.synchronizedList(new ArrayList<>());
+            final List<Thread> threads = new ArrayList<>();
+            writeLock.lock();
+            for (String name : new String[]{"normal1", "normal2", "high"}) {
+                final WritePriority priority = name.equals("high") ? WritePriority.HIGH : WritePriority.NORMAL;
+                final Thread thread = new Thread(() -> {
+                    writeLock.lock(priority);
+                    order.add(name);
+                    writeLock.unlock();
+                });
+                final long queueLength = writeLock.queueLength();
+                thread.start();
+                threads.add(thread);
+                while (writeLock.queueLength() == queueLength)
+                    Jvm.pause(1);
+            }
+            assertEquals(1, writeLock.highPriorityQueueLength());
+            writeLock.unlock();
+            for (Thread thread : threads)
+                thread.join();
+
+            assertEquals("[high, normal1, normal2]", order.toString());
+            assertEquals(0, writeLock.queueLength());
+        }
+    }
+
+    @Test
+    public void lowPriorityAppenderOnlyLocksToCopyItsExcerpt() throws Exception {
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .testBlockSize()
+                .build()) {
+            final ExcerptAppender appender = queue.acquireAppender().priority(WritePriority.LOW);
+            assertEquals(WritePriority.LOW, appender.priority());
+            final ExecutorService other = Executors.newSingleThreadExecutor();
+            try {
+                for (int i = 0; i < 2; i++) {
+                    final int n = i;
+                    try (DocumentContext dc = appender.writingDocument()) {
+                        dc.wire().write("bulk").int32(n);
+                        assertFalse(queue.writeLock().locked());
+                        // another appender isn't held up while this is written
+                        other.submit(() -> queue.acquireAppender().writeText("order " + n)).get(5, TimeUnit.SECONDS);
+                    }
+                }
+            } finally {
+                other.shutdown();
+                other.awaitTermination(1, TimeUnit.SECONDS);
+            }
+
+            final ExcerptTailer tailer = queue.createTailer();
+            for (int i = 0; i < 2; i++) {
+                assertEquals("order " + i, tailer.readText());
+                try (DocumentContext dc = tailer.readingDocument()) {
+                    assertEquals(i, dc.wire().read("bulk").int32());
+                    assertEquals(0, dc.wire().bytes().readRemaining());
+                }
+            }
+            assertFalse(tailer.readingDocument().isPresent());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package net.openhft.chronicle.queue.impl.single;
+
+import net.openhft.chronicle.core.OS;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+public class WriteWindowLockTest extends ChronicleQueueTestBase {
+    private static final long WINDOW = 2 << 20;
+
+    @Test
+    public void segmentsNeverSpanChunks() {
+        assertEquals(1 << 20, WriteWindowLock.segmentSize(64 << 20));
+        assertEquals(256 << 10, WriteWindowLock.segmentSize(3 * (256 << 10)));
+        assertEquals(OS.pageSize(), WriteWindowLock.segmentSize(OS.pageSize()));
+    }
+
+    @Test
+    public void locksNothingWithoutJna() throws Exception {
+        final List<URL> urls = new ArrayList<>();
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator))
+            urls.add(new File(path).toURI().toURL());
+        // loads its own copy of the classes, without JNA
+        try (URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[0]), null) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (name.startsWith("com.sun.jna."))
+                    throw new ClassNotFoundException(name);
+                return super.loadClass(name, resolve);
+            }
+        }) {
+            final Class<?> mlock = Class.forName(WriteWindowLock.MLock.class.getName(), true, loader);
+            final Method lock = mlock.getDeclaredMethod("lock", long.class, long.class);
+            lock.setAccessible(true);
+            assertEquals(-1, lock.invoke(null, 0L, (long) OS.pageSize()));
+        }
+    }
+
+    @Test
+    public void locksAWindowWhichFollowsTheWriterAcrossRolls() throws InvalidEventHandlerException, IOException {
+        assumeTrue(OS.isLinux());
+        final long lockedBefore = lockedKB();
+        final SetTimeProvider time = new SetTimeProvider(System.currentTimeMillis() / 1000 * 1000);
+        try (SingleChronicleQueue queue = SingleChronicleQueueBuilder.binary(getTmpDir())
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(time)
+                .blockSize(1 << 20)
+                .writeWindowLockSize(WINDOW)
+                .build();
+             Pretoucher pretoucher = new Pretoucher(queue)) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            for (int cycle = 0; cycle < 2; cycle++) {
+                for (int i = 0; i < 40; i++) {
+                    try (DocumentContext dc = appender.writingDocument()) {
+                        dc.wire().bytes().writeSkip(32 << 10);
+                    }
+                    pretoucher.execute();
+                }
+                assumeTrue("mlock is not permitted", pretoucher.lockedBytes() > 0);
+                assertEquals(WINDOW, pretoucher.lockedBytes());
+                // only the window of the current cycle is locked
+                assertEquals(WINDOW >> 10, lockedKB() - lockedBefore);
+                time.advanceMillis(1_000);
+            }
+        }
+        assertEquals(lockedBefore, lockedKB());
+    }
+
+    private static long lockedKB() throws IOException {
+        for (String line : Files.readAllLines(Paths.get("/proc/self/status")))
+            if (line.startsWith("VmLck:"))
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+        return 0;
+    }
+}
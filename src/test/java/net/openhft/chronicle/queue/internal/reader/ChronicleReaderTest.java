@@ -1,9 +1,11 @@
 package net.openhft.chronicle.queue.internal.reader;
 
+import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.OS;
 import net.openhft.chronicle.core.io.AbstractCloseable;
 import net.openhft.chronicle.core.io.AbstractReferenceCounted;
+import net.openhft.chronicle.core.time.SetTimeProvider;
 import net.openhft.chronicle.queue.*;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
@@ -17,9 +19,11 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
@@ -368,6 +372,125 @@ try (final ChronicleQueue queue = SingleChronicleQueueBuilder.binary(path).rollC
                 .replaceAll(":", "");
     }
 
+    @Test
+    public void shouldOnlyConvertRecordsContainingTheBinarySearchText() {
+        basicReader().withBinarySearch("goodbye").execute();
+
+        assertEquals(24, capturedOutput.size());
+        capturedOutput.stream().filter(msg -> !msg.startsWith("0x")).
+                forEach(msg -> assertThat(msg, containsString("goodbye")));
+
+        capturedOutput.clear();
+        basicReader().withBinarySearch("nothing").withBinarySearch("hello").withBinarySearch("goodbye")
+                .withExclusionRegex(".*bye$").execute();
+
+        assertEquals(24, capturedOutput.size());
+        capturedOutput.stream().filter(msg -> !msg.startsWith("0x")).
+                forEach(msg -> assertThat(msg, containsString("hello")));
+
+        capturedOutput.clear();
+        basicReader().withBinarySearch("hello goodbye").execute();
+
+        assertTrue(capturedOutput.isEmpty());
+    }
+
+    @Test
+    public void shouldOnlyDispatchRecordsContainingTheBinarySearchTextToTheMethodReader() {
+        basicReader().asMethodReader(Say.class.getName()).execute();
+        final long goodbyes = capturedOutput.stream().filter(msg -> msg.contains("goodbye")).count();
+        assertTrue(goodbyes > 0);
+
+        capturedOutput.clear();
+        basicReader().asMethodReader(Say.class.getName()).withBinarySearch("goodbye").execute();
+
+        assertEquals(goodbyes, capturedOutput.stream().filter(msg -> !msg.startsWith("0x")).count());
+        capturedOutput.stream().filter(msg -> !msg.startsWith("0x")).
+                forEach(msg -> assertThat(msg, containsString("goodbye")));
+    }
+
+    @Test
+    public void shouldExportFieldsAsCsv() {
+        final Path dir = writeTrades();
+        new InternalChronicleReader().withBasePath(dir).withMessageSink(capturedOutput::add)
+                .asMethodReader(Trades.class.getName())
+                .withFields("time:long,symbol,price:double,missing")
+                .execute();
+
+        assertEquals("[time,symbol,price,missing, " +
+                "1000,AAPL,123.5,, " +
+                "2000,\"BRK,A\",300000.25,]", capturedOutput.toString());
+    }
+
+    @Test
+    public void shouldExportFieldsAsColumns() throws IOException {
+        final Path dir = writeTrades();
+        final Path file = dir.resolve("trades.col");
+        new InternalChronicleReader().withBasePath(dir).withMessageSink(capturedOutput::add)
+                .withFields("time:long,symbol,price:double")
+                .withColumnarOutput(file)
+                .execute();
+
+        assertTrue(capturedOutput.isEmpty());
+        final Bytes<byte[]> bytes = Bytes.wrapForRead(Files.readAllBytes(file));
+        assertEquals(3, bytes.readInt());
+        final StringBuilder name = new StringBuilder();
+        for (String expected : new String[]{"time", "symbol", "price"}) {
+            bytes.readUtf8(name);
+            assertEquals(expected, name.toString());
+            bytes.readByte();
+        }
+        assertEquals(2, bytes.readInt());
+        assertEquals(1000, bytes.readLong());
+        assertEquals(2000, bytes.readLong());
+        assertEquals(4, bytes.readInt());
+        assertEquals(9, bytes.readInt());
+        final byte[] symbols = new byte[9];
+        bytes.read(symbols);
+        assertEquals("AAPLBRK,A", new String(symbols, StandardCharsets.UTF_8));
+        assertEquals(123.5, bytes.readDouble(), 0.0);
+        assertEquals(300000.25, bytes.readDouble(), 0.0);
+        assertEquals(0, bytes.readRemaining());
+    }
+
+    private Path writeTrades() {
+        final Path dir = getTmpDir().toPath();
+        try (final ChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir).testBlockSize().build()) {
+            final ExcerptAppender appender = queue.acquireAppender();
+            final Trades trades = appender.methodWriter(Trades.class);
+            trades.trade(new Trade(1000, "AAPL", 123.5, 10));
+            appender.methodWriter(Say.class).say("not a trade");
+            trades.trade(new Trade(2000, "BRK,A", 300000.25, 1));
+        }
+        return dir;
+    }
+
+    @Test
+    public void shouldReadTheSameInOrderWithThreads() {
+        final Path dir = getTmpDir().toPath();
+        final SetTimeProvider timeProvider = new SetTimeProvider();
+        try (final ChronicleQueue queue = SingleChronicleQueueBuilder.binary(dir)
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .testBlockSize().build()) {
+            final Say events = queue.acquireAppender().methodWriter(Say.class);
+            for (int i = 0; i < 10_000; i++) {
+                // over a few cycles, each more than a chunk
+                if (i % 4_500 == 0)
+                    timeProvider.advanceMillis(1_000);
+                events.say(i % 3 == 0 ? "fizz " + i : "buzz " + i);
+            }
+        }
+
+        final List<String> sequential = new ArrayList<>();
+        new InternalChronicleReader().withBasePath(dir).withInclusionRegex(".*fizz.*")
+                .withMessageSink(sequential::add).execute();
+        new InternalChronicleReader().withBasePath(dir).withInclusionRegex(".*fizz.*")
+                .withMessageSink(capturedOutput::add).withThreads(4).execute();
+
+        assertEquals(2 * 3_334, sequential.size());
+        assertEquals(sequential, new ArrayList<>(capturedOutput));
+    }
+
     private InternalChronicleReader basicReader() {
         return new InternalChronicleReader()
                 .withBasePath(dataDir)
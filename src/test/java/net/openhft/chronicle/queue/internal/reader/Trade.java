@@ -0,0 +1,17 @@
+package net.openhft.chronicle.queue.internal.reader;
+
+import net.openhft.chronicle.wire.SelfDescribingMarshallable;
+
+public class Trade extends SelfDescribingMarshallable {
+    long time;
+    String symbol;
+    double price;
+    long quantity;
+
+    public Trade(long time, String symbol, double price, long quantity) {
+        this.time = time;
+        this.symbol = symbol;
+        this.price = price;
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,6 @@
+package net.openhft.chronicle.queue.internal.reader;
+
+@FunctionalInterface
+public interface Trades {
+    void trade(final Trade trade);
+}
@@ -0,0 +1,85 @@
+package net.openhft.chronicle.queue.util;
+
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.queue.main.PretoucherMain;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PretouchServiceTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void pretouchesManyQueues() throws InvalidEventHandlerException {
+        final File dir1 = getTmpDir();
+        final File dir2 = getTmpDir();
+        try (SingleChronicleQueue queue1 = queue(dir1);
+             SingleChronicleQueue queue2 = queue(dir2);
+             PretouchService service = PretouchUtil.createService(0)) {
+            final PretouchMetrics metrics1 = service.add(queue1);
+            final PretouchMetrics metrics2 = service.add(queue2);
+            assertEquals(Arrays.asList(metrics1, metrics2), service.metrics());
+
+            final ExcerptAppender appender1 = queue1.acquireAppender();
+            final ExcerptAppender appender2 = queue2.acquireAppender();
+            for (int i = 0; i < 50; i++) {
+                write(appender1);
+                write(appender2);
+                service.action();
+            }
+            for (PretouchMetrics metrics : service.metrics()) {
+                assertTrue(metrics.pagesTouched() + metrics.pagesResident() > 0);
+                assertTrue(metrics.headRoom() > 0);
+                assertTrue(metrics.minHeadRoom() > 0);
+            }
+            assertEquals(dir1, metrics1.queuePath());
+
+            // closed queues are dropped
+            queue1.close();
+            service.action();
+            assertEquals(Arrays.asList(metrics2), service.metrics());
+        }
+    }
+
+    @Test
+    public void pretoucherMainReportsEachQueue() {
+        final File dir1 = getTmpDir();
+        final File dir2 = getTmpDir();
+        try (SingleChronicleQueue queue1 = queue(dir1);
+             SingleChronicleQueue queue2 = queue(dir2)) {
+            write(queue1.acquireAppender());
+            write(queue2.acquireAppender());
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final AtomicInteger runs = new AtomicInteger();
+            PretoucherMain.pretouch(Arrays.asList(dir1, dir2), 1, 1, new PrintStream(out), () -> runs.incrementAndGet() < 20);
+            final String report = out.toString();
+            assertTrue(report, report.contains(dir1 + " pagesTouched: "));
+            assertTrue(report, report.contains(dir2 + " pagesTouched: "));
+        }
+    }
+
+    private static SingleChronicleQueue queue(File dir) {
+        return SingleChronicleQueueBuilder.binary(dir)
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_DAILY)
+                .build();
+    }
+
+    private static void write(ExcerptAppender appender) {
+        try (DocumentContext dc = appender.writingDocument()) {
+            dc.wire().bytes().writeSkip(16 << 10);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package net.openhft.chronicle.queue.util;
+
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.core.time.SetTimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ChronicleQueueTestBase;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycles;
+import net.openhft.chronicle.queue.impl.StoreFileListener;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.threads.Pauser;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TailerStreamsTest extends ChronicleQueueTestBase {
+
+    @Test
+    public void streamInParallelByCycle() {
+        threadDump.ignore("ForkJoinPool.commonPool");
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        try (ChronicleQueue queue = queue(timeProvider)) {
+            write(queue, timeProvider, 5, 10);
+
+            final List<Long> sequential = TailerStreams.stream(queue, w -> w.read("n").int64(), false)
+                    .collect(Collectors.toList());
+            assertEquals(50, sequential.size());
+            for (int i = 0; i < 50; i++)
+                assertEquals(i, sequential.get(i).longValue());
+
+            final List<Long> parallel = TailerStreams.stream(queue, w -> w.read("n").int64(), true)
+                    .collect(Collectors.toList());
+            assertEquals(sequential, parallel);
+        }
+    }
+
+    @Test
+    public void closingAShortCircuitedStreamClosesItsTailers() {
+        threadDump.ignore("ForkJoinPool.commonPool");
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        // the number of stores acquired and not released, by cycle
+        final Map<Integer, Integer> acquired = new ConcurrentHashMap<>();
+        try (ChronicleQueue queue = SingleChronicleQueueBuilder.single(getTmpDir())
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .storeFileListener(new StoreFileListener() {
+                    @Override
+                    public void onAcquired(int cycle, File file) {
+                        acquired.merge(cycle, 1, Integer::sum);
+                    }
+
+                    @Override
+                    public void onReleased(int cycle, File file) {
+                        acquired.merge(cycle, -1, Integer::sum);
+                    }
+                })
+                .build()) {
+            write(queue, timeProvider, 3, 10);
+            final int firstCycle = queue.rollCycle().toCycle(queue.firstIndex());
+            assertEquals(0, acquired.getOrDefault(firstCycle, 0).intValue());
+
+            for (boolean parallel : new boolean[]{false, true}) {
+                try (Stream<Long> stream = TailerStreams.stream(queue, w -> w.read("n").int64(), parallel)) {
+                    // stops reading part way through the first cycle
+                    assertEquals(0L, stream.findFirst().orElse(-1L).longValue());
+                    assertTrue(acquired.get(firstCycle) > 0);
+                }
+                assertEquals(0, acquired.get(firstCycle).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void splitsByCycle() {
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        try (ChronicleQueue queue = queue(timeProvider)) {
+            write(queue, timeProvider, 4, 3);
+
+            final Spliterator<Long> s = TailerStreams.spliterator(queue, queue.firstIndex(), queue.createTailer().toEnd().index(), w -> w.read("n").int64());
+            final Spliterator<Long> prefix = s.trySplit();
+            assertNotNull(prefix);
+
+            final List<Long> first = new ArrayList<>();
+            prefix.forEachRemaining(first::add);
+            final List<Long> second = new ArrayList<>();
+            s.forEachRemaining(second::add);
+            assertEquals("[0, 1, 2, 3, 4, 5]", first.toString());
+            assertEquals("[6, 7, 8, 9, 10, 11]", second.toString());
+        }
+    }
+
+    @Test
+    public void publisherHonoursDemandAndBatches() throws InvalidEventHandlerException {
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        try (ChronicleQueue queue = queue(timeProvider)) {
+            write(queue, timeProvider, 1, 10);
+
+            final List<Long> received = new ArrayList<>();
+            final TailerPublisher.Subscription[] subscription = new TailerPublisher.Subscription[1];
+            final boolean[] completed = new boolean[1];
+            final TailerPublisher<Long> publisher = TailerStreams.publisher(queue.createTailer(), w -> w.read("n").int64(), 3, Pauser.busy(), queue.rollCycle().toIndex(0, 8));
+            publisher.subscribe(new TailerPublisher.Subscriber<Long>() {
+                @Override
+                public void onSubscribe(TailerPublisher.Subscription s) {
+                    subscription[0] = s;
+                }
+
+                @Override
+                public void onNext(Long item) {
+                    received.add(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    fail(throwable.toString());
+                }
+
+                @Override
+                public void onComplete() {
+                    completed[0] = true;
+                }
+            });
+
+            // no demand
+            assertFalse(publisher.action());
+
+            subscription[0].request(5);
+            assertTrue(publisher.action());
+            assertEquals("[0, 1, 2]", received.toString());
+            assertTrue(publisher.action());
+            assertEquals("[0, 1, 2, 3, 4]", received.toString());
+            assertFalse(publisher.action());
+
+            subscription[0].request(Long.MAX_VALUE);
+            assertFalse(completed[0]);
+            // completes once the last excerpt before the end is delivered
+            try {
+                publisher.action();
+                fail();
+            } catch (InvalidEventHandlerException expected) {
+                assertEquals("[0, 1, 2, 3, 4, 5, 6, 7]", received.toString());
+                assertTrue(completed[0]);
+            }
+        }
+    }
+
+    @Test
+    public void publisherCompletesAtTheTail() throws InvalidEventHandlerException {
+        final SetTimeProvider timeProvider = new SetTimeProvider(0);
+        try (ChronicleQueue queue = queue(timeProvider)) {
+            write(queue, timeProvider, 2, 3);
+
+            final List<Long> received = new ArrayList<>();
+            final boolean[] completed = new boolean[1];
+            final long endIndex = queue.createTailer().toEnd().index();
+            final TailerPublisher<Long> publisher = TailerStreams.publisher(queue.createTailer(), w -> w.read("n").int64(), 10, Pauser.busy(), endIndex);
+            publisher.subscribe(new TailerPublisher.Subscriber<Long>() {
+                @Override
+                public void onSubscribe(TailerPublisher.Subscription s) {
+                    s.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(Long item) {
+                    received.add(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    fail(throwable.toString());
+                }
+
+                @Override
+                public void onComplete() {
+                    completed[0] = true;
+                }
+            });
+
+            try {
+                for (int i = 0; i < 5; i++)
+                    publisher.action();
+                fail();
+            } catch (InvalidEventHandlerException expected) {
+                assertEquals("[0, 1, 2, 3, 4, 5]", received.toString());
+                assertTrue(completed[0]);
+            }
+        }
+    }
+
+    private ChronicleQueue queue(SetTimeProvider timeProvider) {
+        return SingleChronicleQueueBuilder.single(getTmpDir())
+                .testBlockSize()
+                .rollCycle(RollCycles.TEST_SECONDLY)
+                .timeProvider(timeProvider)
+                .build();
+    }
+
+    private static void write(ChronicleQueue queue, SetTimeProvider timeProvider, int cycles, int perCycle) {
+        final ExcerptAppender appender = queue.acquireAppender();
+        IntStream.range(0, cycles * perCycle).forEach(n -> {
+            if (n > 0 && n % perCycle == 0)
+                timeProvider.advanceMillis(2_000);
+            appender.writeDocument(w -> w.write("n").int64(n));
+        });
+    }
+}